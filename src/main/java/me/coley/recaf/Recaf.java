@@ -2,6 +2,7 @@ package me.coley.recaf;
 
 import io.github.soc.directories.BaseDirectories;
 import me.coley.recaf.command.impl.Initializer;
+import me.coley.recaf.compiler.JavacCompiler;
 import me.coley.recaf.control.Controller;
 import me.coley.recaf.control.headless.HeadlessController;
 import me.coley.recaf.plugin.PluginsManager;
@@ -17,7 +18,9 @@ import me.coley.recaf.workspace.Workspace;
 import org.objectweb.asm.Opcodes;
 import picocli.CommandLine;
 
+import java.io.IOException;
 import java.lang.instrument.Instrumentation;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collection;
@@ -85,6 +88,13 @@ public class Recaf {
 			System.setProperty("jdk.gtk.version", "2");
 			// Fix for this dumb "feature" - https://mattryall.net/blog/the-infamous-turkish-locale-bug
 			Locale.setDefault(Locale.US);
+			// Remove the primary definitions jar written by older versions.
+			// The compiler reads the workspace directly now, so a stale copy would only shadow it.
+			try {
+				Files.deleteIfExists(JavacCompiler.getCompilerClasspathDirectory().resolve("primary.jar"));
+			} catch(IOException ex) {
+				warn("Failed to remove outdated compiler classpath jar: {}", ex.getMessage());
+			}
 			// Show version & start
 			info("Recaf-{}", VERSION);
 			initialized = true;
@@ -0,0 +1,42 @@
+package me.coley.recaf.command.impl;
+
+import me.coley.recaf.command.ControllerCommand;
+import me.coley.recaf.parse.bytecode.BatchAssembler;
+import picocli.CommandLine;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Command for assembling many members of many classes at once.
+ *
+ * @author Matt
+ */
+@CommandLine.Command(name = "batch-assemble", description = "Assemble members from a document, " +
+		"or a directory of documents, rewriting each affected class once.")
+public class BatchAssemble extends ControllerCommand implements Callable<Set<String>> {
+	@CommandLine.Parameters(index = "0", description = "Document file, or directory of documents, " +
+			"to load bytecode from. Each member is preceded by a 'CLASS <name>' line.")
+	public File input;
+
+	/**
+	 * @return Names of updated classes.
+	 *
+	 * @throws Exception
+	 * 		<ul><li>IOException, cannot read the input</li></ul>
+	 * 		<ul><li>AssemblerException, cannot compile bytecode, all problems are included</li></ul>
+	 */
+	@Override
+	public Set<String> call() throws Exception {
+		if(input == null || !input.exists())
+			throw new IllegalStateException("No such input '" + input + "'");
+		BatchAssembler assembler = new BatchAssembler(getController());
+		assembler.add(input.toPath());
+		Map<String, byte[]> updated = assembler.assemble();
+		// Only update the workspace once every member has been assembled
+		updated.forEach(getWorkspace().getPrimary().getClasses()::put);
+		return updated.keySet();
+	}
+}
@@ -0,0 +1,56 @@
+package me.coley.recaf.command.impl;
+
+import me.coley.recaf.command.ControllerCommand;
+import me.coley.recaf.command.completion.WorkspaceNameCompletions;
+import me.coley.recaf.parse.bytecode.BatchDisassembler;
+import org.apache.commons.io.FileUtils;
+import org.objectweb.asm.ClassReader;
+import picocli.CommandLine;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Command for disassembling whole classes.
+ *
+ * @author Matt
+ */
+@CommandLine.Command(name = "batch-disassemble", description = "Disassemble all members of classes.")
+public class BatchDisassemble extends ControllerCommand implements Callable<String> {
+	@CommandLine.Parameters(index = "0", arity = "1..*", description = "Classes, or package prefixes " +
+			"ending with '/', to disassemble.", completionCandidates = WorkspaceNameCompletions.class)
+	public List<String> classNames;
+	@CommandLine.Option(names = { "--destination" }, description = "File to write disassembled code to.")
+	public File destination;
+	@CommandLine.Option(names = { "--debug" }, description = "Include debug info.", defaultValue = "true")
+	public boolean debug = true;
+
+	/**
+	 * @return Disassembled document.
+	 *
+	 * @throws Exception
+	 * 		<ul><li>IllegalStateException, cannot find a class</li></ul>
+	 * 		<ul><li>IOException, cannot write to destination</li></ul>
+	 */
+	@Override
+	public String call() throws Exception {
+		List<String> names = classNames.stream()
+				.flatMap(name -> name.endsWith("/") ?
+						getWorkspace().getPrimaryClassNames().stream().filter(n -> n.startsWith(name)).sorted() :
+						Stream.of(name))
+				.distinct()
+				.collect(Collectors.toList());
+		int flags = ClassReader.SKIP_FRAMES;
+		if (!debug)
+			flags |= ClassReader.SKIP_DEBUG;
+		String document = new BatchDisassembler(getWorkspace(), flags).disassemble(names);
+		if (destination != null)
+			FileUtils.write(destination, document, UTF_8);
+		return document;
+	}
+}
@@ -2,7 +2,7 @@ package me.coley.recaf.command.impl;
 
 import me.coley.recaf.command.ControllerCommand;
 import me.coley.recaf.command.completion.WorkspaceNameCompletions;
-import me.coley.recaf.parse.bytecode.Disassembler;
+import me.coley.recaf.parse.bytecode.DisassemblyCache;
 import me.coley.recaf.util.ClassUtil;
 import org.apache.commons.io.FileUtils;
 import org.objectweb.asm.ClassReader;
@@ -61,7 +61,7 @@ public class Disassemble extends ControllerCommand implements Callable<Disassemb
 		if (method == null)
 			throw new IllegalStateException("No method '" + methodDef + "' found in '" + className + "'");
 		// Disassemble
-		Result result = new Result(node, method, destination);
+		Result result = new Result(reader, node, method, destination);
 		if (destination != null)
 			FileUtils.write(destination, result.disassembled, UTF_8);
 		return result;
@@ -76,12 +76,11 @@ public class Disassemble extends ControllerCommand implements Callable<Disassemb
 		private final String disassembled;
 		private final File destination;
 
-		private Result(ClassNode owner, MethodNode method, File destination) {
+		private Result(ClassReader reader, ClassNode owner, MethodNode method, File destination) {
 			this.owner =owner;
 			this.method = method;
 			this.destination = destination;
-			Disassembler disassembler = new Disassembler();
-			disassembled = disassembler.disassemble(method);
+			disassembled = DisassemblyCache.disassemble(reader, ClassReader.SKIP_FRAMES, method);
 		}
 
 		/**
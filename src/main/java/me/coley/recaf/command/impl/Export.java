@@ -3,6 +3,7 @@ package me.coley.recaf.command.impl;
 import me.coley.recaf.command.ControllerCommand;
 import me.coley.recaf.plugin.PluginsManager;
 import me.coley.recaf.plugin.api.ExportInterceptorPlugin;
+import me.coley.recaf.util.ArchiveWriter;
 import me.coley.recaf.util.IOUtil;
 import me.coley.recaf.workspace.*;
 import org.apache.commons.io.FileUtils;
@@ -15,10 +16,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.Callable;
-import java.util.jar.JarEntry;
-import java.util.jar.JarOutputStream;
 import java.util.stream.Collectors;
-import java.util.zip.ZipOutputStream;
+import java.util.zip.Deflater;
 
 import static me.coley.recaf.util.CollectionUtil.copySet;
 import static me.coley.recaf.util.Log.*;
@@ -34,6 +33,8 @@ public class Export extends ControllerCommand implements Callable<Void> {
 	public File output;
 	@CommandLine.Option(names = { "--shadelibs" }, description = "Add library files to export.")
 	public boolean shadeLibs;
+	@CommandLine.Option(names = { "--level" }, description = "Compression level, 0 (stored) to 9.")
+	public int level = Deflater.DEFAULT_COMPRESSION;
 
 	/**
 	 * @return n/a
@@ -81,7 +82,7 @@ public class Export extends ControllerCommand implements Callable<Void> {
 		if (output.isDirectory() && primary instanceof DirectoryResource)
 			writeDirectory(output, outContent);
 		else
-			writeArchive(output, outContent);
+			writeArchive(output, outContent, level, getSourceArchives());
 		info("Saved to {}.\n - Modified classes: {}\n - Modified resources: {}",
 				output.getName(), modifiedClasses.size(), modifiedResources.size());
 		return null;
@@ -99,11 +100,12 @@ public class Export extends ControllerCommand implements Callable<Void> {
 	 * 		When a file cannot be written to.
 	 */
 	public static void writeDirectory(File output, Map<String, byte[]> content) throws IOException {
+		Collection<ExportInterceptorPlugin> interceptors = PluginsManager.getInstance()
+				.ofType(ExportInterceptorPlugin.class);
 		for (Map.Entry<String, byte[]> entry : content.entrySet()) {
 			String name = entry.getKey();
 			byte[] out = entry.getValue();
-			for (ExportInterceptorPlugin interceptor : PluginsManager.getInstance()
-					.ofType(ExportInterceptorPlugin.class)) {
+			for (ExportInterceptorPlugin interceptor : interceptors) {
 				out = interceptor.intercept(name, out);
 			}
 			Path path = Paths.get(output.getAbsolutePath(), name);
@@ -124,46 +126,63 @@ public class Export extends ControllerCommand implements Callable<Void> {
 	 * 		When the jar file cannot be written to.
 	 */
 	public static void writeArchive(File output, Map<String, byte[]> content) throws IOException {
-		String extension = IOUtil.getExtension(output.toPath());
-		// Use buffered streams
-		// See https://github.com/Col-E/Recaf/issues/391
-		OutputStream os = new BufferedOutputStream(Files.newOutputStream(output.toPath()), 1048576);
-		try (ZipOutputStream jos = ("zip".equals(extension)) ? new ZipOutputStream(os) :
-				/* Let's assume it's a jar */ new JarOutputStream(os)) {
-			PluginsManager pluginsManager = PluginsManager.getInstance();
-			Set<String> dirsVisited = new HashSet<>();
-			// Contents is iterated in sorted order (because 'archiveContent' is TreeMap).
-			// This allows us to insert directory entries before file entries of that directory occur.
-			for (Map.Entry<String, byte[]> entry : content.entrySet()) {
-				String key = entry.getKey();
-				byte[] out = entry.getValue();
-				for (ExportInterceptorPlugin interceptor : pluginsManager.ofType(ExportInterceptorPlugin.class)) {
-					out = interceptor.intercept(key, out);
-				}
-				// Write directories for upcoming entries if necessary
-				// - Ugly, but does the job.
-				if (key.contains("/")) {
-					// Record directories
-					String parent = key;
-					List<String> toAdd = new ArrayList<>();
-					do {
-						parent = parent.substring(0, parent.lastIndexOf('/'));
-						if (dirsVisited.add(parent)) {
-							toAdd.add(0, parent + '/');
-						} else break;
-					} while (parent.contains("/"));
-					// Put directories in order of depth
-					for (String dir : toAdd) {
-						jos.putNextEntry(new JarEntry(dir));
-						jos.closeEntry();
-					}
-				}
-				// Write entry content
-				jos.putNextEntry(new JarEntry(key));
-				jos.write(out);
-				jos.closeEntry();
+		writeArchive(output, content, Deflater.DEFAULT_COMPRESSION, Collections.emptyList());
+	}
+
+	/**
+	 * Writes a map to an archive. Entries are compressed in parallel.
+	 *
+	 * @param output
+	 * 		File location of jar.
+	 * @param content
+	 * 		Contents to write to location.
+	 * @param level
+	 * 		Compression level, see {@link ArchiveWriter#ArchiveWriter(int)}.
+	 * 		Use {@link ArchiveWriter#STORED} for uncompressed output.
+	 * @param sources
+	 * 		Archives to copy unmodified entries from without recompressing them.
+	 *
+	 * @throws IOException
+	 * 		When the jar file cannot be written to.
+	 */
+	public static void writeArchive(File output, Map<String, byte[]> content, int level,
+									Collection<Path> sources) throws IOException {
+		ArchiveWriter writer = new ArchiveWriter(level);
+		writer.setJar(!"zip".equals(IOUtil.getExtension(output.toPath())));
+		Collection<ExportInterceptorPlugin> interceptors = PluginsManager.getInstance()
+				.ofType(ExportInterceptorPlugin.class);
+		if (!interceptors.isEmpty())
+			writer.setInterceptor((name, value) -> {
+				for (ExportInterceptorPlugin interceptor : interceptors)
+					value = interceptor.intercept(name, value);
+				return value;
+			});
+		for (Path source : sources) {
+			try {
+				writer.addSource(source);
+			} catch(IOException ex) {
+				// Not fatal, content will be compressed from scratch instead
+				debug("Could not index '{}' for raw entry copying: {}", source, ex.getMessage());
+			}
+		}
+		writer.write(output.toPath(), content);
+	}
+
+	private List<Path> getSourceArchives() {
+		// Only archives that are not being written over can be copied from
+		List<JavaResource> resources = new ArrayList<>();
+		resources.add(getWorkspace().getPrimary());
+		if (shadeLibs)
+			resources.addAll(getWorkspace().getLibraries());
+		List<Path> sources = new ArrayList<>();
+		for (JavaResource resource : resources) {
+			if (resource instanceof ArchiveResource) {
+				Path path = ((ArchiveResource) resource).getPath();
+				if (!path.toAbsolutePath().equals(output.toPath().toAbsolutePath()))
+					sources.add(path);
 			}
 		}
+		return sources;
 	}
 
 	private void put(Map<String, byte[]> content, JavaResource res) {
@@ -0,0 +1,49 @@
+package me.coley.recaf.command.impl;
+
+import me.coley.recaf.command.ControllerCommand;
+import me.coley.recaf.plugin.PluginsManager;
+import me.coley.recaf.plugin.api.WorkspaceTransformerPlugin;
+import me.coley.recaf.workspace.WorkspaceTransformer;
+import picocli.CommandLine;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+import static me.coley.recaf.util.Log.*;
+
+/**
+ * Command for applying transformer plugins to the primary resource.
+ *
+ * @author Matt
+ */
+@CommandLine.Command(name = "transform", description = "Apply transformer plugins to the primary resource.")
+public class Transform extends ControllerCommand implements Callable<Void> {
+	@CommandLine.Parameters(arity = "0..*", description = "Names of plugins to apply, all active plugins if none.")
+	public List<String> names = new ArrayList<>();
+
+	/**
+	 * @return n/a
+	 *
+	 * @throws Exception
+	 * 		<ul><li>IllegalArgumentException, a named plugin is not an active transformer</li></ul>
+	 */
+	@Override
+	public Void call() throws Exception {
+		List<WorkspaceTransformerPlugin> transformers = PluginsManager.getInstance()
+				.ofType(WorkspaceTransformerPlugin.class).stream()
+				.filter(transformer -> names.isEmpty() || names.contains(transformer.getName()))
+				.collect(Collectors.toList());
+		if (!names.isEmpty() && transformers.size() != names.size()) {
+			Set<String> missing = new TreeSet<>(names);
+			transformers.forEach(transformer -> missing.remove(transformer.getName()));
+			throw new IllegalArgumentException("No active transformer plugins named: " + missing);
+		}
+		if (transformers.isEmpty()) {
+			warn("No active transformer plugins");
+			return null;
+		}
+		new WorkspaceTransformer(getWorkspace()).apply(transformers);
+		return null;
+	}
+}
@@ -52,6 +52,9 @@ public class WorkspaceInfo extends ControllerCommand implements Callable<Void> {
 			case URL:
 				sb.append(((UrlResource)resource).getUrl());
 				break;
+			case NESTED:
+				sb.append(resource.getName());
+				break;
 			case INSTRUMENTATION:
 				sb.append("Instrumentation");
 				break;
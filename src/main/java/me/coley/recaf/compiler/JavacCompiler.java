@@ -3,6 +3,7 @@ package me.coley.recaf.compiler;
 import me.coley.recaf.Recaf;
 import me.coley.recaf.util.IOUtil;
 import me.coley.recaf.util.VMUtil;
+import me.coley.recaf.workspace.JavaResource;
 
 import javax.tools.*;
 import javax.tools.JavaFileObject.Kind;
@@ -22,6 +23,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  */
 public class JavacCompiler {
 	private List<String> pathItems;
+	private List<JavaResource> pathResources = Collections.emptyList();
 	private final Map<String, VirtualJavaFileObject> unitMap = new HashMap<>();
 	private final JavacOptions options = new JavacOptions();
 	private DiagnosticListener<VirtualJavaFileObject> listener;
@@ -38,7 +40,19 @@ public class JavacCompiler {
 		// file manager, used so that the unit map can have their definitions updated
 		// after compilation.
 		DiagnosticListener<? super JavaFileObject> lll = (DiagnosticListener<? super JavaFileObject>) (Object) listener;
-		JavaFileManager fmFallback = javac.getStandardFileManager(lll, Locale.getDefault(), UTF_8);
+		// Closed after compiling so that classpath archives are not left open
+		try (StandardJavaFileManager fmStandard = javac.getStandardFileManager(lll, Locale.getDefault(), UTF_8)) {
+			return compile(javac, fmStandard, lll);
+		} catch(IOException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	private boolean compile(JavaCompiler javac, JavaFileManager fmFallback,
+							DiagnosticListener<? super JavaFileObject> lll) {
+		if (!pathResources.isEmpty())
+			fmFallback = new ResourceFileManager(fmFallback, pathResources);
 		JavaFileManager fm = new VirtualFileManager(fmFallback);
 		// Add options
 		List<String> args = new ArrayList<>();
@@ -78,7 +92,6 @@ public class JavacCompiler {
 
 		try {
 			Stream<Path> paths = Files.walk(getCompilerClasspathDirectory());
-			paths = Stream.concat(paths, Files.walk(getCompilerGeneratedClasspathDirectory()));
 			paths.filter(p -> p.toString().toLowerCase().endsWith(".jar"))
 					.forEach(p -> sb.append(separator).append(IOUtil.toString(p)));
 		} catch (IOException e) {
@@ -94,13 +107,6 @@ public class JavacCompiler {
 		return Recaf.getDirectory("classpath").resolve("compiler");
 	}
 
-	/**
-	 * @return Directory to contain additional classpath items that were generated by Recaf.
-	 */
-	public static Path getCompilerGeneratedClasspathDirectory() {
-		return Recaf.getDirectory("classpath").resolve("generated");
-	}
-
 	/**
 	 * Add class to compilation process.
 	 *
@@ -149,6 +155,15 @@ public class JavacCompiler {
 		this.pathItems = pathItems;
 	}
 
+	/**
+	 * @param pathResources
+	 * 		Resources to use for the classpath in compilation. Classes are read directly from the resources
+	 * 		rather than from files on disk.
+	 */
+	public void setClassPathResources(List<JavaResource> pathResources) {
+		this.pathResources = pathResources;
+	}
+
 	/**
 	 * @param listener
 	 * 		Listener that receives compiler error information.
@@ -0,0 +1,210 @@
+package me.coley.recaf.compiler;
+
+import me.coley.recaf.workspace.JavaResource;
+
+import javax.tools.*;
+import javax.tools.JavaFileObject.Kind;
+import java.io.*;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.*;
+
+/**
+ * File manager that exposes the classes of {@link JavaResource resources} on the compiler's classpath.
+ * Class definitions are read straight from the resource maps, so the compiler always sees the current
+ * state of the resources without them being written to disk.
+ * <br>
+ * The package listing of each resource is cached between compilations, and is only rebuilt when
+ * classes are added to or removed from the resource.
+ *
+ * @author Matt
+ */
+public class ResourceFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+	private static final Map<JavaResource, PackageIndex> INDICES = new WeakHashMap<>();
+	private final List<JavaResource> resources;
+
+	/**
+	 * @param fallback
+	 * 		File manager to delegate to for all other content.
+	 * @param resources
+	 * 		Resources to provide classes from, in order of priority.
+	 */
+	public ResourceFileManager(JavaFileManager fallback, List<JavaResource> resources) {
+		super(fallback);
+		this.resources = resources;
+	}
+
+	@Override
+	public Iterable<JavaFileObject> list(Location location, String packageName, Set<Kind> kinds,
+										 boolean recurse) throws IOException {
+		Iterable<JavaFileObject> fallback = super.list(location, packageName, kinds, recurse);
+		if (location != StandardLocation.CLASS_PATH || !kinds.contains(Kind.CLASS))
+			return fallback;
+		String internalPackage = packageName.replace('.', '/');
+		List<JavaFileObject> files = new ArrayList<>();
+		for (int i = 0; i < resources.size(); i++) {
+			Map<String, List<String>> index = getPackageIndex(resources.get(i));
+			if (recurse) {
+				for (Map.Entry<String, List<String>> e : index.entrySet()) {
+					String pkg = e.getKey();
+					boolean matches = internalPackage.isEmpty() || pkg.equals(internalPackage) ||
+							pkg.startsWith(internalPackage + '/');
+					if (matches)
+						addFiles(files, i, e.getValue());
+				}
+			} else {
+				addFiles(files, i, index.getOrDefault(internalPackage, Collections.emptyList()));
+			}
+		}
+		if (files.isEmpty())
+			return fallback;
+		for (JavaFileObject file : fallback)
+			files.add(file);
+		return files;
+	}
+
+	@Override
+	public String inferBinaryName(Location location, JavaFileObject file) {
+		if (file instanceof ResourceClassFileObject)
+			return ((ResourceClassFileObject) file).name.replace('/', '.');
+		return super.inferBinaryName(location, file);
+	}
+
+	@Override
+	public boolean isSameFile(FileObject a, FileObject b) {
+		if (a instanceof ResourceClassFileObject || b instanceof ResourceClassFileObject)
+			return a.equals(b);
+		return super.isSameFile(a, b);
+	}
+
+	@Override
+	public JavaFileObject getJavaFileForInput(Location location, String className, Kind kind)
+			throws IOException {
+		if (location == StandardLocation.CLASS_PATH && kind == Kind.CLASS) {
+			String internal = className.replace('.', '/');
+			if (getCode(internal) != null)
+				return new ResourceClassFileObject(internal);
+		}
+		return super.getJavaFileForInput(location, className, kind);
+	}
+
+	/**
+	 * Adds files for the given classes, skipping classes that are shadowed by a resource of higher priority.
+	 *
+	 * @param files
+	 * 		List to add to.
+	 * @param resourceIndex
+	 * 		Index of the resource the classes belong to.
+	 * @param names
+	 * 		Internal names of the classes.
+	 */
+	private void addFiles(List<JavaFileObject> files, int resourceIndex, List<String> names) {
+		for (String name : names) {
+			boolean shadowed = false;
+			for (int i = 0; i < resourceIndex && !shadowed; i++)
+				shadowed = resources.get(i).getClasses().containsKey(name);
+			if (!shadowed)
+				files.add(new ResourceClassFileObject(name));
+		}
+	}
+
+	/**
+	 * @param resource
+	 * 		Resource to index.
+	 *
+	 * @return Map of internal package names to the internal names of classes in the package.
+	 */
+	private static Map<String, List<String>> getPackageIndex(JavaResource resource) {
+		PackageIndex index;
+		synchronized (INDICES) {
+			index = INDICES.get(resource);
+			if (index == null) {
+				index = new PackageIndex();
+				INDICES.put(resource, index);
+				// Any addition or removal of a class changes the package contents.
+				// Updates to existing classes are read directly from the resource, so they do not matter.
+				PackageIndex finalIndex = index;
+				resource.getClasses().getPutListeners().add((name, code) -> {
+					if (!resource.getClasses().containsKey(name))
+						finalIndex.dirty = true;
+				});
+				resource.getClasses().getRemoveListeners().add(name -> finalIndex.dirty = true);
+			}
+		}
+		return index.get(resource);
+	}
+
+	private byte[] getCode(String name) {
+		for (JavaResource resource : resources) {
+			byte[] code = resource.getClasses().get(name);
+			if (code != null)
+				return code;
+		}
+		return null;
+	}
+
+	private static URI createUri(String name) {
+		try {
+			return new URI("recaf", null, "/" + name + Kind.CLASS.extension, null);
+		} catch(URISyntaxException ex) {
+			// Should not occur, the constructor quotes illegal characters
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Class file backed by the current value in a resource.
+	 */
+	private final class ResourceClassFileObject extends SimpleJavaFileObject {
+		private final String name;
+
+		private ResourceClassFileObject(String name) {
+			super(createUri(name), Kind.CLASS);
+			this.name = name;
+		}
+
+		@Override
+		public InputStream openInputStream() throws IOException {
+			byte[] code = getCode(name);
+			if (code == null)
+				throw new FileNotFoundException(name);
+			return new ByteArrayInputStream(code);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof ResourceClassFileObject && name.equals(((ResourceClassFileObject) o).name);
+		}
+
+		@Override
+		public int hashCode() {
+			return name.hashCode();
+		}
+	}
+
+	/**
+	 * Cached package listing of a resource.
+	 */
+	private static final class PackageIndex {
+		private volatile boolean dirty = true;
+		private Map<String, List<String>> packages = Collections.emptyMap();
+		private int size;
+
+		private synchronized Map<String, List<String>> get(JavaResource resource) {
+			Map<String, byte[]> classes = resource.getClasses();
+			// The size check catches the class map being cleared, which does not notify listeners
+			if (dirty || size != classes.size()) {
+				dirty = false;
+				Map<String, List<String>> index = new HashMap<>();
+				for (String name : classes.keySet()) {
+					int split = name.lastIndexOf('/');
+					String pkg = split > 0 ? name.substring(0, split) : "";
+					index.computeIfAbsent(pkg, k -> new ArrayList<>()).add(name);
+				}
+				packages = index;
+				size = classes.size();
+			}
+			return packages;
+		}
+	}
+}
@@ -134,9 +134,12 @@ public abstract class Controller implements Runnable {
 		register(Disassemble.class);
 		register(Decompile.class);
 		register(Assemble.class);
+		register(BatchDisassemble.class);
+		register(BatchAssemble.class);
 		register(Export.class);
 		register(Search.class);
 		register(Remap.class);
+		register(Transform.class);
 		register(Help.class);
 		register(Quit.class);
 		register(Wait.class);
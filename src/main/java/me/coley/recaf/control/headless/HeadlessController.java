@@ -222,6 +222,8 @@ public class HeadlessController extends Controller {
 			else
 				jline.handleDisassemble(v);
 		});
+		registerHandler(BatchDisassemble.class, Log::info);
+		registerHandler(BatchAssemble.class, v -> info("Updated {} classes", v.size()));
 		registerHandler(LoadWorkspace.class, this::setWorkspace);
 		registerHandler(Decompile.class, Log::info);
 		registerHandler(Search.ClassInheritance.class, printResults);
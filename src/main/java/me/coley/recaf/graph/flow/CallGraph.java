@@ -0,0 +1,335 @@
+package me.coley.recaf.graph.flow;
+
+import me.coley.recaf.Recaf;
+import me.coley.recaf.util.struct.InternalBiConsumer;
+import me.coley.recaf.util.struct.InternalConsumer;
+import me.coley.recaf.workspace.JavaResource;
+import me.coley.recaf.workspace.Workspace;
+import org.objectweb.asm.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.objectweb.asm.ClassReader.*;
+
+/**
+ * Materialized method call graph of a workspace. Methods are assigned compact integer identifiers,
+ * and calls are stored as adjacency arrays in both directions <i>(caller to callee, callee to caller)</i>.
+ * <br>
+ * Classes of the primary resource and libraries are scanned in parallel on first use of
+ * {@link #getCallers(int)}. Other classes <i>(runtime, phantoms)</i> are scanned when their
+ * outbound calls are first requested. Updates to primary classes are tracked, and only the
+ * updated classes are rescanned, along with classes calling into them while they were missing.
+ *
+ * @author Matt
+ */
+public class CallGraph {
+	private static final int[] EMPTY = new int[0];
+	private final Workspace workspace;
+	private final Map<String, Integer> ids = new HashMap<>();
+	// Scanned classes, to the ids of the methods they declare
+	private final Map<String, int[]> classMethods = new HashMap<>();
+	// Bytecode of scanned classes, to tell if the workspace holds different bytecode
+	private final Map<String, byte[]> scannedCode = new HashMap<>();
+	// Lookup cache of which class names can be resolved in the workspace
+	private final Map<String, Boolean> resolvable = new HashMap<>();
+	// Unresolvable class names, to the scanned classes with calls into them
+	private final Map<String, Set<String>> unresolvedCallers = new HashMap<>();
+	private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+	private String[] owners = new String[256];
+	private String[] names = new String[256];
+	private String[] descs = new String[256];
+	private int[][] callees = new int[256][];
+	// Callers are grown in place, only the first callerCounts[id] values are used
+	private int[][] callers = new int[256][];
+	private int[] callerCounts = new int[256];
+	private int size;
+	private boolean built;
+
+	/**
+	 * @param workspace
+	 * 		Workspace to pull classes from.
+	 */
+	public CallGraph(Workspace workspace) {
+		this.workspace = workspace;
+		JavaResource primary = workspace.getPrimary();
+		primary.getClasses().getPutListeners().add(InternalBiConsumer.internal((name, code) -> dirty.add(name)));
+		primary.getClasses().getRemoveListeners().add(InternalConsumer.internal(name -> dirty.add((String) name)));
+	}
+
+	/**
+	 * @param owner
+	 * 		Class name.
+	 * @param name
+	 * 		Method name.
+	 * @param desc
+	 * 		Method descriptor.
+	 *
+	 * @return Identifier of the method, or {@code -1} if the method is not a part of the graph.
+	 */
+	public synchronized int getId(String owner, String name, String desc) {
+		update();
+		ensureScanned(owner);
+		Integer id = ids.get(key(owner, name, desc));
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * @param id
+	 * 		Method identifier.
+	 *
+	 * @return Name of the class declaring the method.
+	 */
+	public synchronized String getOwner(int id) {
+		return owners[id];
+	}
+
+	/**
+	 * @param id
+	 * 		Method identifier.
+	 *
+	 * @return Name of the method.
+	 */
+	public synchronized String getName(int id) {
+		return names[id];
+	}
+
+	/**
+	 * @param id
+	 * 		Method identifier.
+	 *
+	 * @return Descriptor of the method.
+	 */
+	public synchronized String getDesc(int id) {
+		return descs[id];
+	}
+
+	/**
+	 * @param id
+	 * 		Method identifier.
+	 *
+	 * @return Identifiers of methods called by the given method, in order of first occurrence.
+	 * Do not modify the returned array.
+	 */
+	public synchronized int[] getCallees(int id) {
+		update();
+		ensureScanned(owners[id]);
+		int[] value = callees[id];
+		return value == null ? EMPTY : value;
+	}
+
+	/**
+	 * @param id
+	 * 		Method identifier.
+	 *
+	 * @return Identifiers of methods in the primary resource and libraries that call the given method,
+	 * in no particular order.
+	 */
+	public synchronized int[] getCallers(int id) {
+		update();
+		if (!built)
+			build();
+		int count = callerCounts[id];
+		return count == 0 ? EMPTY : Arrays.copyOf(callers[id], count);
+	}
+
+	/**
+	 * Scan all classes in the primary resource and libraries.
+	 */
+	public synchronized void build() {
+		// Collect classes, giving priority to the primary resource like the workspace does
+		Map<String, byte[]> classes = new LinkedHashMap<>();
+		List<JavaResource> resources = new ArrayList<>();
+		resources.add(workspace.getPrimary());
+		resources.addAll(workspace.getLibraries());
+		for (JavaResource resource : resources)
+			resource.getClasses().forEach(classes::putIfAbsent);
+		classes.keySet().removeAll(classMethods.keySet());
+		// Parsing does not touch any shared state, so it can be done in parallel
+		List<ClassCalls> scanned = classes.entrySet().parallelStream()
+				.map(e -> parse(e.getKey(), e.getValue()))
+				.collect(Collectors.toList());
+		for (ClassCalls calls : scanned)
+			apply(calls);
+		built = true;
+	}
+
+	/**
+	 * Mark a class as updated. It will be rescanned when the graph is next queried
+	 * and the workspace holds different bytecode for it.
+	 *
+	 * @param name
+	 * 		Class name.
+	 */
+	public void onClassUpdated(String name) {
+		dirty.add(name);
+	}
+
+	private void update() {
+		if (dirty.isEmpty())
+			return;
+		Set<String> rescan = new LinkedHashSet<>();
+		for (String name : new ArrayList<>(dirty)) {
+			dirty.remove(name);
+			// Classes are marked before the change is applied.
+			// Until then the class still has the scanned bytecode, and stays marked.
+			byte[] code = workspace.getRawClass(name);
+			if (code != null && code == scannedCode.get(name)) {
+				dirty.add(name);
+				continue;
+			}
+			rescan.add(name);
+			resolvable.remove(name);
+			// Calls into the class were dropped while it could not be resolved
+			Set<String> callers = unresolvedCallers.remove(name);
+			if (callers != null)
+				rescan.addAll(callers);
+		}
+		for (String name : rescan) {
+			// Only rescan classes the graph already knows about, or that belong in the built graph
+			if (classMethods.containsKey(name) || (built && workspace.getPrimary().getClasses().containsKey(name)))
+				apply(parse(name, workspace.getRawClass(name)));
+		}
+	}
+
+	private void ensureScanned(String owner) {
+		if (!classMethods.containsKey(owner))
+			apply(parse(owner, workspace.getRawClass(owner)));
+	}
+
+	private void apply(ClassCalls calls) {
+		// Clear outbound calls of the previous scan
+		int[] previous = classMethods.getOrDefault(calls.name, EMPTY);
+		for (int id : previous)
+			setCallees(id, EMPTY);
+		// Record new outbound calls
+		int[] declared = new int[calls.methods.size()];
+		int i = 0;
+		for (MethodCalls method : calls.methods) {
+			int id = getOrCreate(calls.name, method.name, method.desc);
+			declared[i++] = id;
+			Set<Integer> targets = new LinkedHashSet<>();
+			for (String[] ref : method.refs) {
+				// If the class cannot be loaded it's assumed to be a core class.
+				if (resolvable.computeIfAbsent(ref[0], workspace::hasClass))
+					targets.add(getOrCreate(ref[0], ref[1], ref[2]));
+				else
+					unresolvedCallers.computeIfAbsent(ref[0], k -> new HashSet<>()).add(calls.name);
+			}
+			setCallees(id, targets.stream().mapToInt(Integer::intValue).toArray());
+		}
+		classMethods.put(calls.name, declared);
+		scannedCode.put(calls.name, calls.code);
+	}
+
+	private void setCallees(int id, int[] targets) {
+		int[] old = callees[id];
+		if (old != null)
+			for (int target : old)
+				removeCaller(target, id);
+		callees[id] = targets;
+		// Targets have no duplicates, and the old calls were removed above,
+		// so the caller is never already listed
+		for (int target : targets)
+			addCaller(target, id);
+	}
+
+	private void addCaller(int target, int id) {
+		int[] array = callers[target];
+		int count = callerCounts[target];
+		if (array == null)
+			array = callers[target] = new int[4];
+		else if (count == array.length)
+			array = callers[target] = Arrays.copyOf(array, count * 2);
+		array[count] = id;
+		callerCounts[target] = count + 1;
+	}
+
+	private void removeCaller(int target, int id) {
+		int[] array = callers[target];
+		int count = callerCounts[target];
+		for (int i = 0; i < count; i++) {
+			if (array[i] == id) {
+				// Order of callers is not kept, move the last caller into the free slot
+				array[i] = array[count - 1];
+				callerCounts[target] = count - 1;
+				return;
+			}
+		}
+	}
+
+	private int getOrCreate(String owner, String name, String desc) {
+		String key = key(owner, name, desc);
+		Integer existing = ids.get(key);
+		if (existing != null)
+			return existing;
+		if (size == owners.length) {
+			int capacity = size * 2;
+			owners = Arrays.copyOf(owners, capacity);
+			names = Arrays.copyOf(names, capacity);
+			descs = Arrays.copyOf(descs, capacity);
+			callees = Arrays.copyOf(callees, capacity);
+			callers = Arrays.copyOf(callers, capacity);
+			callerCounts = Arrays.copyOf(callerCounts, capacity);
+		}
+		int id = size++;
+		owners[id] = owner;
+		names[id] = name;
+		descs[id] = desc;
+		ids.put(key, id);
+		return id;
+	}
+
+	private static ClassCalls parse(String className, byte[] code) {
+		ClassCalls calls = new ClassCalls(className, code);
+		if (code == null)
+			return calls;
+		new ClassReader(code).accept(new ClassVisitor(Recaf.ASM_VERSION) {
+			@Override
+			public MethodVisitor visitMethod(int acc, String name, String desc, String sig, String[] exc) {
+				MethodCalls method = new MethodCalls(name, desc);
+				calls.methods.add(method);
+				return new MethodVisitor(api) {
+					@Override
+					public void visitMethodInsn(int op, String owner, String name, String desc, boolean itf) {
+						method.refs.add(new String[] { owner, name, desc });
+					}
+				};
+			}
+		}, SKIP_DEBUG | SKIP_FRAMES);
+		return calls;
+	}
+
+	private static String key(String owner, String name, String desc) {
+		return owner + '.' + name + desc;
+	}
+
+	/**
+	 * Outbound method calls of the methods in a class.
+	 */
+	private static class ClassCalls {
+		private final List<MethodCalls> methods = new ArrayList<>();
+		private final String name;
+		private final byte[] code;
+
+		private ClassCalls(String name, byte[] code) {
+			this.name = name;
+			this.code = code;
+		}
+	}
+
+	/**
+	 * Outbound method calls of a method, as owner, name and descriptor of each called method.
+	 */
+	private static class MethodCalls {
+		private final List<String[]> refs = new ArrayList<>();
+		private final String name;
+		private final String desc;
+
+		private MethodCalls(String name, String desc) {
+			this.name = name;
+			this.desc = desc;
+		}
+	}
+}
@@ -4,6 +4,8 @@ import me.coley.recaf.graph.WorkspaceGraph;
 import me.coley.recaf.workspace.Workspace;
 import org.objectweb.asm.ClassReader;
 
+import java.util.*;
+
 /**
  * Graph model to represent the method call graph starting at some specified method <i>(Modled by
  * {@link me.coley.recaf.graph.flow.FlowVertex})</i>.
@@ -11,6 +13,8 @@ import org.objectweb.asm.ClassReader;
  * @author Matt
  */
 public class FlowGraph extends WorkspaceGraph<FlowVertex> {
+	private CallGraph callGraph;
+
 	/**
 	 * Constructs a flow graph from the given workspace.
 	 *
@@ -34,11 +38,66 @@ public class FlowGraph extends WorkspaceGraph<FlowVertex> {
 	public FlowVertex getVertex(String owner, String name, String descriptor) {
 		if(getWorkspace().hasClass(owner)) {
 			ClassReader reader = getWorkspace().getClassReader(owner);
-			return getVertex(reader, name, descriptor);
+			return new FlowVertex(this, reader, name, descriptor, true);
 		}
 		return null;
 	}
 
+	/**
+	 * @param owner
+	 * 		Class name.
+	 * @param name
+	 * 		Name of method in class.
+	 * @param descriptor
+	 * 		Descriptor of method in class.
+	 *
+	 * @return Methods in the primary resource and libraries that call the given method.
+	 */
+	public Set<FlowVertex> getCallers(String owner, String name, String descriptor) {
+		CallGraph calls = getCallGraph();
+		int id = calls.getId(owner, name, descriptor);
+		if (id < 0)
+			return Collections.emptySet();
+		return toVertices(calls, calls.getCallers(id));
+	}
+
+	/**
+	 * @param owner
+	 * 		Class name.
+	 * @param name
+	 * 		Name of method in class.
+	 * @param descriptor
+	 * 		Descriptor of method in class.
+	 *
+	 * @return Methods called by the given method, in order of first occurrence.
+	 */
+	public Set<FlowVertex> getCallees(String owner, String name, String descriptor) {
+		CallGraph calls = getCallGraph();
+		int id = calls.getId(owner, name, descriptor);
+		if (id < 0)
+			return Collections.emptySet();
+		return toVertices(calls, calls.getCallees(id));
+	}
+
+	/**
+	 * @return Materialized call graph of the workspace, shared by all vertices of this graph.
+	 */
+	public synchronized CallGraph getCallGraph() {
+		if (callGraph == null)
+			callGraph = new CallGraph(getWorkspace());
+		return callGraph;
+	}
+
+	private Set<FlowVertex> toVertices(CallGraph calls, int[] ids) {
+		Set<FlowVertex> vertices = new LinkedHashSet<>();
+		for (int id : ids) {
+			FlowVertex vertex = getVertex(calls.getOwner(id), calls.getName(id), calls.getDesc(id));
+			if (vertex != null)
+				vertices.add(vertex);
+		}
+		return vertices;
+	}
+
 	/**
 	 * @param reader
 	 * 		Class reader of the class containing the given method.
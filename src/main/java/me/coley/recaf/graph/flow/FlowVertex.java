@@ -16,6 +16,7 @@ import static org.objectweb.asm.ClassReader.*;
 public class FlowVertex extends ClassVertex<FlowGraph> {
 	private final String name;
 	private final String desc;
+	private final boolean indexed;
 
 	/**
 	 * Constructs a flow vertex from the containing graph and class reader.<br>
@@ -31,9 +32,28 @@ public class FlowVertex extends ClassVertex<FlowGraph> {
 	 * 		Method descriptor.
 	 */
 	public FlowVertex(FlowGraph graph, ClassReader clazz, String name, String desc) {
+		this(graph, clazz, name, desc, false);
+	}
+
+	/**
+	 * @param graph
+	 * 		The containing graph.
+	 * @param clazz
+	 * 		The vertex data.
+	 * @param name
+	 * 		Method name.
+	 * @param desc
+	 * 		Method descriptor.
+	 * @param indexed
+	 * 		Whether the vertex data is the current workspace definition of the class.
+	 * 		If so, outbound calls are pulled from the graph's shared {@link CallGraph}
+	 * 		instead of scanning the class.
+	 */
+	FlowVertex(FlowGraph graph, ClassReader clazz, String name, String desc, boolean indexed) {
 		super(graph, clazz);
 		this.name = name;
 		this.desc = desc;
+		this.indexed = indexed;
 	}
 
 	@Override
@@ -50,6 +70,11 @@ public class FlowVertex extends ClassVertex<FlowGraph> {
 		// Only search if the method has been specified
 		if (name == null || desc == null)
 			return Collections.emptySet();
+		// Pull from the index when the vertex matches the workspace's definition of the class
+		if (indexed)
+			return graph.getCallees(getOwner(), name, desc).stream()
+					.map(vertex -> new FlowReference(vertex, vertex.getName(), vertex.getDesc()))
+					.collect(Collectors.toCollection(LinkedHashSet::new));
 		// Collect & return references.
 		OutboundCollector collector = new OutboundCollector(graph, name, desc);
 		getData().accept(collector, SKIP_DEBUG | SKIP_FRAMES);
@@ -1,7 +1,7 @@
 package me.coley.recaf.graph.inheritance;
 
 import me.coley.recaf.graph.*;
-import me.coley.recaf.util.ClassUtil;
+import me.coley.recaf.util.struct.InternalConsumer;
 import me.coley.recaf.workspace.Workspace;
 import org.objectweb.asm.ClassReader;
 
@@ -24,6 +24,10 @@ public class HierarchyGraph extends WorkspaceGraph<HierarchyVertex> {
 	 * Map of parent to children names.
 	 */
 	private final Map<String, Set<String>> descendents = new HashMap<>();
+	/**
+	 * Index of method definitions to declaring classes. Classes are indexed when first looked up.
+	 */
+	private final MethodIndex methods = new MethodIndex();
 
 	/**
 	 * Constructs a hierarchy graph from the given workspace.
@@ -33,6 +37,9 @@ public class HierarchyGraph extends WorkspaceGraph<HierarchyVertex> {
 	 */
 	public HierarchyGraph(Workspace workspace) {
 		super(workspace);
+		// Updated classes are indexed again on their next lookup, but removed classes are never looked up
+		workspace.getPrimary().getClasses().getRemoveListeners()
+				.add(InternalConsumer.internal(name -> methods.removeClass((String) name)));
 		refresh();
 	}
 
@@ -221,14 +228,30 @@ public class HierarchyGraph extends WorkspaceGraph<HierarchyVertex> {
 	 */
 	public boolean isLibrary(String owner, String name, String desc) {
 		// Get classes that are considered "library" classes (not included in Input)
-		Stream<HierarchyVertex> hierarchy = getHierarchy(owner).stream();
-		Stream<HierarchyVertex> libClasses = hierarchy.filter(vertex -> !getWorkspace()
-				.getPrimaryClassNames().contains(vertex.getClassName()));
+		Set<String> primary = getWorkspace().getPrimary().getClasses().keySet();
 		// Check if the library classes have a matching method.
-		return libClasses
-					.map(ClassVertex::getData)
-					.flatMap(cr -> ClassUtil.getMethodDefs(cr).stream())
-					.anyMatch(method -> name.equals(method.getKey()) && desc.equals(method.getValue()));
+		for (HierarchyVertex vertex : getHierarchy(owner))
+			if (!primary.contains(vertex.getClassName()) && methods.declares(vertex.getData(), name, desc))
+				return true;
+		return false;
+	}
+
+	/**
+	 * @param owner
+	 * 		Class the method resides in.
+	 * @param name
+	 * 		Method name.
+	 * @param desc
+	 * 		Method descriptor.
+	 *
+	 * @return Names of classes in the hierarchy of the owner that declare the given method.
+	 */
+	public Set<String> getDeclaringClasses(String owner, String name, String desc) {
+		Set<String> declaring = new HashSet<>();
+		for (HierarchyVertex vertex : getHierarchy(owner))
+			if (methods.declares(vertex.getData(), name, desc))
+				declaring.add(vertex.getClassName());
+		return declaring;
 	}
 
 	/**
@@ -0,0 +1,108 @@
+package me.coley.recaf.graph.inheritance;
+
+import me.coley.recaf.util.ClassUtil;
+import me.coley.recaf.util.struct.Pair;
+import org.objectweb.asm.ClassReader;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of method definitions to the classes declaring them.
+ * <br>
+ * Classes are indexed by name along with the bytecode they were indexed from. When a class is looked
+ * up with different bytecode, such as after the class is updated, it is indexed again.
+ *
+ * @author Matt
+ */
+class MethodIndex {
+	private final Map<String, Set<String>> definitionToDeclarers = new ConcurrentHashMap<>();
+	private final Map<String, IndexedClass> classes = new ConcurrentHashMap<>();
+
+	/**
+	 * @param reader
+	 * 		Class to index, if it has not been indexed with the same bytecode already.
+	 */
+	void index(ClassReader reader) {
+		String className = reader.getClassName();
+		IndexedClass existing = classes.get(className);
+		if(existing != null && existing.code == reader.b)
+			return;
+		classes.compute(className, (k, old) -> {
+			if(old != null && old.code == reader.b)
+				return old;
+			if(old != null)
+				for(String definition : old.definitions)
+					remove(definition, className);
+			Set<String> definitions = new HashSet<>();
+			for(Pair<String, String> method : ClassUtil.getMethodDefs(reader)) {
+				String definition = method.getKey() + method.getValue();
+				definitions.add(definition);
+				definitionToDeclarers.computeIfAbsent(definition, d -> ConcurrentHashMap.newKeySet())
+						.add(className);
+			}
+			return new IndexedClass(reader.b, definitions);
+		});
+	}
+
+	/**
+	 * @param reader
+	 * 		Class to check.
+	 * @param name
+	 * 		Method name.
+	 * @param desc
+	 * 		Method descriptor.
+	 *
+	 * @return {@code true} when the class declares the method.
+	 */
+	boolean declares(ClassReader reader, String name, String desc) {
+		index(reader);
+		return getDeclarers(name, desc).contains(reader.getClassName());
+	}
+
+	/**
+	 * @param name
+	 * 		Method name.
+	 * @param desc
+	 * 		Method descriptor.
+	 *
+	 * @return Names of indexed classes declaring the method.
+	 */
+	Set<String> getDeclarers(String name, String desc) {
+		Set<String> declarers = definitionToDeclarers.get(name + desc);
+		if(declarers == null)
+			return Collections.emptySet();
+		return Collections.unmodifiableSet(declarers);
+	}
+
+	/**
+	 * @param className
+	 * 		Name of class to drop from the index.
+	 */
+	void removeClass(String className) {
+		IndexedClass old = classes.remove(className);
+		if(old != null)
+			for(String definition : old.definitions)
+				remove(definition, className);
+	}
+
+	private void remove(String definition, String className) {
+		definitionToDeclarers.computeIfPresent(definition, (d, declarers) -> {
+			declarers.remove(className);
+			return declarers.isEmpty() ? null : declarers;
+		});
+	}
+
+	/**
+	 * Bytecode a class was indexed from, and the methods it declares.
+	 */
+	private static final class IndexedClass {
+		private final byte[] code;
+		private final Set<String> definitions;
+
+		private IndexedClass(byte[] code, Set<String> definitions) {
+			this.code = code;
+			this.definitions = definitions;
+		}
+	}
+}
@@ -14,6 +14,9 @@ import static java.util.function.Function.identity;
 
 /**
  * Utility for analyzing the similarity between two resources.
+ * <br>
+ * Analysis follows the call graph from common entry points. For programs without matching
+ * entry points see {@link FingerprintCorrelation}.
  *
  * @author Matt
  */
@@ -0,0 +1,424 @@
+package me.coley.recaf.mapping;
+
+import me.coley.recaf.Recaf;
+import me.coley.recaf.workspace.JavaResource;
+import org.objectweb.asm.*;
+import org.objectweb.asm.commons.SimpleRemapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Utility for correlating the classes and members of two versions of a program, without relying on
+ * a common entry point like {@link Correlation} does.
+ * <br>
+ * Every method of both resources is {@link MethodFingerprint fingerprinted}. Base methods are matched
+ * to target methods of the same shape by similarity, and only mutual best matches that are unambiguous
+ * are kept. In shapes with many methods, only methods sharing a band of their MinHash signatures are
+ * compared. This still finds nearly all pairs above the default threshold.
+ * <br>
+ * Classes are then matched by the methods they share. Remaining members of matched classes are
+ * matched when their remapped descriptors are unique within the class.
+ *
+ * @author Matt
+ */
+public class FingerprintCorrelation {
+	private static final double DEFAULT_THRESHOLD = 0.8;
+	// Signatures are split into bands of rows. Methods sharing any band are compared.
+	// With 16 bands of 4 rows, methods with 75% overlapping trigrams and constants are compared 99.8%
+	// of the time, and methods with 60% overlap 89% of the time.
+	private static final int BANDS = MethodFingerprint.MIN_HASH_SIZE / 4;
+	private static final int ROWS = 4;
+	// Shapes with at most this many methods are compared exhaustively
+	private static final int EXHAUSTIVE_LIMIT = 64;
+	private final JavaResource base;
+	private final JavaResource target;
+	private double threshold = DEFAULT_THRESHOLD;
+
+	/**
+	 * Constructs a correlation mapper between two resources.
+	 *
+	 * @param base
+	 * 		The base comparison resource.
+	 * @param target
+	 * 		The target resource analyzed for similarities against the base.
+	 */
+	public FingerprintCorrelation(JavaResource base, JavaResource target) {
+		this.base = base;
+		this.target = target;
+	}
+
+	/**
+	 * @param threshold
+	 * 		Minimum similarity, from {@code 0} to {@code 1}, for two methods to be considered the same.
+	 * 		Defaults to {@code 0.8}.
+	 */
+	public void setThreshold(double threshold) {
+		if (threshold < 0 || threshold > 1)
+			throw new IllegalArgumentException("Threshold must be between 0 and 1: " + threshold);
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Generates ASM formatted mappings from the target resource's names to the base resource's names.
+	 * See the {@link SimpleRemapper#SimpleRemapper(Map)} docs for more information.
+	 *
+	 * @return ASM formatted mappings.
+	 */
+	public Map<String, String> analyze() {
+		Program baseProgram = new Program(base);
+		Program targetProgram = new Program(target);
+		// Match methods by fingerprint, then classes by the methods they share
+		Map<MethodFingerprint, MethodFingerprint> methods = matchMethods(baseProgram, targetProgram);
+		Map<String, String> classes = matchClasses(methods);
+		methods.entrySet().removeIf(e -> !e.getValue().getOwner().equals(classes.get(e.getKey().getOwner())));
+		// Match remaining members of the matched classes by their remapped descriptors
+		Map<String, String> targetToBase = new HashMap<>();
+		classes.forEach((b, t) -> targetToBase.put(t, b));
+		SimpleRemapper remapper = new SimpleRemapper(targetToBase);
+		Map<String, String> fields = new HashMap<>();
+		for (Map.Entry<String, String> e : classes.entrySet()) {
+			ClassInfo baseClass = baseProgram.classes.get(e.getKey());
+			ClassInfo targetClass = targetProgram.classes.get(e.getValue());
+			matchRemainingMethods(methods, baseClass, targetClass, remapper);
+			matchFields(fields, baseClass, targetClass, remapper);
+		}
+		// Generate mappings
+		Map<String, String> mappings = new TreeMap<>();
+		targetToBase.forEach((t, b) -> {
+			if (!t.equals(b))
+				mappings.put(t, b);
+		});
+		mapMethods(mappings, methods, targetProgram);
+		fields.forEach((t, b) -> {
+			if (!t.substring(t.indexOf('.') + 1).equals(b))
+				mappings.put(t, b);
+		});
+		return mappings;
+	}
+
+	/**
+	 * Writes the {@link #analyze() mappings} in the {@link MappingImpl#SIMPLE simple} format.
+	 *
+	 * @param path
+	 * 		Path to write to.
+	 *
+	 * @throws IOException
+	 * 		When the file cannot be written to.
+	 */
+	public void writeMappings(Path path) throws IOException {
+		String text = SimpleMappings.format(analyze());
+		Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private Map<MethodFingerprint, MethodFingerprint> matchMethods(Program baseProgram, Program targetProgram) {
+		Map<String, ShapeIndex> baseIndex = baseProgram.indexByShape();
+		Map<String, ShapeIndex> targetIndex = targetProgram.indexByShape();
+		Map<MethodFingerprint, Candidate> baseBest = baseProgram.methods.parallelStream()
+				.collect(Collectors.toMap(Function.identity(), m -> findBest(m, targetIndex)));
+		Map<MethodFingerprint, Candidate> targetBest = targetProgram.methods.parallelStream()
+				.collect(Collectors.toMap(Function.identity(), m -> findBest(m, baseIndex)));
+		// Keep confident mutual matches
+		Map<MethodFingerprint, MethodFingerprint> matches = new HashMap<>();
+		baseBest.forEach((method, candidate) -> {
+			if (!candidate.isConfident())
+				return;
+			Candidate reverse = targetBest.get(candidate.match);
+			if (reverse.isConfident() && reverse.match == method)
+				matches.put(method, candidate.match);
+		});
+		return matches;
+	}
+
+	private Candidate findBest(MethodFingerprint method, Map<String, ShapeIndex> index) {
+		Candidate candidate = new Candidate();
+		ShapeIndex shapeIndex = index.get(method.getShape());
+		if (shapeIndex == null)
+			return candidate;
+		for (MethodFingerprint other : shapeIndex.getCandidates(method)) {
+			// Two perfect matches, the method cannot be matched unambiguously
+			if (candidate.second >= 1)
+				break;
+			// Skip methods of vastly different size
+			int min = Math.min(method.getSize(), other.getSize());
+			int max = Math.max(method.getSize(), other.getSize());
+			if (min * 2 < max)
+				continue;
+			double score = method.similarity(other);
+			if (score > candidate.score) {
+				candidate.second = candidate.score;
+				candidate.score = score;
+				candidate.match = other;
+			} else if (score > candidate.second) {
+				candidate.second = score;
+			}
+		}
+		return candidate;
+	}
+
+	private static Map<String, String> matchClasses(Map<MethodFingerprint, MethodFingerprint> methods) {
+		// Count the matched methods shared by each pair of classes
+		Map<String, Map<String, Integer>> baseVotes = new HashMap<>();
+		Map<String, Map<String, Integer>> targetVotes = new HashMap<>();
+		methods.forEach((b, t) -> {
+			baseVotes.computeIfAbsent(b.getOwner(), k -> new HashMap<>()).merge(t.getOwner(), 1, Integer::sum);
+			targetVotes.computeIfAbsent(t.getOwner(), k -> new HashMap<>()).merge(b.getOwner(), 1, Integer::sum);
+		});
+		Map<String, String> classes = new HashMap<>();
+		baseVotes.forEach((b, votes) -> {
+			String t = getTopVote(votes);
+			if (t != null && b.equals(getTopVote(targetVotes.get(t))))
+				classes.put(b, t);
+		});
+		return classes;
+	}
+
+	private static String getTopVote(Map<String, Integer> votes) {
+		String top = null;
+		int topCount = 0;
+		boolean tie = false;
+		for (Map.Entry<String, Integer> e : votes.entrySet()) {
+			if (e.getValue() > topCount) {
+				top = e.getKey();
+				topCount = e.getValue();
+				tie = false;
+			} else if (e.getValue() == topCount) {
+				tie = true;
+			}
+		}
+		return tie ? null : top;
+	}
+
+	private static void matchRemainingMethods(Map<MethodFingerprint, MethodFingerprint> methods,
+											  ClassInfo baseClass, ClassInfo targetClass,
+											  SimpleRemapper remapper) {
+		Set<MethodFingerprint> matchedTargets = new HashSet<>(methods.values());
+		Map<String, List<MethodFingerprint>> baseByDesc = new HashMap<>();
+		Map<String, List<MethodFingerprint>> targetByDesc = new HashMap<>();
+		for (MethodFingerprint method : baseClass.methods)
+			if (!methods.containsKey(method))
+				baseByDesc.computeIfAbsent(method.getShape() + method.getDesc(), k -> new ArrayList<>())
+						.add(method);
+		for (MethodFingerprint method : targetClass.methods)
+			if (!matchedTargets.contains(method))
+				targetByDesc.computeIfAbsent(method.getShape() + remapper.mapMethodDesc(method.getDesc()),
+						k -> new ArrayList<>()).add(method);
+		baseByDesc.forEach((key, baseMethods) -> {
+			List<MethodFingerprint> targetMethods = targetByDesc.get(key);
+			if (baseMethods.size() == 1 && targetMethods != null && targetMethods.size() == 1)
+				methods.put(baseMethods.get(0), targetMethods.get(0));
+		});
+	}
+
+	private static void matchFields(Map<String, String> fields, ClassInfo baseClass, ClassInfo targetClass,
+									SimpleRemapper remapper) {
+		Map<String, List<String>> baseByDesc = new HashMap<>();
+		Map<String, List<String>> targetByDesc = new HashMap<>();
+		baseClass.fields.forEach((name, key) ->
+				baseByDesc.computeIfAbsent(key, k -> new ArrayList<>()).add(name));
+		targetClass.fields.forEach((name, key) -> {
+			// Keep the modifier prefix, remap the descriptor
+			String mapped = key.charAt(0) + remapper.mapDesc(key.substring(1));
+			targetByDesc.computeIfAbsent(mapped, k -> new ArrayList<>()).add(name);
+		});
+		baseByDesc.forEach((key, baseNames) -> {
+			List<String> targetNames = targetByDesc.get(key);
+			if (baseNames.size() == 1 && targetNames != null && targetNames.size() == 1)
+				fields.put(targetClass.name + "." + targetNames.get(0), baseNames.get(0));
+		});
+	}
+
+	private static void mapMethods(Map<String, String> mappings, Map<MethodFingerprint, MethodFingerprint> methods,
+								   Program targetProgram) {
+		// Overriding methods must share the same name, so names are assigned to each group of overriding
+		// methods as a whole. Groups with conflicting names are not mapped.
+		Map<String, String> proposed = new HashMap<>();
+		Set<String> conflicts = new HashSet<>();
+		methods.forEach((b, t) -> {
+			if (t.getName().charAt(0) == '<')
+				return;
+			String group = targetProgram.getOverrideGroup(t);
+			String previous = proposed.putIfAbsent(group, b.getName());
+			if (previous != null && !previous.equals(b.getName()))
+				conflicts.add(group);
+		});
+		for (MethodFingerprint method : targetProgram.methods) {
+			String group = targetProgram.getOverrideGroup(method);
+			String name = proposed.get(group);
+			if (name != null && !conflicts.contains(group) && !name.equals(method.getName()))
+				mappings.put(method.getOwner() + "." + method.getName() + method.getDesc(), name);
+		}
+	}
+
+	/**
+	 * Best match of a method.
+	 */
+	private class Candidate {
+		private MethodFingerprint match;
+		private double score;
+		private double second;
+
+		private boolean isConfident() {
+			return match != null && score >= threshold && score > second;
+		}
+	}
+
+	/**
+	 * Class and member information of a resource.
+	 */
+	private static class Program {
+		private final Map<String, ClassInfo> classes = new HashMap<>();
+		private final List<MethodFingerprint> methods = new ArrayList<>();
+		private final Map<String, String> groupParents = new HashMap<>();
+
+		private Program(JavaResource resource) {
+			Set<String> names = resource.getClasses().keySet();
+			List<ClassInfo> infos = resource.getClasses().values().parallelStream()
+					.map(code -> new ClassInfo(new ClassReader(code), names))
+					.collect(Collectors.toList());
+			for (ClassInfo info : infos) {
+				classes.put(info.name, info);
+				methods.addAll(info.methods);
+			}
+			MethodFingerprint.computeDegrees(methods);
+			// Union overriding methods into groups
+			for (ClassInfo info : infos)
+				for (MethodFingerprint method : info.methods)
+					if (isVirtual(method))
+						for (String parent : info.parents)
+							linkOverrides(method, parent, new HashSet<>());
+		}
+
+		private void linkOverrides(MethodFingerprint method, String parentName, Set<String> visited) {
+			ClassInfo parent = classes.get(parentName);
+			if (parent == null || !visited.add(parentName))
+				return;
+			for (MethodFingerprint parentMethod : parent.methods)
+				if (isVirtual(parentMethod) && parentMethod.getName().equals(method.getName()) &&
+						parentMethod.getDesc().equals(method.getDesc()))
+					union(key(method), key(parentMethod));
+			for (String next : parent.parents)
+				linkOverrides(method, next, visited);
+		}
+
+		private Map<String, ShapeIndex> indexByShape() {
+			Map<String, ShapeIndex> index = new HashMap<>();
+			methods.stream().collect(Collectors.groupingBy(MethodFingerprint::getShape))
+					.forEach((shape, shapeMethods) -> index.put(shape, new ShapeIndex(shapeMethods)));
+			return index;
+		}
+
+		private String getOverrideGroup(MethodFingerprint method) {
+			return find(key(method));
+		}
+
+		private String find(String key) {
+			String parent = groupParents.get(key);
+			if (parent == null)
+				return key;
+			String root = find(parent);
+			groupParents.put(key, root);
+			return root;
+		}
+
+		private void union(String a, String b) {
+			String rootA = find(a);
+			String rootB = find(b);
+			if (!rootA.equals(rootB))
+				groupParents.put(rootA, rootB);
+		}
+
+		private static String key(MethodFingerprint method) {
+			return method.getOwner() + "." + method.getName() + method.getDesc();
+		}
+
+		private static boolean isVirtual(MethodFingerprint method) {
+			return (method.getAccess() & (Opcodes.ACC_STATIC | Opcodes.ACC_PRIVATE)) == 0 &&
+					method.getName().charAt(0) != '<';
+		}
+	}
+
+	/**
+	 * Methods of the same shape, with the methods of large shapes grouped by the bands of their
+	 * MinHash signatures.
+	 */
+	private static class ShapeIndex {
+		private final List<MethodFingerprint> methods;
+		// Methods without trigrams or constants, which have no signature
+		private final List<MethodFingerprint> featureless = new ArrayList<>();
+		private final Map<Long, List<MethodFingerprint>> bands = new HashMap<>();
+
+		private ShapeIndex(List<MethodFingerprint> methods) {
+			this.methods = methods;
+			if (methods.size() <= EXHAUSTIVE_LIMIT)
+				return;
+			for (MethodFingerprint method : methods) {
+				int[] minHash = method.getMinHash();
+				if (minHash == null) {
+					featureless.add(method);
+					continue;
+				}
+				for (int band = 0; band < BANDS; band++)
+					bands.computeIfAbsent(bandKey(minHash, band), k -> new ArrayList<>()).add(method);
+			}
+		}
+
+		/**
+		 * @param method
+		 * 		Method to match.
+		 *
+		 * @return Methods of the shape that may be similar to the given method.
+		 */
+		private Collection<MethodFingerprint> getCandidates(MethodFingerprint method) {
+			if (methods.size() <= EXHAUSTIVE_LIMIT)
+				return methods;
+			// Methods with and without trigrams or constants share at most their call graph degrees
+			int[] minHash = method.getMinHash();
+			if (minHash == null)
+				return featureless;
+			Set<MethodFingerprint> candidates = new LinkedHashSet<>();
+			for (int band = 0; band < BANDS; band++)
+				candidates.addAll(bands.getOrDefault(bandKey(minHash, band), Collections.emptyList()));
+			return candidates;
+		}
+
+		private static long bandKey(int[] minHash, int band) {
+			int hash = 1;
+			for (int row = band * ROWS; row < (band + 1) * ROWS; row++)
+				hash = 31 * hash + minHash[row];
+			return ((long) band << 32) | (hash & 0xFFFFFFFFL);
+		}
+	}
+
+	/**
+	 * Class information of a resource.
+	 */
+	private static class ClassInfo {
+		private final String name;
+		private final List<String> parents = new ArrayList<>();
+		private final List<MethodFingerprint> methods;
+		// Field names, to their static modifier and descriptor
+		private final Map<String, String> fields = new HashMap<>();
+
+		private ClassInfo(ClassReader reader, Set<String> programClasses) {
+			name = reader.getClassName();
+			if (reader.getSuperName() != null)
+				parents.add(reader.getSuperName());
+			parents.addAll(Arrays.asList(reader.getInterfaces()));
+			methods = MethodFingerprint.read(reader, programClasses);
+			reader.accept(new ClassVisitor(Recaf.ASM_VERSION) {
+				@Override
+				public FieldVisitor visitField(int access, String name, String desc, String sig, Object value) {
+					char modifier = (access & Opcodes.ACC_STATIC) != 0 ? 'S' : 'V';
+					fields.put(name, modifier + desc);
+					return null;
+				}
+			}, ClassReader.SKIP_CODE);
+		}
+	}
+}
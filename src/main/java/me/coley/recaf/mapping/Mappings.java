@@ -11,6 +11,8 @@ import org.objectweb.asm.commons.ClassRemapper;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import static me.coley.recaf.util.Log.*;
+
 /**
  * Base for mapppings.
  *
@@ -170,6 +172,7 @@ public class Mappings {
 		workspace.getHierarchyGraph().refresh();
 		// Update saved mappings
 		workspace.updateAggregateMappings(getMappings(), updated.keySet());
+		info("Remapped {} classes", updated.size());
 		return updated;
 	}
 
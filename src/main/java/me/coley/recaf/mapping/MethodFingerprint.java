@@ -0,0 +1,408 @@
+package me.coley.recaf.mapping;
+
+import me.coley.recaf.Recaf;
+import org.objectweb.asm.*;
+
+import java.util.*;
+
+/**
+ * Rename-independent summary of a method, used to correlate methods between two versions of a program.
+ * <br>
+ * The fingerprint is made of:
+ * <ul>
+ *     <li>The method's shape: its descriptor with types declared in the same program erased, and
+ *     its static / abstract modifiers</li>
+ *     <li>Opcode trigrams of the method body</li>
+ *     <li>Constants and references to members outside of the program</li>
+ *     <li>In and out degree of the method in the program's call graph</li>
+ * </ul>
+ *
+ * @author Matt
+ */
+public class MethodFingerprint {
+	/**
+	 * Number of values in a {@link #getMinHash() MinHash signature}.
+	 */
+	static final int MIN_HASH_SIZE = 64;
+	private static final long[] MIN_HASH_SEEDS = new long[MIN_HASH_SIZE];
+	private static final long CONSTANT_SALT = 0x5DEECE66DL;
+	private static final int[] EMPTY = new int[0];
+	private final String owner;
+	private final String name;
+	private final String desc;
+	private final int access;
+	private final String shape;
+	private final int[] ngrams;
+	private final int[] constants;
+	private final int size;
+	private final Set<String> calls;
+	private final int[] minHash;
+	private int inDegree;
+	private int outDegree;
+
+	private MethodFingerprint(String owner, String name, String desc, int access, String shape,
+							  int[] ngrams, int[] constants, int size, Set<String> calls) {
+		this.owner = owner;
+		this.name = name;
+		this.desc = desc;
+		this.access = access;
+		this.shape = shape;
+		this.ngrams = ngrams;
+		this.constants = constants;
+		this.size = size;
+		this.calls = calls;
+		this.minHash = computeMinHash(ngrams, constants);
+	}
+
+	/**
+	 * @param other
+	 * 		Another fingerprint.
+	 *
+	 * @return Similarity between the two methods, from {@code 0} to {@code 1}.
+	 * Methods of differing {@link #getShape() shape} always have a similarity of {@code 0}.
+	 */
+	public double similarity(MethodFingerprint other) {
+		if (!shape.equals(other.shape))
+			return 0;
+		return 0.45 * jaccard(ngrams, other.ngrams) +
+				0.35 * jaccard(constants, other.constants) +
+				0.1 * ratio(inDegree, other.inDegree) +
+				0.1 * ratio(outDegree, other.outDegree);
+	}
+
+	/**
+	 * @return Name of the class declaring the method.
+	 */
+	public String getOwner() {
+		return owner;
+	}
+
+	/**
+	 * @return Method name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return Method descriptor.
+	 */
+	public String getDesc() {
+		return desc;
+	}
+
+	/**
+	 * @return Method access flags.
+	 */
+	public int getAccess() {
+		return access;
+	}
+
+	/**
+	 * @return Descriptor and modifiers of the method, with program types erased.
+	 * Only methods of the same shape can be matched.
+	 */
+	public String getShape() {
+		return shape;
+	}
+
+	/**
+	 * @return Number of instructions in the method.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @return MinHash signature of the opcode trigrams and constants, or {@code null} if the method has neither.
+	 * The share of equal values in two signatures estimates the overlap of the two methods' trigrams and
+	 * constants, so similar methods can be found without comparing every pair.
+	 */
+	int[] getMinHash() {
+		return minHash;
+	}
+
+	/**
+	 * @return Number of distinct program methods calling this method.
+	 */
+	public int getInDegree() {
+		return inDegree;
+	}
+
+	/**
+	 * @return Number of distinct program methods called by this method.
+	 */
+	public int getOutDegree() {
+		return outDegree;
+	}
+
+	/**
+	 * Compute the call graph degrees of the given methods.
+	 *
+	 * @param methods
+	 * 		All methods of a program.
+	 */
+	static void computeDegrees(Collection<MethodFingerprint> methods) {
+		Map<String, MethodFingerprint> byKey = new HashMap<>();
+		for (MethodFingerprint method : methods)
+			byKey.put(method.owner + "." + method.name + method.desc, method);
+		for (MethodFingerprint method : methods) {
+			for (String call : method.calls) {
+				MethodFingerprint callee = byKey.get(call);
+				if (callee != null) {
+					method.outDegree++;
+					callee.inDegree++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param code
+	 * 		Class bytecode.
+	 * @param programClasses
+	 * 		Names of all classes in the program.
+	 *
+	 * @return Fingerprints of all methods in the class.
+	 */
+	static List<MethodFingerprint> read(ClassReader code, Set<String> programClasses) {
+		List<MethodFingerprint> methods = new ArrayList<>();
+		String owner = code.getClassName();
+		code.accept(new ClassVisitor(Recaf.ASM_VERSION) {
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String desc, String sig, String[] exc) {
+				return new Collector(programClasses) {
+					@Override
+					public void visitEnd() {
+						methods.add(new MethodFingerprint(owner, name, desc, access,
+								shape(name, desc, access, programClasses), toSet(ngrams),
+								toSet(constants), size, calls));
+					}
+				};
+			}
+		}, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+		return methods;
+	}
+
+	/**
+	 * @param desc
+	 * 		Type or method descriptor.
+	 * @param programClasses
+	 * 		Names of all classes in the program.
+	 *
+	 * @return Descriptor with all program types replaced by {@code L;}.
+	 */
+	static String erase(String desc, Set<String> programClasses) {
+		StringBuilder sb = new StringBuilder();
+		int i = 0;
+		while (i < desc.length()) {
+			char c = desc.charAt(i);
+			if (c == 'L') {
+				int end = desc.indexOf(';', i);
+				String type = desc.substring(i + 1, end);
+				sb.append(programClasses.contains(type) ? "L;" : desc.substring(i, end + 1));
+				i = end + 1;
+			} else {
+				sb.append(c);
+				i++;
+			}
+		}
+		return sb.toString();
+	}
+
+	private static String shape(String name, String desc, int access, Set<String> programClasses) {
+		StringBuilder sb = new StringBuilder();
+		// Constructors and initializers are never renamed, so keep them apart from other methods
+		if (name.charAt(0) == '<')
+			sb.append(name);
+		if ((access & Opcodes.ACC_STATIC) != 0)
+			sb.append('S');
+		if ((access & Opcodes.ACC_ABSTRACT) != 0)
+			sb.append('A');
+		return sb.append(erase(desc, programClasses)).toString();
+	}
+
+	private static int[] computeMinHash(int[] ngrams, int[] constants) {
+		if (ngrams.length == 0 && constants.length == 0)
+			return null;
+		int[] signature = new int[MIN_HASH_SIZE];
+		for (int i = 0; i < MIN_HASH_SIZE; i++) {
+			long seed = MIN_HASH_SEEDS[i];
+			long min = Long.MAX_VALUE;
+			for (int value : ngrams)
+				min = Math.min(min, mix(value ^ seed));
+			// Salted so that a constant does not match an equal trigram value
+			for (int value : constants)
+				min = Math.min(min, mix(value ^ seed ^ CONSTANT_SALT));
+			signature[i] = (int) (min ^ (min >>> 32));
+		}
+		return signature;
+	}
+
+	private static long mix(long value) {
+		// Finalizer of MurmurHash3
+		value ^= value >>> 33;
+		value *= 0xFF51AFD7ED558CCDL;
+		value ^= value >>> 33;
+		value *= 0xC4CEB9FE1A85EC53L;
+		value ^= value >>> 33;
+		// Keep it positive so that comparisons are not affected by the sign
+		return value >>> 1;
+	}
+
+	private static double jaccard(int[] a, int[] b) {
+		if (a.length == 0 && b.length == 0)
+			return 1;
+		// Both arrays are sorted and distinct
+		int i = 0, j = 0, shared = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] == b[j]) {
+				shared++;
+				i++;
+				j++;
+			} else if (a[i] < b[j]) {
+				i++;
+			} else {
+				j++;
+			}
+		}
+		return shared / (double) (a.length + b.length - shared);
+	}
+
+	private static double ratio(int a, int b) {
+		if (a == b)
+			return 1;
+		return Math.min(a, b) / (double) Math.max(a, b);
+	}
+
+	private static int[] toSet(Collection<Integer> values) {
+		if (values.isEmpty())
+			return EMPTY;
+		return values.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+	}
+
+	static {
+		// Fixed seeds, so that the signatures of both programs are comparable
+		Random random = new Random(0x4D696E48L);
+		for (int i = 0; i < MIN_HASH_SIZE; i++)
+			MIN_HASH_SEEDS[i] = random.nextLong();
+	}
+
+	/**
+	 * Collects the opcodes, constants and calls of a method.
+	 */
+	private static class Collector extends MethodVisitor {
+		private final Set<String> programClasses;
+		protected final List<Integer> ngrams = new ArrayList<>();
+		protected final List<Integer> constants = new ArrayList<>();
+		protected final Set<String> calls = new HashSet<>();
+		protected int size;
+		private int prev1 = -1;
+		private int prev2 = -1;
+
+		private Collector(Set<String> programClasses) {
+			super(Recaf.ASM_VERSION);
+			this.programClasses = programClasses;
+		}
+
+		private void op(int opcode) {
+			ngrams.add((prev2 * 31 + prev1) * 31 + opcode);
+			prev2 = prev1;
+			prev1 = opcode;
+			size++;
+		}
+
+		private void constant(Object value) {
+			constants.add((value.getClass().getSimpleName() + ":" + value).hashCode());
+		}
+
+		private void reference(String owner, String name, String desc) {
+			// Program members may be renamed, but references outside of the program stay the same
+			if (!programClasses.contains(owner))
+				constant(owner + "." + name + desc);
+		}
+
+		@Override
+		public void visitInsn(int opcode) {
+			op(opcode);
+		}
+
+		@Override
+		public void visitIntInsn(int opcode, int operand) {
+			op(opcode);
+			if (opcode != Opcodes.NEWARRAY)
+				constant(operand);
+		}
+
+		@Override
+		public void visitVarInsn(int opcode, int var) {
+			op(opcode);
+		}
+
+		@Override
+		public void visitTypeInsn(int opcode, String type) {
+			op(opcode);
+			if (!programClasses.contains(type))
+				constant(type);
+		}
+
+		@Override
+		public void visitFieldInsn(int opcode, String owner, String name, String desc) {
+			op(opcode);
+			reference(owner, name, desc);
+		}
+
+		@Override
+		public void visitMethodInsn(int opcode, String owner, String name, String desc, boolean itf) {
+			op(opcode);
+			reference(owner, name, desc);
+			calls.add(owner + "." + name + desc);
+		}
+
+		@Override
+		public void visitInvokeDynamicInsn(String name, String desc, Handle bsm, Object... bsmArgs) {
+			op(Opcodes.INVOKEDYNAMIC);
+			reference(bsm.getOwner(), bsm.getName(), bsm.getDesc());
+		}
+
+		@Override
+		public void visitJumpInsn(int opcode, Label label) {
+			op(opcode);
+		}
+
+		@Override
+		public void visitLdcInsn(Object value) {
+			op(Opcodes.LDC);
+			if (value instanceof Type) {
+				String type = ((Type) value).getDescriptor();
+				if (!type.equals(erase(type, programClasses)))
+					return;
+			} else if (!(value instanceof String || value instanceof Number)) {
+				return;
+			}
+			constant(value);
+		}
+
+		@Override
+		public void visitIincInsn(int var, int increment) {
+			op(Opcodes.IINC);
+		}
+
+		@Override
+		public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+			op(Opcodes.TABLESWITCH);
+		}
+
+		@Override
+		public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+			op(Opcodes.LOOKUPSWITCH);
+			for (int key : keys)
+				constant(key);
+		}
+
+		@Override
+		public void visitMultiANewArrayInsn(String desc, int dims) {
+			op(Opcodes.MULTIANEWARRAY);
+		}
+	}
+}
@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 import static me.coley.recaf.util.StringUtil.splitNewline;
 import static me.coley.recaf.util.EscapeUtil.*;
@@ -69,4 +70,17 @@ public class SimpleMappings extends FileMappings {
 		}
 		return map;
 	}
+
+	/**
+	 * @param mappings
+	 * 		ASM formatted mappings.
+	 *
+	 * @return Mappings file text, with entries sorted by their key.
+	 */
+	public static String format(Map<String, String> mappings) {
+		StringBuilder sb = new StringBuilder();
+		new TreeMap<>(mappings).forEach((key, value) ->
+				sb.append(escape(key)).append(' ').append(escape(value)).append('\n'));
+		return sb.toString();
+	}
 }
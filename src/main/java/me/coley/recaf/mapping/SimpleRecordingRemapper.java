@@ -141,7 +141,7 @@ public class SimpleRecordingRemapper extends SimpleRemapper {
 		ClassReader cr = workspace.getClassReader(name);
 		if (cr == null)
 			return null;
-		ClassNode node = ClassUtil.getNode(cr, ClassReader.SKIP_CODE);
+		ClassNode node = ClassUtil.getSkeleton(cr);
 		// Check for outer name attr
 		if (node.outerClass != null && !node.name.equals(node.outerClass))
 			return node.outerClass;
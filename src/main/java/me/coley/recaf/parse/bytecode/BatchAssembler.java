@@ -0,0 +1,280 @@
+package me.coley.recaf.parse.bytecode;
+
+import me.coley.recaf.control.Controller;
+import me.coley.recaf.metadata.Comments;
+import me.coley.recaf.parse.bytecode.ast.*;
+import me.coley.recaf.parse.bytecode.exception.AssemblerException;
+import me.coley.recaf.plugin.PluginsManager;
+import me.coley.recaf.plugin.api.ClassVisitorPlugin;
+import me.coley.recaf.util.ClassUtil;
+import me.coley.recaf.util.struct.LineException;
+import me.coley.recaf.workspace.Workspace;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Assembler for documents containing many members of many classes. Members are assembled and
+ * verified in parallel, then each affected class is rewritten once.
+ * <br>
+ * A document names the class of the following members with a {@code CLASS} line. Each member
+ * starts at its {@code DEFINE} line, and is otherwise written as it would be in the bytecode editor:
+ * <pre>
+ * CLASS calc/Calculator
+ * DEFINE PUBLIC evaluate(I depth, Ljava/lang/String; expression)D
+ * ...
+ * DEFINE PRIVATE STATIC MAX_DEPTH I
+ * VALUE 30
+ * </pre>
+ * Assembled members replace the existing members of the same name and descriptor.
+ *
+ * @author Matt
+ */
+public class BatchAssembler {
+	private static final String CLASS = "CLASS";
+	private static final String DEFINE = "DEFINE";
+	private final Controller controller;
+	private final List<Member> members = new ArrayList<>();
+
+	/**
+	 * @param controller
+	 * 		Controller with the workspace containing the classes to update.
+	 */
+	public BatchAssembler(Controller controller) {
+		this.controller = controller;
+	}
+
+	/**
+	 * @param path
+	 * 		Document file, or directory of document files.
+	 *
+	 * @throws IOException
+	 * 		When a document cannot be read.
+	 * @throws AssemblerException
+	 * 		When a document has members outside of any class.
+	 */
+	public void add(Path path) throws IOException, AssemblerException {
+		if(Files.isDirectory(path)) {
+			List<Path> files;
+			try(Stream<Path> stream = Files.walk(path)) {
+				files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+			}
+			for(Path file : files)
+				add(file.toString(), new String(Files.readAllBytes(file), UTF_8));
+		} else {
+			add(path.toString(), new String(Files.readAllBytes(path), UTF_8));
+		}
+	}
+
+	/**
+	 * @param source
+	 * 		Name of the document, used to report problems.
+	 * @param text
+	 * 		Document text.
+	 *
+	 * @throws AssemblerException
+	 * 		When the document has members outside of any class.
+	 */
+	public void add(String source, String text) throws AssemblerException {
+		String[] lines = Parse.split(text);
+		String owner = null;
+		int start = -1;
+		for(int i = 0; i < lines.length; i++) {
+			String line = lines[i].trim();
+			boolean isClass = isDirective(line, CLASS);
+			if(isClass || isDirective(line, DEFINE)) {
+				if(start >= 0)
+					members.add(new Member(source, owner, lines, start, i));
+				start = -1;
+			}
+			if(isClass) {
+				owner = line.substring(CLASS.length()).trim();
+				if(owner.isEmpty())
+					throw new AssemblerException(source + ": Missing class name", i + 1);
+			} else if(isDirective(line, DEFINE)) {
+				if(owner == null)
+					throw new AssemblerException(source + ": Member defined before any CLASS", i + 1);
+				start = i;
+			} else if(start < 0 && !line.isEmpty() && !line.startsWith("//")) {
+				throw new AssemblerException(source + ": Expected CLASS or DEFINE", i + 1);
+			}
+		}
+		if(start >= 0)
+			members.add(new Member(source, owner, lines, start, lines.length));
+	}
+
+	/**
+	 * Assemble all added members, and rewrite the classes declaring them. The workspace is not
+	 * modified.
+	 *
+	 * @return Map of class names to updated class bytecode.
+	 *
+	 * @throws AssemblerException
+	 * 		When any member fails to assemble or verify, or does not exist in its class.
+	 * 		Problems of all members are reported as sub-exceptions.
+	 */
+	public Map<String, byte[]> assemble() throws AssemblerException {
+		Workspace workspace = controller.getWorkspace();
+		// Lazily created, ensure it is not created by multiple threads
+		workspace.getHierarchyGraph();
+		List<AssemblerException> problems = Collections.synchronizedList(new ArrayList<>());
+		for(String owner : new TreeSet<>(members.stream().map(m -> m.owner).collect(Collectors.toSet())))
+			if(!workspace.getPrimary().getClasses().containsKey(owner))
+				problems.add(new AssemblerException("No class by the name '" + owner +
+						"' exists in the primary resource"));
+		check(problems);
+		// Assemble and verify members in parallel
+		members.parallelStream().forEach(member -> {
+			try {
+				member.compile();
+			} catch(AssemblerException ex) {
+				problems.add(member.wrap(ex));
+			}
+		});
+		check(problems);
+		// Rewrite each class once
+		Map<String, List<Member>> classToMembers = members.stream()
+				.collect(Collectors.groupingBy(m -> m.owner, LinkedHashMap::new, Collectors.toList()));
+		Map<String, byte[]> updated = Collections.synchronizedMap(new TreeMap<>());
+		classToMembers.entrySet().parallelStream().forEach(e -> {
+			try {
+				updated.put(e.getKey(), rewrite(workspace, e.getKey(), e.getValue()));
+			} catch(AssemblerException ex) {
+				problems.add(ex);
+			}
+		});
+		check(problems);
+		return updated;
+	}
+
+	/**
+	 * @return Number of members added.
+	 */
+	public int getMemberCount() {
+		return members.size();
+	}
+
+	private byte[] rewrite(Workspace workspace, String owner, List<Member> members) throws AssemblerException {
+		ClassNode node = ClassUtil.getNode(workspace.getClassReader(owner), ClassReader.SKIP_FRAMES);
+		for(Member member : members) {
+			if(member.method != null) {
+				int index = indexOfMethod(node, member.method.name, member.method.desc);
+				if(index < 0)
+					throw member.wrap(new AssemblerException("No method '" + member.method.name +
+							member.method.desc + "' found in '" + owner + "'", 1));
+				MethodNode old = node.methods.get(index);
+				Comments.removeComments(old);
+				ClassUtil.copyMethodMetadata(old, member.method);
+				node.methods.set(index, member.method);
+			} else {
+				int index = indexOfField(node, member.field.name, member.field.desc);
+				if(index < 0)
+					throw member.wrap(new AssemblerException("No field '" + member.field.name + " " +
+							member.field.desc + "' found in '" + owner + "'", 1));
+				ClassUtil.copyFieldMetadata(node.fields.get(index), member.field);
+				node.fields.set(index, member.field);
+			}
+		}
+		ClassWriter cw = workspace.createWriter(ClassWriter.COMPUTE_FRAMES);
+		ClassVisitor visitor = cw;
+		for (ClassVisitorPlugin visitorPlugin : PluginsManager.getInstance()
+				.ofType(ClassVisitorPlugin.class)) {
+			visitor = visitorPlugin.intercept(visitor);
+		}
+		node.accept(visitor);
+		return cw.toByteArray();
+	}
+
+	private static int indexOfMethod(ClassNode node, String name, String desc) {
+		for(int i = 0; i < node.methods.size(); i++) {
+			MethodNode mn = node.methods.get(i);
+			if(mn.name.equals(name) && mn.desc.equals(desc))
+				return i;
+		}
+		return -1;
+	}
+
+	private static int indexOfField(ClassNode node, String name, String desc) {
+		for(int i = 0; i < node.fields.size(); i++) {
+			FieldNode fn = node.fields.get(i);
+			if(fn.name.equals(name) && fn.desc.equals(desc))
+				return i;
+		}
+		return -1;
+	}
+
+	private static void check(List<AssemblerException> problems) throws AssemblerException {
+		if(problems.isEmpty())
+			return;
+		if(problems.size() == 1)
+			throw problems.get(0);
+		AssemblerException ex = new AssemblerException(problems.get(0), problems.size() +
+				" problems found, first: " + problems.get(0).getMessage(), problems.get(0).getLine());
+		ex.addSubExceptions(problems);
+		throw ex;
+	}
+
+	private static boolean isDirective(String line, String directive) {
+		return line.regionMatches(true, 0, directive, 0, directive.length()) &&
+				(line.length() == directive.length() || Character.isWhitespace(line.charAt(directive.length())));
+	}
+
+	/**
+	 * Member text of a document, and the result of assembling it.
+	 */
+	private class Member {
+		private final String source;
+		private final String owner;
+		private final String text;
+		private final int firstLine;
+		private MethodNode method;
+		private FieldNode field;
+
+		private Member(String source, String owner, String[] lines, int start, int end) {
+			this.source = source;
+			this.owner = owner;
+			this.text = String.join("\n", Arrays.asList(lines).subList(start, end));
+			this.firstLine = start + 1;
+		}
+
+		private void compile() throws AssemblerException {
+			ParseResult<RootAST> result = Parse.parse(text);
+			if(result.isSuccess() && !result.getRoot().search(FieldDefinitionAST.class).isEmpty())
+				field = new FieldAssembler().compile(result);
+			else
+				method = new MethodAssembler(owner, controller).compile(result);
+		}
+
+		/**
+		 * @param ex
+		 * 		Problem assembling the member.
+		 *
+		 * @return Problem with line numbers relative to the document, and the document name in the message.
+		 */
+		private AssemblerException wrap(AssemblerException ex) {
+			AssemblerException wrapped = new AssemblerException(ex, source + ": " + ex.getMessage(),
+					toDocumentLine(ex.getLine()));
+			List<AssemblerException> subs = new ArrayList<>();
+			for(LineException sub : ex.getSubExceptions())
+				subs.add(new AssemblerException(source + ": " + sub.getMessage(), toDocumentLine(sub.getLine())));
+			wrapped.addSubExceptions(subs);
+			return wrapped;
+		}
+
+		private int toDocumentLine(int line) {
+			return line < 0 ? firstLine : firstLine + line - 1;
+		}
+	}
+}
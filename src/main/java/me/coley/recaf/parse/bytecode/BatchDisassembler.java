@@ -0,0 +1,64 @@
+package me.coley.recaf.parse.bytecode;
+
+import me.coley.recaf.util.ClassUtil;
+import me.coley.recaf.workspace.Workspace;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Disassembler for whole classes, generating documents that can be modified and passed to the
+ * {@link BatchAssembler}. Classes are disassembled in parallel.
+ *
+ * @author Matt
+ */
+public class BatchDisassembler {
+	private final Workspace workspace;
+	private final int readFlags;
+
+	/**
+	 * @param workspace
+	 * 		Workspace containing the classes to disassemble.
+	 * @param readFlags
+	 * 		ClassReader flags to read classes with.
+	 */
+	public BatchDisassembler(Workspace workspace, int readFlags) {
+		this.workspace = workspace;
+		this.readFlags = readFlags;
+	}
+
+	/**
+	 * @param classNames
+	 * 		Names of classes to disassemble.
+	 *
+	 * @return Document of all members of the classes, in the given order.
+	 */
+	public String disassemble(List<String> classNames) {
+		return classNames.parallelStream()
+				.map(this::disassemble)
+				.collect(Collectors.joining("\n"));
+	}
+
+	/**
+	 * @param className
+	 * 		Name of class to disassemble.
+	 *
+	 * @return Document of all members of the class.
+	 */
+	public String disassemble(String className) {
+		ClassReader reader = workspace.getClassReader(className);
+		if(reader == null)
+			throw new IllegalStateException("No class by the name '" + className + "' exists");
+		ClassNode node = ClassUtil.getNode(reader, readFlags);
+		StringBuilder sb = new StringBuilder("CLASS ").append(className).append("\n\n");
+		for(FieldNode field : node.fields)
+			sb.append(new Disassembler().disassemble(field)).append("\n\n");
+		for(MethodNode method : node.methods)
+			sb.append(DisassemblyCache.disassemble(reader, readFlags, method)).append("\n\n");
+		return sb.toString();
+	}
+}
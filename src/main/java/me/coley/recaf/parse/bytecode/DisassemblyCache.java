@@ -0,0 +1,158 @@
+package me.coley.recaf.parse.bytecode;
+
+import me.coley.recaf.util.ClassUtil;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Cache of method disassembly, shared by the bytecode editor, search, and the disassemble command.
+ * <br>
+ * Entries are keyed by the content of the declaring class and the disassembly settings, so they
+ * never need to be invalidated. Updating a class yields new bytecode and thus new entries, while the
+ * stale entries are evicted as the least recently used.
+ *
+ * @author Matt
+ */
+public class DisassemblyCache {
+	private static final int MAX_ENTRIES = 2048;
+	private static final Map<Key, String> CACHE = new LinkedHashMap<Key, String>(256, 0.75F, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+	private static byte[] lastCode;
+	private static int lastHash;
+
+	/**
+	 * @param reader
+	 * 		Class containing the method.
+	 * @param readFlags
+	 * 		ClassReader flags to read the method with.
+	 * @param name
+	 * 		Method name.
+	 * @param desc
+	 * 		Method descriptor.
+	 *
+	 * @return Text of the method. {@code null} if no such method exists in the class.
+	 */
+	public static String disassemble(ClassReader reader, int readFlags, String name, String desc) {
+		return disassemble(reader, readFlags, name, desc, true,
+				() -> ClassUtil.getMethod(reader, readFlags, name, desc));
+	}
+
+	/**
+	 * @param reader
+	 * 		Class containing the method.
+	 * @param readFlags
+	 * 		ClassReader flags the method was read with.
+	 * @param method
+	 * 		Method read from the class, disassembled if no prior disassembly is cached.
+	 *
+	 * @return Text of the method.
+	 */
+	public static String disassemble(ClassReader reader, int readFlags, MethodNode method) {
+		return disassemble(reader, readFlags, method.name, method.desc, true, () -> method);
+	}
+
+	/**
+	 * @param reader
+	 * 		Class containing the method.
+	 * @param readFlags
+	 * 		ClassReader flags to read the method with.
+	 * @param name
+	 * 		Method name.
+	 * @param desc
+	 * 		Method descriptor.
+	 * @param useIndyAlias
+	 * 		Flag to determine if lambda handles should be simplified where possible.
+	 * @param methodSupplier
+	 * 		Supplier of the method, called when no prior disassembly is cached.
+	 *
+	 * @return Text of the method. {@code null} if the supplier yields no method.
+	 */
+	public static String disassemble(ClassReader reader, int readFlags, String name, String desc,
+									 boolean useIndyAlias, Supplier<MethodNode> methodSupplier) {
+		Key key = new Key(reader.b, hash(reader.b), readFlags, name, desc, useIndyAlias);
+		synchronized(CACHE) {
+			String text = CACHE.get(key);
+			if(text != null)
+				return text;
+		}
+		MethodNode method = methodSupplier.get();
+		if(method == null)
+			return null;
+		Disassembler disassembler = new Disassembler();
+		disassembler.setUseIndyAlias(useIndyAlias);
+		String text = disassembler.disassemble(method);
+		synchronized(CACHE) {
+			CACHE.put(key, text);
+		}
+		return text;
+	}
+
+	/**
+	 * Clear cached disassembly.
+	 */
+	public static void clear() {
+		synchronized(CACHE) {
+			CACHE.clear();
+			lastCode = null;
+		}
+	}
+
+	private static int hash(byte[] code) {
+		// Methods of the same class are usually looked up one after another
+		synchronized(CACHE) {
+			if(code != lastCode) {
+				lastHash = Arrays.hashCode(code);
+				lastCode = code;
+			}
+			return lastHash;
+		}
+	}
+
+	/**
+	 * Cache key of a method's disassembly.
+	 */
+	private static final class Key {
+		private final byte[] code;
+		private final int codeHash;
+		private final int readFlags;
+		private final String name;
+		private final String desc;
+		private final boolean useIndyAlias;
+
+		private Key(byte[] code, int codeHash, int readFlags, String name, String desc, boolean useIndyAlias) {
+			this.code = code;
+			this.codeHash = codeHash;
+			this.readFlags = readFlags;
+			this.name = name;
+			this.desc = desc;
+			this.useIndyAlias = useIndyAlias;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(this == o)
+				return true;
+			if(!(o instanceof Key))
+				return false;
+			Key other = (Key) o;
+			return codeHash == other.codeHash &&
+					readFlags == other.readFlags &&
+					useIndyAlias == other.useIndyAlias &&
+					name.equals(other.name) &&
+					desc.equals(other.desc) &&
+					(code == other.code || Arrays.equals(code, other.code));
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(codeHash, readFlags, name, desc, useIndyAlias);
+		}
+	}
+}
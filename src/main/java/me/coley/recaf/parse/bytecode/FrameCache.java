@@ -0,0 +1,73 @@
+package me.coley.recaf.parse.bytecode;
+
+import me.coley.analysis.value.AbstractValue;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.objectweb.asm.util.Textifier;
+import org.objectweb.asm.util.TraceMethodVisitor;
+
+import java.util.List;
+
+/**
+ * Cache of the analyzed frames of the last successfully analyzed method of an assembler.
+ * <br>
+ * Edits that do not change the generated code, such as comments, blank lines, or renamed labels,
+ * reuse the prior frames instead of running the analyzer again. Failed analysis is never cached
+ * since the reported line numbers may have moved.
+ * <br>
+ * The cache may be used by the thread compiling the method and by threads requesting its frames.
+ *
+ * @author Matt
+ */
+class FrameCache {
+	private String key;
+	private Frame<AbstractValue>[] frames;
+
+	/**
+	 * @param owner
+	 * 		Declaring type of the method.
+	 * @param method
+	 * 		Method to analyze.
+	 *
+	 * @return Key outlining the method's code.
+	 */
+	static String key(String owner, MethodNode method) {
+		Textifier textifier = new Textifier();
+		method.accept(new TraceMethodVisitor(textifier));
+		StringBuilder sb = new StringBuilder(owner).append('.').append(method.name).append(method.desc)
+				.append(' ').append(method.access).append('\n');
+		append(sb, textifier.getText());
+		return sb.toString();
+	}
+
+	/**
+	 * @param key
+	 * 		Key of the method, see {@link #key(String, MethodNode)}.
+	 *
+	 * @return Cached frames of the method, or {@code null} if the method's code changed since the last
+	 * analysis.
+	 */
+	synchronized Frame<AbstractValue>[] get(String key) {
+		return key.equals(this.key) ? frames : null;
+	}
+
+	/**
+	 * @param key
+	 * 		Key of the method, see {@link #key(String, MethodNode)}.
+	 * @param frames
+	 * 		Analyzed frames of the method.
+	 */
+	synchronized void put(String key, Frame<AbstractValue>[] frames) {
+		this.key = key;
+		this.frames = frames;
+	}
+
+	private static void append(StringBuilder sb, List<?> text) {
+		for (Object o : text) {
+			if (o instanceof List)
+				append(sb, (List<?>) o);
+			else
+				sb.append(o);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package me.coley.recaf.parse.bytecode;
+
+import me.coley.recaf.parse.bytecode.ast.*;
+import me.coley.recaf.parse.bytecode.exception.ASTParseException;
+
+import java.util.*;
+
+/**
+ * Stateful AST parser for text that is edited over time. Each parse only visits the lines that changed
+ * since the previous parse, unchanged lines that are still on the same line number reuse the AST nodes
+ * generated for them last time.
+ * <br>
+ * Reused nodes are never modified. Lines are not linked to their {@link RootAST}, so the same node can
+ * belong to the results of several parses, and prior results stay valid.
+ *
+ * @author Matt
+ */
+public class IncrementalParser {
+	private String[] lines = new String[0];
+	private AST[] nodes = new AST[0];
+	private List<String> aliasLines = Collections.emptyList();
+
+	/**
+	 * @param text
+	 * 		Text to visit.
+	 *
+	 * @return Parse result wrapper of generated AST.
+	 */
+	public synchronized ParseResult<RootAST> parse(String text) {
+		String[] newLines = Parse.split(text);
+		// Aliases apply to every line, so any change to them invalidates all prior nodes
+		List<String> newAliasLines = new ArrayList<>();
+		for (String line : newLines)
+			if (Parse.isAlias(line))
+				newAliasLines.add(line);
+		boolean reuse = newAliasLines.equals(aliasLines);
+		List<AliasAST> aliases = Parse.collectAliases(newLines);
+		// Find unchanged lines at the start and end of the text.
+		// Lines at the end are only reused if no lines were added or removed, as nodes hold their line number.
+		int prefix = 0;
+		int suffix = 0;
+		if (reuse) {
+			int max = Math.min(lines.length, newLines.length);
+			while (prefix < max && lines[prefix].equals(newLines[prefix]))
+				prefix++;
+			if (lines.length == newLines.length)
+				while (suffix < max - prefix &&
+						lines[lines.length - 1 - suffix].equals(newLines[newLines.length - 1 - suffix]))
+					suffix++;
+		}
+		// Parse changed lines, reuse nodes of unchanged lines
+		List<ASTParseException> problems = new ArrayList<>();
+		RootAST root = new RootAST();
+		AST[] newNodes = new AST[newLines.length];
+		for (int i = 0; i < newLines.length; i++) {
+			int lineNo = i + 1;
+			AST ast = null;
+			if (i < prefix || i >= newLines.length - suffix)
+				ast = nodes[i];
+			// Lines without a prior node are empty, or had problems that need to be reported again
+			if (ast == null) {
+				try {
+					ast = Parse.parseLine(lineNo, newLines[i], aliases);
+				} catch(ASTParseException ex) {
+					problems.add(ex);
+				}
+			}
+			if (ast != null)
+				root.addChild(ast);
+			newNodes[i] = ast;
+		}
+		lines = newLines;
+		nodes = newNodes;
+		aliasLines = newAliasLines;
+		return new ParseResult<>(root, problems);
+	}
+}
@@ -11,9 +11,8 @@ import me.coley.recaf.util.AccessFlag;
 import org.objectweb.asm.tree.*;
 import org.objectweb.asm.tree.analysis.Frame;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Bytecode assembler for methods.
@@ -25,9 +24,12 @@ public class MethodAssembler implements Assembler<MethodNode> {
 	private final ConfAssembler config;
 	private final Controller controller;
 	private Collection<LocalVariableNode> defaultVariables = Collections.emptySet();
-	private MethodNode lastCompile;
-	private MethodVerifier lastVerifier;
-	private MethodCompilation compilation;
+	private final FrameCache frameCache = new FrameCache();
+	// Compiling and requesting frames may happen on different threads, so the frames are published
+	// together with the method they belong to
+	private final AtomicReference<Analysis> lastAnalysis = new AtomicReference<>();
+	private volatile MethodNode lastCompile;
+	private volatile MethodCompilation compilation;
 
 	/**
 	 * @param declaringType
@@ -50,15 +52,31 @@ public class MethodAssembler implements Assembler<MethodNode> {
 			throw ex;
 		}
 		RootAST root = result.getRoot();
+		// Collect top-level statements in a single pass
+		MethodDefinitionAST definition = null;
+		SignatureAST signatureAST = null;
+		List<String> thrown = new ArrayList<>();
+		List<LabelAST> labels = new ArrayList<>();
+		List<TryCatchAST> tryCatches = new ArrayList<>();
+		for (AST ast : root.getChildren()) {
+			if (ast instanceof MethodDefinitionAST && definition == null)
+				definition = (MethodDefinitionAST) ast;
+			else if (ast instanceof SignatureAST && signatureAST == null)
+				signatureAST = (SignatureAST) ast;
+			else if (ast instanceof ThrowsAST)
+				thrown.add(((ThrowsAST) ast).getType().getType());
+			else if (ast instanceof LabelAST)
+				labels.add((LabelAST) ast);
+			else if (ast instanceof TryCatchAST)
+				tryCatches.add((TryCatchAST) ast);
+		}
 		// Get definition
-		MethodDefinitionAST definition = root.search(MethodDefinitionAST.class).stream().findFirst().orElse(null);
 		if (definition == null)
 			throw new AssemblerException("AST must have definition statement");
 		int access = definition.getModifierMask();
 		String name = definition.getName().getName();
 		String desc = definition.getDescriptor();
-		String[] exceptions = toExceptions(root);
-		SignatureAST signatureAST = root.search(SignatureAST.class).stream().findFirst().orElse(null);
+		String[] exceptions = thrown.toArray(new String[0]);
 		String signature = (signatureAST == null) ? null : signatureAST.getSignature();
 		MethodNode node = new MethodNode(access, name, desc, signature, exceptions);
 		// Check if method is abstract, do no further handling
@@ -70,12 +88,10 @@ public class MethodAssembler implements Assembler<MethodNode> {
 		MethodCompilation compilation = this.compilation =
 				new MethodCompilation(result, definition, node, declaringType, controller, priorVars);
 		// Create label mappings
-		root.search(LabelAST.class).forEach(lbl -> {
-			LabelNode generated = new LabelNode();
-			compilation.assignLabel(generated, lbl);
-		});
+		for (LabelAST lbl : labels)
+			compilation.assignLabel(new LabelNode(), lbl);
 		// Parse try-catches
-		for(TryCatchAST tc : root.search(TryCatchAST.class)) {
+		for(TryCatchAST tc : tryCatches) {
 			LabelNode start = compilation.getLabel(tc.getLblStart().getName());
 			if(start == null)
 				throw new AssemblerException("No label associated with try-catch start: " +
@@ -109,35 +125,48 @@ public class MethodAssembler implements Assembler<MethodNode> {
 		node.maxLocals = variableNames.getMax();
 		// Verify code is valid & store analyzed stack data.
 		// Use the saved data to fill in missing variable types.
-		if (config.verify)
-			lastVerifier = verify(node);
+		Frame<AbstractValue>[] frames = null;
+		if (config.verify) {
+			try {
+				frames = analyze(node);
+			} catch(VerifierException ex) {
+				lastAnalysis.set(new Analysis(node, null, true));
+				throw ex;
+			}
+		}
 		if (config.variables) {
 			// Compute variable information
 			VariableGenerator variables = new VariableGenerator(variableNames, compilation, node);
-			variables.computeVariables(lastVerifier);
+			variables.computeVariables(frames);
 			if (variables.getVariables() != null)
 				node.localVariables.addAll(variables.getVariables());
 		}
 		// Call complete to notify we are done
 		compilation.onCompletion();
+		lastAnalysis.set(new Analysis(node, frames, config.verify));
 		return (lastCompile = node);
 	}
 
 	/**
-	 * Verify the generated method.
+	 * Verify the generated method. The frames of the last successful verification are reused if
+	 * the generated code has not changed since.
 	 *
 	 * @param generated
 	 * 		Method generated by this assembler.
 	 *
-	 * @return Method verifier instance that contains analyzed frames of the method.
+	 * @return Analyzed frames of the method.
 	 *
 	 * @throws VerifierException
 	 * 		Wrapped verification exception.
 	 */
-	private MethodVerifier verify(MethodNode generated) throws VerifierException {
-		MethodVerifier verifier = new MethodVerifier(this, declaringType);
-		verifier.verify(generated);
-		return verifier;
+	private Frame<AbstractValue>[] analyze(MethodNode generated) throws VerifierException {
+		String key = FrameCache.key(declaringType, generated);
+		Frame<AbstractValue>[] frames = frameCache.get(key);
+		if (frames == null) {
+			frames = new MethodVerifier(this, declaringType).verify(generated);
+			frameCache.put(key, frames);
+		}
+		return frames;
 	}
 
 	/**
@@ -150,11 +179,24 @@ public class MethodAssembler implements Assembler<MethodNode> {
 
 	/**
 	 * @return Analyzed frames. Will be {@code null} if analysis failed.
+	 * When verification is disabled the frames are generated on the first call.
 	 */
 	public Frame<AbstractValue>[] getFrames() {
-		if (lastVerifier == null)
+		Analysis analysis = lastAnalysis.get();
+		if (analysis == null)
 			return null;
-		return lastVerifier.getFrames();
+		if (!analysis.analyzed && !AccessFlag.isAbstract(analysis.method.access)) {
+			Frame<AbstractValue>[] frames = null;
+			try {
+				frames = analyze(analysis.method);
+			} catch(VerifierException ex) {
+				// Allowed to fail, the user has verification disabled
+			}
+			// Not stored if the method was compiled again in the meantime
+			lastAnalysis.compareAndSet(analysis, new Analysis(analysis.method, frames, true));
+			return frames;
+		}
+		return analysis.frames;
 	}
 
 	/**
@@ -205,14 +247,17 @@ public class MethodAssembler implements Assembler<MethodNode> {
 	}
 
 	/**
-	 * @param root
-	 * 		AST of method.
-	 *
-	 * @return All thrown types.
+	 * Compiled method and its analyzed frames.
 	 */
-	private static String[] toExceptions(RootAST root) {
-		return root.search(ThrowsAST.class).stream()
-				.map(ast -> ast.getType().getType())
-				.toArray(String[]::new);
+	private static final class Analysis {
+		private final MethodNode method;
+		private final Frame<AbstractValue>[] frames;
+		private final boolean analyzed;
+
+		private Analysis(MethodNode method, Frame<AbstractValue>[] frames, boolean analyzed) {
+			this.method = method;
+			this.frames = frames;
+			this.analyzed = analyzed;
+		}
 	}
 }
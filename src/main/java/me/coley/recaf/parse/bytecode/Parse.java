@@ -7,7 +7,6 @@ import me.coley.recaf.util.OpcodeUtil;
 import org.objectweb.asm.tree.AbstractInsnNode;
 
 import java.util.*;
-import java.util.function.Supplier;
 
 /**
  * AST Parser utility.
@@ -15,23 +14,51 @@ import java.util.function.Supplier;
  * @author Matt
  */
 public class Parse {
-	private static final Map<Integer, Supplier<AbstractParser>> insnTypeToParser = new HashMap<>();
+	private static final Map<Integer, AbstractParser<?>> insnTypeToParser = new HashMap<>();
+	private static final Map<String, AbstractParser<?>> tokenToParser = new HashMap<>();
+	private static final Set<String> unparsedOpcodes = new HashSet<>();
+	private static final AbstractParser<?> COMMENT_PARSER = new CommentParser();
+	private static final AbstractParser<?> LABEL_PARSER = new LabelParser();
 
 	static {
-		Parse.insnTypeToParser.put(AbstractInsnNode.LINE, LineInsnParser::new);
-		Parse.insnTypeToParser.put(AbstractInsnNode.INSN, InsnParser::new);
-		Parse.insnTypeToParser.put(AbstractInsnNode.INT_INSN, IntInsnParser::new);
-		Parse.insnTypeToParser.put(AbstractInsnNode.VAR_INSN, VarInsnParser::new);
-		Parse.insnTypeToParser.put(AbstractInsnNode.TYPE_INSN, TypeInsnParser::new);
-		Parse.insnTypeToParser.put(AbstractInsnNode.IINC_INSN, IincInsnParser::new);
-		Parse.insnTypeToParser.put(AbstractInsnNode.MULTIANEWARRAY_INSN, MultiArrayParser::new);
-		Parse.insnTypeToParser.put(AbstractInsnNode.FIELD_INSN, FieldInsnParser::new);
-		Parse.insnTypeToParser.put(AbstractInsnNode.METHOD_INSN, MethodInsnParser::new);
-		Parse.insnTypeToParser.put(AbstractInsnNode.LDC_INSN, LdcInsnParser::new);
-		Parse.insnTypeToParser.put(AbstractInsnNode.JUMP_INSN, JumpInsnParser::new);
-		Parse.insnTypeToParser.put(AbstractInsnNode.TABLESWITCH_INSN, TableSwitchInsnParser::new);
-		Parse.insnTypeToParser.put(AbstractInsnNode.LOOKUPSWITCH_INSN, LookupSwitchInsnParser::new);
-		Parse.insnTypeToParser.put(AbstractInsnNode.INVOKE_DYNAMIC_INSN, InvokeDynamicParser::new);
+		// Top level parsers are stateless, so each line of each document can share the same instances.
+		insnTypeToParser.put(AbstractInsnNode.LINE, new LineInsnParser());
+		insnTypeToParser.put(AbstractInsnNode.INSN, new InsnParser());
+		insnTypeToParser.put(AbstractInsnNode.INT_INSN, new IntInsnParser());
+		insnTypeToParser.put(AbstractInsnNode.VAR_INSN, new VarInsnParser());
+		insnTypeToParser.put(AbstractInsnNode.TYPE_INSN, new TypeInsnParser());
+		insnTypeToParser.put(AbstractInsnNode.IINC_INSN, new IincInsnParser());
+		insnTypeToParser.put(AbstractInsnNode.MULTIANEWARRAY_INSN, new MultiArrayParser());
+		insnTypeToParser.put(AbstractInsnNode.FIELD_INSN, new FieldInsnParser());
+		insnTypeToParser.put(AbstractInsnNode.METHOD_INSN, new MethodInsnParser());
+		insnTypeToParser.put(AbstractInsnNode.LDC_INSN, new LdcInsnParser());
+		insnTypeToParser.put(AbstractInsnNode.JUMP_INSN, new JumpInsnParser());
+		insnTypeToParser.put(AbstractInsnNode.TABLESWITCH_INSN, new TableSwitchInsnParser());
+		insnTypeToParser.put(AbstractInsnNode.LOOKUPSWITCH_INSN, new LookupSwitchInsnParser());
+		insnTypeToParser.put(AbstractInsnNode.INVOKE_DYNAMIC_INSN, new InvokeDynamicParser());
+		// Resolve the parser of each opcode name ahead of time, so looking up the parser of a line
+		// is a single map access.
+		for (String name : OpcodeUtil.getInsnNames()) {
+			AbstractParser<?> parser;
+			try {
+				parser = insnTypeToParser.get(OpcodeUtil.opcodeToType(OpcodeUtil.nameToOpcode(name)));
+			} catch(NullPointerException ex) {
+				// Not all custom opcodes have a type
+				continue;
+			}
+			if (parser != null)
+				tokenToParser.put(name, parser);
+			else
+				unparsedOpcodes.add(name);
+		}
+		// Keywords take priority over opcodes of the same name
+		tokenToParser.put("DEFINE", new DefinitionParser());
+		tokenToParser.put("VALUE", new DefaultValueParser());
+		tokenToParser.put("THROWS", new ThrowsParser());
+		tokenToParser.put("TRY", new TryCatchParser());
+		tokenToParser.put("ALIAS", new AliasDeclarationParser());
+		tokenToParser.put("SIGNATURE", new SignatureParser());
+		tokenToParser.put("EXPR", new ExpressionParser());
 	}
 
 	/**
@@ -43,59 +70,119 @@ public class Parse {
 	public static ParseResult<RootAST> parse(String text) {
 		List<ASTParseException> problems = new ArrayList<>();
 		RootAST root = new RootAST();
-		int lineNo = 0;
-		String[] lines = text.split("[\n\r]");
-		// Collect aliases
-		List<AliasAST> aliases = new ArrayList<>();
-		for(String line : lines) {
-			lineNo++;
-			// Skip empty lines
-			if(line.trim().isEmpty())
-				continue;
-			// Check for alias
-			String token = line.trim().split("\\s")[0].toUpperCase();
+		String[] lines = split(text);
+		List<AliasAST> aliases = collectAliases(lines);
+		for(int i = 0; i < lines.length; i++) {
 			try {
-				if (token.equals("ALIAS")) {
-					// Why? Because we want to support aliases-in-aliases when they
-					// are defined in order.
-					String lineCopy = line;
-					for (AliasAST alias : aliases)
-						lineCopy = lineCopy.replace("${" + alias.getName().getName() + "}",
-								alias.getValue().getValue());
-					// Parse alias
-					aliases.add((AliasAST) getParser(lineNo, token).visit(lineNo, lineCopy));
-				}
-			} catch(ClassCastException | ASTParseException ex) {
-				/* ignored, we will collect the error on the second pass */
+				AST ast = parseLine(i + 1, lines[i], aliases);
+				if (ast != null)
+					root.addChild(ast);
+			} catch(ASTParseException ex) {
+				problems.add(ex);
 			}
 		}
-		// Parse again
-		lineNo = 0;
-		for(String line : lines) {
-			lineNo++;
-			// Skip empty lines
-			String trim = line.trim();
-			if(trim.isEmpty())
+		return new ParseResult<>(root, problems);
+	}
+
+	/**
+	 * @param text
+	 * 		Text to split.
+	 *
+	 * @return Lines of the text.
+	 */
+	static String[] split(String text) {
+		return text.split("[\n\r]");
+	}
+
+	/**
+	 * @param lines
+	 * 		Lines of text.
+	 *
+	 * @return Aliases declared in the text, in order of declaration.
+	 */
+	static List<AliasAST> collectAliases(String[] lines) {
+		List<AliasAST> aliases = new ArrayList<>();
+		for(int i = 0; i < lines.length; i++) {
+			String line = lines[i];
+			if (!isAlias(line))
 				continue;
-			// Determine parse action from starting token
-			String token = trim.split("\\s")[0].toUpperCase();
 			try {
-				AbstractParser parser = getParser(lineNo, token);
-				if(parser == null)
-					throw new ASTParseException(lineNo, "Unknown identifier: " + token);
-				// Apply aliases
-				String lineCopy = line;
-				for (AliasAST alias : aliases)
-					lineCopy = lineCopy.replace("${" + alias.getName().getName() + "}",
-							alias.getValue().getValue());
-				// Parse and add to root
-				AST ast = parser.visit(lineNo, lineCopy);
-				root.addChild(ast);
+				// Why? Because we want to support aliases-in-aliases when they
+				// are defined in order.
+				String lineCopy = applyAliases(line, aliases);
+				aliases.add(new AliasDeclarationParser().visit(i + 1, lineCopy));
 			} catch(ASTParseException ex) {
-				problems.add(ex);
+				/* ignored, we will collect the error when parsing the line */
 			}
 		}
-		return new ParseResult<>(root, problems);
+		return aliases;
+	}
+
+	/**
+	 * @param line
+	 * 		Line of text.
+	 *
+	 * @return {@code true} when the line declares an alias.
+	 */
+	static boolean isAlias(String line) {
+		int start = 0;
+		while (start < line.length() && line.charAt(start) <= ' ')
+			start++;
+		return line.regionMatches(true, start, "ALIAS", 0, 5) &&
+				(line.length() == start + 5 || Character.isWhitespace(line.charAt(start + 5)));
+	}
+
+	/**
+	 * @param lineNo
+	 * 		Line number.
+	 * @param line
+	 * 		Line of text.
+	 * @param aliases
+	 * 		Aliases to apply to the line.
+	 *
+	 * @return AST of the line, or {@code null} for empty lines.
+	 *
+	 * @throws ASTParseException
+	 * 		When the line is not valid.
+	 */
+	static AST parseLine(int lineNo, String line, List<AliasAST> aliases) throws ASTParseException {
+		// Skip empty lines
+		String token = getToken(line);
+		if(token == null)
+			return null;
+		// Determine parse action from starting token
+		AbstractParser parser = getParser(lineNo, token);
+		if(parser == null)
+			throw new ASTParseException(lineNo, "Unknown identifier: " + token);
+		// Parse with aliases applied
+		return parser.visit(lineNo, applyAliases(line, aliases));
+	}
+
+	/**
+	 * @param line
+	 * 		Line of text.
+	 *
+	 * @return First token on the line, in upper case. {@code null} if the line is empty.
+	 */
+	private static String getToken(String line) {
+		int start = 0;
+		int length = line.length();
+		while (start < length && line.charAt(start) <= ' ')
+			start++;
+		if (start == length)
+			return null;
+		int end = start;
+		while (end < length && !Character.isWhitespace(line.charAt(end)))
+			end++;
+		return line.substring(start, end).toUpperCase();
+	}
+
+	private static String applyAliases(String line, List<AliasAST> aliases) {
+		if (aliases.isEmpty() || !line.contains("${"))
+			return line;
+		for (AliasAST alias : aliases)
+			line = line.replace("${" + alias.getName().getName() + "}", alias.getValue().getValue());
+		return line;
 	}
 
 	/**
@@ -104,52 +191,33 @@ public class Parse {
 	 * @param token
 	 * 		First token on line.
 	 *
-	 * @return Parser associated with the token.
+	 * @return Parser associated with the token. Parsers are shared between lines, and should not
+	 * be modified.
 	 *
 	 * @throws ASTParseException
 	 * 		When the token is not valid.
 	 */
 	public static AbstractParser<?> getParser(int lineNo, String token) throws ASTParseException {
 		if (token.startsWith("//"))
-			return new CommentParser();
+			return COMMENT_PARSER;
 		if(token.endsWith(":"))
-			return new LabelParser();
-		if (token.equals("DEFINE"))
-			return new DefinitionParser();
-		if (token.equals("VALUE"))
-			return new DefaultValueParser();
-		if(token.equals("THROWS"))
-			return new ThrowsParser();
-		if(token.equals("TRY"))
-			return new TryCatchParser();
-		if(token.equals("ALIAS"))
-			return new AliasDeclarationParser();
-		if(token.equals("SIGNATURE"))
-			return new SignatureParser();
-		if(token.equals("EXPR"))
-			return new ExpressionParser();
-		// Get opcode from token (opcode?) then get the opcode's group
-		// Lookup group's parser
-		try {
-			int opcode = OpcodeUtil.nameToOpcode(token);
-			int type = OpcodeUtil.opcodeToType(opcode);
-			return getInsnParser(type);
-		} catch(NullPointerException ex) {
-			// Thrown when the opcode name isn't a real opcode
-			throw new ASTParseException(lineNo, "Not a real opcode: " + token);
-		}
+			return LABEL_PARSER;
+		AbstractParser<?> parser = tokenToParser.get(token);
+		if (parser != null)
+			return parser;
+		// Opcodes without a parser, such as "LABEL", are not valid line identifiers
+		if (unparsedOpcodes.contains(token))
+			return null;
+		throw new ASTParseException(lineNo, "Not a real opcode: " + token);
 	}
 
 	/**
 	 * @param type
 	 * 		Instruction type, see {@link AbstractInsnNode#getType()}.
 	 *
-	 * @return Parser for type.
+	 * @return Shared parser for type.
 	 */
 	public static AbstractParser<?> getInsnParser(int type) {
-		Supplier<AbstractParser> supplier = insnTypeToParser.get(type);
-		if(supplier == null)
-			return null;
-		return supplier.get();
+		return insnTypeToParser.get(type);
 	}
 }
@@ -2,6 +2,7 @@ package me.coley.recaf.parse.bytecode;
 
 import com.google.common.collect.Multimap;
 import com.google.common.collect.MultimapBuilder;
+import me.coley.analysis.value.AbstractValue;
 import me.coley.recaf.parse.bytecode.ast.DefinitionArgAST;
 import me.coley.recaf.parse.bytecode.ast.VariableReference;
 import me.coley.recaf.parse.bytecode.exception.AssemblerException;
@@ -9,6 +10,7 @@ import me.coley.recaf.util.AccessFlag;
 import me.coley.recaf.util.TypeUtil;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
+import org.objectweb.asm.tree.analysis.Frame;
 
 import java.util.*;
 
@@ -47,10 +49,10 @@ public class VariableGenerator {
 	/**
 	 * Visit the method with verifier information.
 	 *
-	 * @param verifier
-	 * 		Verifier with analysis data. May be {@code null}.
+	 * @param frames
+	 * 		Analyzed frames of the method. May be {@code null}.
 	 */
-	void computeVariables(MethodVerifier verifier) throws AssemblerException {
+	void computeVariables(Frame<AbstractValue>[] frames) throws AssemblerException {
 		// Compute the variable indices to their assigned types
 		Multimap<Integer, Integer> indexToSort = MultimapBuilder.hashKeys().hashSetValues().build();
 		Multimap<Integer, String> indexToName = MultimapBuilder.hashKeys().hashSetValues().build();
@@ -90,8 +92,8 @@ public class VariableGenerator {
 				//       See above note.
 				if (!names.isEmpty())
 					computeSimple(index, names.iterator().next());
-			} else if (verifier != null) {
-				computeScoped(index, verifier);
+			} else if (frames != null) {
+				computeScoped(index, frames);
 			}
 		}
 	}
@@ -173,7 +175,7 @@ public class VariableGenerator {
 		addVariable(index, name, type, first, last);
 	}
 
-	private void computeScoped(int index, MethodVerifier verifier) throws AssemblerException {
+	private void computeScoped(int index, Frame<AbstractValue>[] frames) throws AssemblerException {
 		// TODO: Make scoped variable
 	}
 
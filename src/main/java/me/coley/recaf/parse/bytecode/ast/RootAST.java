@@ -1,9 +1,13 @@
 package me.coley.recaf.parse.bytecode.ast;
 
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
- * Root AST.
+ * Root AST. Children are the nodes of each line.
+ * <br>
+ * Line nodes are not linked to the root or to each other, so that unchanged lines can share their nodes
+ * between parses. See {@link me.coley.recaf.parse.bytecode.IncrementalParser}.
  *
  * @author Matt
  */
@@ -22,9 +26,26 @@ public class RootAST extends AST {
 	 * @return AST at line number. May be {@code null}.
 	 */
 	public AST getAtLine(int line) {
-		return getChildren().stream()
-					.filter(ast -> ast.getLine() == line)
-					.findFirst().orElse(null);
+		// Children are added in line order, one per line
+		List<AST> children = getChildren();
+		int low = 0;
+		int high = children.size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int midLine = children.get(mid).getLine();
+			if (midLine < line)
+				low = mid + 1;
+			else if (midLine > line)
+				high = mid - 1;
+			else
+				return children.get(mid);
+		}
+		return null;
+	}
+
+	@Override
+	public void addChild(AST ast) {
+		getChildren().add(ast);
 	}
 
 	@Override
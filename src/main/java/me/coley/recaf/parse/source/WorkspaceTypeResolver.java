@@ -7,20 +7,33 @@ import com.github.javaparser.symbolsolver.reflectionmodel.ReflectionClassDeclara
 import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
 import javassist.*;
 import me.coley.recaf.util.StringUtil;
+import me.coley.recaf.util.struct.InternalBiConsumer;
+import me.coley.recaf.util.struct.InternalConsumer;
+import me.coley.recaf.workspace.JavaResource;
 import me.coley.recaf.workspace.Workspace;
 
 import java.io.*;
+import java.lang.ref.WeakReference;
+import java.net.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.github.javaparser.symbolsolver.javassistmodel.JavassistFactory.toTypeDeclaration;
 
 /**
  * Type resolver that uses a Recaf workspace as a classpath.
+ * <br>
+ * Resolved types are cached by name. The cache is invalidated when classes of the primary
+ * resource are updated or removed. Since that happens just before the update is applied, cached
+ * workspace types also hold the bytecode they were made from, and are dropped on lookup once
+ * the workspace holds different bytecode.
  *
  * @author Matt
  */
 public class WorkspaceTypeResolver implements TypeSolver {
+	private final Map<String, Solved> solved = new ConcurrentHashMap<>();
 	private final TypeSolver childSolver = new ReflectionTypeSolver(false);
-	private final ClassPool classPool = new ClassPool(false);
+	private final WorkspaceClassPool classPool = new WorkspaceClassPool();
 	private Workspace workspace;
 	private TypeSolver parent;
 
@@ -30,9 +43,12 @@ public class WorkspaceTypeResolver implements TypeSolver {
 	 */
 	public WorkspaceTypeResolver(Workspace workspace) {
 		this.workspace = workspace;
-		for (String name : workspace.getClassNames())
-			classPool.insertClassPath(new ByteArrayClassPath(name.replace("/", "."), workspace.getRawClass(name)));
+		// Classes are read from the workspace when requested, rather than copying all of them up-front
+		classPool.appendClassPath(new WorkspaceClassPath());
 		classPool.appendSystemPath();
+		JavaResource primary = workspace.getPrimary();
+		primary.getClasses().getPutListeners().add(InternalBiConsumer.internal((name, code) -> invalidate(name)));
+		primary.getClasses().getRemoveListeners().add(InternalConsumer.internal(name -> invalidate((String) name)));
 	}
 
 	@Override
@@ -47,21 +63,34 @@ public class WorkspaceTypeResolver implements TypeSolver {
 
 	@Override
 	public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+		// Not using "computeIfAbsent" since solving a type may solve other types
+		Solved entry = solved.get(name);
+		if (entry == null || !entry.isCurrent()) {
+			entry = solve(name);
+			solved.put(name, entry);
+		}
+		return entry.ref;
+	}
+
+	private Solved solve(String name) {
 		try {
 			// The default resolve seems to infinite loop on Object, but this doesn't.
 			// IDK, JavaParser is weird.
 			if (name.equals("java.lang.Object"))
-				return SymbolReference.solved(new ReflectionClassDeclaration(Object.class, getRoot()));
+				return new Solved(null, null,
+						SymbolReference.solved(new ReflectionClassDeclaration(Object.class, getRoot())));
 			// JavaParser has no understanding of the difference between
 			// a package separator and an inner class separator...
 			// I mean, its designed to mimic source-level constructs but this is still disappointing...
 			// I would like to not have to have a loop like this here for performance reasons.
 			String internal = name.replace('.','/');
 			do {
-				if (workspace.hasClass(internal)) {
-					InputStream is = new ByteArrayInputStream(workspace.getRawClass(internal));
+				byte[] code = workspace.getRawClass(internal);
+				if (code != null) {
+					classPool.served.put(internal.replace('/', '.'), new WeakReference<>(code));
+					InputStream is = new ByteArrayInputStream(code);
 					ResolvedReferenceTypeDeclaration dec = toTypeDeclaration(classPool.makeClass(is), getRoot());
-					return SymbolReference.solved(dec);
+					return new Solved(internal, code, SymbolReference.solved(dec));
 				} else {
 					internal = StringUtil.replaceLast(internal, "/", "$");
 				}
@@ -69,6 +98,112 @@ public class WorkspaceTypeResolver implements TypeSolver {
 		} catch(IOException ex) {
 			throw new IllegalStateException("Failed to resolve type: " + name, ex);
 		}
-		return childSolver.tryToSolveType(name);
+		return new Solved(null, null, childSolver.tryToSolveType(name));
+	}
+
+	/**
+	 * @param name
+	 * 		Internal name of an updated class.
+	 */
+	private void invalidate(String name) {
+		String className = name.replace('/', '.');
+		classPool.served.remove(className);
+		classPool.removeCached(className);
+		// Declarations of other types may refer to the class, and unsolved names may now be solvable
+		solved.clear();
+	}
+
+	/**
+	 * Resolved type, along with the bytecode it was made from.
+	 * The bytecode is weakly referenced, so replaced bytecode is not kept alive by the cache.
+	 */
+	private final class Solved {
+		private final String internal;
+		private final WeakReference<byte[]> code;
+		private final SymbolReference<ResolvedReferenceTypeDeclaration> ref;
+
+		private Solved(String internal, byte[] code, SymbolReference<ResolvedReferenceTypeDeclaration> ref) {
+			this.internal = internal;
+			this.code = code == null ? null : new WeakReference<>(code);
+			this.ref = ref;
+		}
+
+		/**
+		 * @return {@code true} when the workspace still holds the bytecode the type was made from.
+		 */
+		private boolean isCurrent() {
+			return code == null || workspace.getRawClass(internal) == code.get();
+		}
+	}
+
+	/**
+	 * Class pool that allows dropping cached classes when they are updated.
+	 */
+	private final class WorkspaceClassPool extends ClassPool {
+		// Bytecode classes were made from, weakly referenced like in Solved
+		private final Map<String, WeakReference<byte[]>> served = new ConcurrentHashMap<>();
+
+		private WorkspaceClassPool() {
+			super(false);
+		}
+
+		@Override
+		protected CtClass getCached(String classname) {
+			CtClass cached = super.getCached(classname);
+			// Classes cached from bytecode the workspace no longer holds are stale
+			WeakReference<byte[]> code = served.get(classname);
+			if (cached != null && code != null && workspace.getRawClass(classname.replace('.', '/')) != code.get()) {
+				super.removeCached(classname);
+				return null;
+			}
+			return cached;
+		}
+
+		@Override
+		protected CtClass removeCached(String classname) {
+			return super.removeCached(classname);
+		}
+	}
+
+	/**
+	 * Class path that reads the current bytecode of workspace classes.
+	 */
+	private final class WorkspaceClassPath implements ClassPath {
+		@Override
+		public InputStream openClassfile(String classname) {
+			byte[] code = workspace.getRawClass(classname.replace('.', '/'));
+			if (code == null)
+				return null;
+			classPool.served.put(classname, new WeakReference<>(code));
+			return new ByteArrayInputStream(code);
+		}
+
+		@Override
+		public URL find(String classname) {
+			String internal = classname.replace('.', '/');
+			if (!workspace.hasClass(internal))
+				return null;
+			try {
+				return new URL(null, "file:/WorkspaceClassPath/" + internal + ".class", new URLStreamHandler() {
+					@Override
+					protected URLConnection openConnection(URL url) {
+						return new URLConnection(url) {
+							@Override
+							public void connect() {}
+
+							@Override
+							public InputStream getInputStream() throws IOException {
+								InputStream is = openClassfile(classname);
+								if (is == null)
+									throw new FileNotFoundException(classname);
+								return is;
+							}
+						};
+					}
+				});
+			} catch(MalformedURLException ex) {
+				return null;
+			}
+		}
 	}
 }
@@ -13,9 +13,9 @@ import org.plugface.core.internal.DependencyResolver;
 
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -28,6 +28,8 @@ public class PluginsManager extends DefaultPluginManager {
 	private final Map<String, BasePlugin> plugins = new HashMap<>();
 	private final Map<String, Boolean> pluginStates = new HashMap<>();
 	private final Map<String, BufferedImage> pluginIcons = new HashMap<>();
+	private final Map<Class<?>, ActivePlugins> activeByType = new ConcurrentHashMap<>();
+	private final AtomicInteger version = new AtomicInteger();
 	private EntryLoader entryLoader;
 
 	/**
@@ -78,9 +80,10 @@ public class PluginsManager extends DefaultPluginManager {
 
 	/**
 	 * @return Collection of all plugin instances.
+	 * Use {@link #addPlugin(BasePlugin)} and {@link #removePlugin(String)} to change the plugins.
 	 */
 	public Map<String, BasePlugin> plugins() {
-		return plugins;
+		return Collections.unmodifiableMap(plugins);
 	}
 
 	/**
@@ -95,9 +98,24 @@ public class PluginsManager extends DefaultPluginManager {
 
 	/**
 	 * @return Map of plugin states.
+	 * Use {@link #setPluginState(String, boolean)} to change the states.
 	 */
 	public Map<String, Boolean> getPluginStates() {
-		return pluginStates;
+		return Collections.unmodifiableMap(pluginStates);
+	}
+
+	/**
+	 * Enable or disable a plugin.
+	 *
+	 * @param name
+	 * 		Name of the plugin.
+	 * @param enabled
+	 * 		New state of the plugin.
+	 */
+	public void setPluginState(String name, boolean enabled) {
+		pluginStates.put(name, enabled);
+		// Bumped after the change, so active plugins collected before it are outdated
+		version.incrementAndGet();
 	}
 
 	/**
@@ -136,6 +154,8 @@ public class PluginsManager extends DefaultPluginManager {
 	/**
 	 * Fetch the active plugins matching the given type.
 	 * This will exclude plugins that are disabled.
+	 * <br>
+	 * Results are cached per type, so this is cheap to call for each item in a loop.
 	 *
 	 * @param type
 	 * 		Class of plugin.
@@ -146,11 +166,30 @@ public class PluginsManager extends DefaultPluginManager {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T extends BasePlugin> Collection<T> ofType(Class<T> type) {
-		return plugins().values().stream()
-						.filter(plugin -> type.isAssignableFrom(plugin.getClass()))
-						.filter(plugin -> pluginStates.getOrDefault(plugin.getName(), false))
-						.map(plugin -> (T) plugin)
-						.collect(Collectors.toList());
+		ActivePlugins active = activeByType.get(type);
+		if (active == null || active.version != version.get()) {
+			// Read the version first, so a change made while collecting leaves the entry outdated
+			int current = version.get();
+			active = new ActivePlugins(current, Collections.unmodifiableList(plugins.values().stream()
+					.filter(plugin -> type.isAssignableFrom(plugin.getClass()))
+					.filter(plugin -> pluginStates.getOrDefault(plugin.getName(), false))
+					.collect(Collectors.toList())));
+			activeByType.put(type, active);
+		}
+		return (Collection<T>) (Collection<?>) active.plugins;
+	}
+
+	/**
+	 * Active plugins of a type, along with the version of the plugin maps they were collected from.
+	 */
+	private static final class ActivePlugins {
+		private final int version;
+		private final List<BasePlugin> plugins;
+
+		private ActivePlugins(int version, List<BasePlugin> plugins) {
+			this.version = version;
+			this.plugins = plugins;
+		}
 	}
 
 	/**
@@ -177,6 +216,7 @@ public class PluginsManager extends DefaultPluginManager {
 		if (icon != null) {
 			pluginIcons.put(name, icon);
 		}
+		version.incrementAndGet();
 	}
 
 	/**
@@ -203,6 +243,20 @@ public class PluginsManager extends DefaultPluginManager {
 		addPlugin(plugin, null);
 	}
 
+	/**
+	 * Unregisters a plugin.
+	 *
+	 * @param name
+	 * 		Name of the plugin.
+	 */
+	@InternalApi
+	public void removePlugin(String name) {
+		plugins.remove(name);
+		pluginStates.remove(name);
+		pluginIcons.remove(name);
+		version.incrementAndGet();
+	}
+
 	static {
 		DefaultPluginContext context = new DefaultPluginContext();
 		AnnotationProcessor processor = new AnnotationProcessor();
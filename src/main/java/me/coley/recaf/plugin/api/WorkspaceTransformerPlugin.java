@@ -0,0 +1,55 @@
+package me.coley.recaf.plugin.api;
+
+import me.coley.recaf.workspace.Workspace;
+import me.coley.recaf.workspace.WorkspaceTransformer;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+
+/**
+ * Allow plugins to transform all classes of the primary resource in a single pass.
+ * <br>
+ * Classes are transformed in parallel, so implementations must be safe to call for different
+ * classes at the same time. Each class is parsed once and the same node is passed to every
+ * transformer that targets it. See {@link WorkspaceTransformer} for running transformers.
+ *
+ * @author Matt
+ */
+public interface WorkspaceTransformerPlugin extends BasePlugin {
+	/**
+	 * Checked before a class is fully parsed, so that classes the plugin does not modify are skipped
+	 * cheaply. Lookups such as {@link me.coley.recaf.util.ClassUtil#containsMethod(ClassReader, String, String)}
+	 * share a cached skeleton of the class.
+	 *
+	 * @param workspace
+	 * 		Workspace containing the class.
+	 * @param reader
+	 * 		Class to check.
+	 *
+	 * @return {@code true} if the plugin may modify the class.
+	 */
+	default boolean isTargeted(Workspace workspace, ClassReader reader) {
+		return true;
+	}
+
+	/**
+	 * @return {@code true} if the plugin needs debug information such as variable names and line
+	 * numbers. When no transformer of a class needs it, the class is first transformed without debug
+	 * information. Classes that are changed are then transformed again with it, so it is kept.
+	 */
+	default boolean isDebugInfoNeeded() {
+		return true;
+	}
+
+	/**
+	 * Transform the given class. Frames are not included, they are computed for changed classes.
+	 * May be called twice for the same class, see {@link #isDebugInfoNeeded()}.
+	 *
+	 * @param workspace
+	 * 		Workspace containing the class.
+	 * @param node
+	 * 		Class to transform.
+	 *
+	 * @return {@code true} if the class was modified.
+	 */
+	boolean transform(Workspace workspace, ClassNode node);
+}
@@ -76,12 +76,11 @@ public class SearchBuilder {
 	 */
 	public SearchCollector build() {
 		SearchCollector collector = new SearchCollector(workspace, queries);
-		SearchClassVisitor sv = new SearchClassVisitor(collector);
 		workspace.getPrimaryClassReaders().forEach(cr -> {
 			String name = cr.getClassName();
 			if (skip(name))
 				return;
-			cr.accept(sv, readFlags);
+			cr.accept(new SearchClassVisitor(collector, cr, readFlags), readFlags);
 		});
 		return collector;
 	}
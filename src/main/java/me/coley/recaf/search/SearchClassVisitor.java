@@ -3,6 +3,9 @@ package me.coley.recaf.search;
 import me.coley.recaf.Recaf;
 import org.objectweb.asm.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+
 /**
  * Visitor that adds matched results in classes to a result collector.
  *
@@ -10,6 +13,8 @@ import org.objectweb.asm.*;
  */
 public class SearchClassVisitor extends ClassVisitor {
 	private final SearchCollector collector;
+	private final ClassReader reader;
+	private final int readFlags;
 	private Context.ClassContext context;
 
 	/**
@@ -17,8 +22,22 @@ public class SearchClassVisitor extends ClassVisitor {
 	 * 		Result collector.
 	 */
 	public SearchClassVisitor(SearchCollector collector) {
+		this(collector, null, 0);
+	}
+
+	/**
+	 * @param collector
+	 * 		Result collector.
+	 * @param reader
+	 * 		Class being visited, allows reuse of cached method disassembly.
+	 * @param readFlags
+	 * 		ClassReader flags the class is visited with.
+	 */
+	public SearchClassVisitor(SearchCollector collector, ClassReader reader, int readFlags) {
 		super(Recaf.ASM_VERSION);
 		this.collector = collector;
+		this.reader = reader;
+		this.readFlags = readFlags;
 	}
 
 	/**
@@ -86,6 +105,11 @@ public class SearchClassVisitor extends ClassVisitor {
 					q.match(access, context.getName(), name, descriptor);
 					collector.addMatched(methodContext, q);
 				});
-		return new SearchMethodVisitor(collector, methodContext);
+		SearchMethodVisitor mv = new SearchMethodVisitor(collector, methodContext, reader, readFlags);
+		// Complete the definition so the disassembly matches that of the editor
+		mv.signature = sig;
+		if (ex != null)
+			mv.exceptions = new ArrayList<>(Arrays.asList(ex));
+		return mv;
 	}
 }
@@ -13,8 +13,6 @@ import java.util.function.Function;
 import java.util.function.IntSupplier;
 import java.util.stream.Stream;
 
-import static org.objectweb.asm.ClassReader.*;
-
 /*
  * TODO with Search API:
  *  - Method inheritance (child of given)
@@ -149,8 +147,7 @@ public class SearchCollector {
 		if(workspace.hasClass(owner))
 			if(desc.contains("(")) {
 				ClassReader reader = workspace.getClassReader(owner);
-				MethodNode node = ClassUtil.getMethod(
-						reader, SKIP_CODE | SKIP_DEBUG, name, desc);
+				MethodNode node = ClassUtil.getSkeletonMethod(reader, name, desc);
 				if(node != null)
 					return node.access;
 				// Try and look in parent classes for the method definition
@@ -163,8 +160,7 @@ public class SearchCollector {
 						return ret;
 				}
 			} else {
-				FieldNode node = ClassUtil.getField(
-						workspace.getClassReader(owner), SKIP_CODE | SKIP_DEBUG, name, desc);
+				FieldNode node = ClassUtil.getSkeletonField(workspace.getClassReader(owner), name, desc);
 				if(node != null)
 					return node.access;
 			}
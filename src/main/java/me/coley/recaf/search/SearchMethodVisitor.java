@@ -2,6 +2,7 @@ package me.coley.recaf.search;
 
 import me.coley.recaf.Recaf;
 import me.coley.recaf.parse.bytecode.Disassembler;
+import me.coley.recaf.parse.bytecode.DisassemblyCache;
 import me.coley.recaf.util.AccessFlag;
 import me.coley.recaf.util.InsnUtil;
 import me.coley.recaf.util.Log;
@@ -22,6 +23,8 @@ import static me.coley.recaf.search.SearchCollector.ACC_NOT_FOUND;
 public class SearchMethodVisitor extends MethodNode {
 	private final SearchCollector collector;
 	private final Context.MemberContext context;
+	private final ClassReader reader;
+	private final int readFlags;
 
 	/**
 	 * @param collector
@@ -30,12 +33,30 @@ public class SearchMethodVisitor extends MethodNode {
 	 * 		Search context base.
 	 */
 	public SearchMethodVisitor(SearchCollector collector, Context.MemberContext context) {
+		this(collector, context, null, 0);
+	}
+
+	/**
+	 * @param collector
+	 * 		Result collector.
+	 * @param context
+	 * 		Search context base.
+	 * @param reader
+	 * 		Class declaring the method, allows reuse of cached method disassembly.
+	 * 		May be {@code null}.
+	 * @param readFlags
+	 * 		ClassReader flags the class is visited with.
+	 */
+	public SearchMethodVisitor(SearchCollector collector, Context.MemberContext context,
+							   ClassReader reader, int readFlags) {
 		super(Recaf.ASM_VERSION);
 		this.access = context.getAccess();
 		this.name = context.getName();
 		this.desc = context.getDesc();
 		this.collector = collector;
 		this.context = context;
+		this.reader = reader;
+		this.readFlags = readFlags;
 	}
 
 	@Override
@@ -307,7 +328,8 @@ public class SearchMethodVisitor extends MethodNode {
 		List<InsnTextQuery> insnTextQueries = collector.queries(InsnTextQuery.class).collect(Collectors.toList());
 		if (!insnTextQueries.isEmpty()) {
 			try {
-				String code = new Disassembler().disassemble(this);
+				String code = reader == null ? new Disassembler().disassemble(this) :
+						DisassemblyCache.disassemble(reader, readFlags, this);
 				insnTextQueries.forEach(q -> {
 					q.match(code);
 					collector.addMatched(context, q);
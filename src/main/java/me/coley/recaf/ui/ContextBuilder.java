@@ -25,6 +25,8 @@ import me.coley.recaf.ui.controls.view.ClassViewport;
 import me.coley.recaf.ui.controls.view.FileViewport;
 import me.coley.recaf.util.*;
 import me.coley.recaf.workspace.JavaResource;
+import me.coley.recaf.workspace.NestedArchiveResource;
+import me.coley.recaf.workspace.Workspace;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.FieldNode;
@@ -43,7 +45,6 @@ import static me.coley.recaf.util.LangUtil.translate;
  * @author Matt
  */
 public class ContextBuilder {
-	private static final int SKIP = ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE;
 	private static PluginsManager plugins = PluginsManager.getInstance();
 	private GuiController controller;
 	private JavaResource resource;
@@ -332,7 +333,7 @@ public class ContextBuilder {
 		if(!setupClass(owner))
 			return null;
 		// Fetch field
-		FieldNode node = ClassUtil.getField(reader, SKIP, name, desc);
+		FieldNode node = ClassUtil.getSkeletonField(reader, name, desc);
 		if(node == null)
 			return null;
 		int access = node.access;
@@ -415,7 +416,7 @@ public class ContextBuilder {
 		if(!setupClass(owner))
 			return null;
 		// Fetch method
-		MethodNode node = ClassUtil.getMethod(reader, SKIP, name, desc);
+		MethodNode node = ClassUtil.getSkeletonMethod(reader, name, desc);
 		if(node == null)
 			return null;
 		int access = node.access;
@@ -500,7 +501,7 @@ public class ContextBuilder {
 		if(!setupClass(owner))
 			return null;
 		// Fetch declaring method
-		MethodNode node = ClassUtil.getMethod(reader, SKIP, name, desc);
+		MethodNode node = ClassUtil.getSkeletonMethod(reader, name, desc);
 		if(node == null)
 			return null;
 		// Create header
@@ -636,6 +637,18 @@ public class ContextBuilder {
 			);
 
 		}
+		// Allow loading archives bundled in the resource as libraries
+		if (isWorkspaceTree() && resource != null) {
+			NestedArchiveResource nested = resource.getNestedArchive(name);
+			Workspace workspace = controller.getWorkspace();
+			if (nested != null && !workspace.getLibraries().contains(nested)) {
+				MenuItem addLib = new ActionMenuItem(LangUtil.translate("ui.menubar.file.addlib"), () -> {
+					workspace.getLibraries().add(nested);
+					controller.windows().getMainWindow().getNavigator().refresh();
+				});
+				menu.getItems().addAll(new SeparatorMenuItem(), addLib);
+			}
+		}
 		// Inject plugin menus
 		plugins.ofType(ContextMenuInjectorPlugin.class).forEach(injector -> injector.forFile(this, menu, name));
 		return menu;
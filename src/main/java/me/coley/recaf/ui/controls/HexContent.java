@@ -0,0 +1,114 @@
+package me.coley.recaf.ui.controls;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Content of a {@link HexEditor}. The original array is never modified, edits are kept as an
+ * overlay of changed bytes so that large content does not need to be copied on each edit.
+ *
+ * @author Matt
+ */
+public class HexContent {
+	private final byte[] base;
+	private final Map<Integer, Byte> edits = new HashMap<>();
+	private byte[] patched;
+
+	/**
+	 * @param base
+	 * 		Original content.
+	 */
+	public HexContent(byte[] base) {
+		this.base = base;
+	}
+
+	/**
+	 * @return Number of bytes in the content.
+	 */
+	public int length() {
+		return base.length;
+	}
+
+	/**
+	 * @param index
+	 * 		Offset in the content.
+	 *
+	 * @return Byte at the offset, including edits.
+	 */
+	public byte get(int index) {
+		if (!edits.isEmpty()) {
+			Byte value = edits.get(index);
+			if (value != null)
+				return value;
+		}
+		return base[index];
+	}
+
+	/**
+	 * @param index
+	 * 		Offset in the content.
+	 * @param value
+	 * 		New value of the byte at the offset.
+	 */
+	public void set(int index, byte value) {
+		if (base[index] == value)
+			edits.remove(index);
+		else
+			edits.put(index, value);
+		patched = null;
+	}
+
+	/**
+	 * @return {@code true} when any byte differs from the original content.
+	 */
+	public boolean isModified() {
+		return !edits.isEmpty();
+	}
+
+	/**
+	 * @return Content with edits applied. The original array is returned if there are no edits.
+	 * The returned array should not be modified.
+	 */
+	public byte[] toArray() {
+		if (edits.isEmpty())
+			return base;
+		// Reused until the next edit
+		if (patched == null) {
+			patched = Arrays.copyOf(base, base.length);
+			edits.forEach((index, value) -> patched[index] = value);
+		}
+		return patched;
+	}
+
+	/**
+	 * @param pattern
+	 * 		Bytes to search for.
+	 * @param from
+	 * 		Offset to start searching at.
+	 *
+	 * @return Offset of the first occurrence of the pattern at or after the start offset,
+	 * or {@code -1} if there is none.
+	 */
+	public int indexOf(byte[] pattern, int from) {
+		byte[] content = toArray();
+		int length = pattern.length;
+		if (length == 0)
+			return -1;
+		// Boyer-Moore-Horspool, skipping ahead by the distance of the last byte of the window
+		// to its last occurrence in the pattern.
+		int[] shifts = new int[256];
+		Arrays.fill(shifts, length);
+		for (int i = 0; i < length - 1; i++)
+			shifts[pattern[i] & 0xFF] = length - 1 - i;
+		int offset = Math.max(from, 0);
+		while (offset <= content.length - length) {
+			int i = length - 1;
+			while (content[offset + i] == pattern[i])
+				if (i-- == 0)
+					return offset;
+			offset += shifts[content[offset + length - 1] & 0xFF];
+		}
+		return -1;
+	}
+}
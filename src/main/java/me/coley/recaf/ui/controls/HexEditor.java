@@ -3,19 +3,27 @@ package me.coley.recaf.ui.controls;
 import javafx.application.Platform;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.*;
 import javafx.collections.*;
 import javafx.beans.property.*;
 import javafx.util.Callback;
 import javafx.util.converter.DefaultStringConverter;
+import me.coley.recaf.Recaf;
+import me.coley.recaf.control.Controller;
 import me.coley.recaf.util.ThreadUtil;
 
+import java.awt.Toolkit;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.function.Consumer;
 
 /**
  * Hex editor control.
+ * <br>
+ * Only the visible rows are rendered, and edits are kept in a {@link HexContent} overlay
+ * rather than in the given array.
  *
  * @author Matt
  */
@@ -29,15 +37,16 @@ public class HexEditor extends BorderPane {
 	private final TableViewExtra<?> tveContent = new TableViewExtra<>(contentTable);
 	private final TableViewExtra<?> tveOffset = new TableViewExtra<>(offsetTable);
 	private final TableViewExtra<?> tveText = new TableViewExtra<>(textTable);
-	private byte[] content;
-	private Consumer<byte[]> contentCallback;
+	private final TextField search = new TextField();
+	private final HexContent content;
+	private int lastMatch = -1;
 
 	/**
 	 * @param array
 	 * 		Content to edit.
 	 */
 	public HexEditor(byte[] array) {
-		content = array;
+		content = new HexContent(array);
 		DummyList dummy = new DummyList();
 		TableColumn<Integer, String> offsetColumn = new TableColumn<>("Offset");
 		TableColumn<Integer, String> textColumn = new TableColumn<>("Text");
@@ -53,9 +62,9 @@ public class HexEditor extends BorderPane {
 			int row = cellData.getValue();
 			StringBuilder sb = new StringBuilder();
 			for (int i = row * COLS_PER_LINE; i < ((row + 1) * COLS_PER_LINE); i++){
-				if(i >= content.length)
+				if(i >= content.length())
 					break;
-				char c = (char) content[i];
+				char c = (char) content.get(i);
 				// http://www.techdictionary.com/ascii.html
 				// - 0x20: space
 				// - 0x7E: tilde
@@ -90,7 +99,7 @@ public class HexEditor extends BorderPane {
 					// Update array
 					int index = (e.getRowValue() * COLS_PER_LINE) + columnCopy;
 					byte value = unhex(text);
-					updateContent(index, value);
+					content.set(index, value);
 				}
 				// Update table
 				refresh();
@@ -99,7 +108,7 @@ public class HexEditor extends BorderPane {
 			contentColumn.setCellValueFactory(cellData -> {
 				int row = cellData.getValue();
 				int index = (row * COLS_PER_LINE) + columnCopy;
-				int value = index >= content.length ? INVALID : content[index];
+				int value = index >= content.length() ? INVALID : content.get(index);
 				if(value == INVALID)
 					return new SimpleStringProperty();
 				return new SimpleStringProperty(hex(value));
@@ -147,6 +156,7 @@ public class HexEditor extends BorderPane {
 		setCenter(contentTable);
 		setLeft(offsetTable);
 		setRight(textTable);
+		setupSearch();
 		// Register a refresh so the elements are resized properly
 		// - JavaFX bug, and yes that delay is needed.
 		ThreadUtil.runJfxDelayed(100, () -> {
@@ -156,30 +166,16 @@ public class HexEditor extends BorderPane {
 		});
 	}
 
-	private void updateContent(int index, byte value) {
-		content[index] = value;
-		if (contentCallback != null)
-			contentCallback.accept(content);
-	}
-
 	private void refresh() {
 		contentTable.refresh();
 		textTable.refresh();
 	}
 
 	/**
-	 * @param contentCallback
-	 * 		Called when the content is modified.
-	 */
-	public void setContentCallback(Consumer<byte[]> contentCallback) {
-		this.contentCallback = contentCallback;
-	}
-
-	/**
-	 * @return Array being modified.
+	 * @return Content with edits applied.
 	 */
 	public byte[] getContent() {
-		return content;
+		return content.toArray();
 	}
 
 	/**
@@ -190,6 +186,61 @@ public class HexEditor extends BorderPane {
 		contentTable.setEditable(editable);
 	}
 
+	// ========================= SEARCH ========================== //
+
+	private void setupSearch() {
+		search.getStyleClass().add("search-field");
+		search.setOnAction(e -> findNext(search.getText()));
+		search.setOnKeyPressed(e -> {
+			if (e.getCode() == KeyCode.ESCAPE) {
+				// Escape -> Hide field
+				search.clear();
+				setBottom(null);
+				contentTable.requestFocus();
+			}
+		});
+		addEventFilter(KeyEvent.KEY_PRESSED, e -> {
+			Controller controller = Recaf.getController();
+			if (controller != null && controller.config().keys().find.match(e)) {
+				setBottom(search);
+				search.requestFocus();
+				search.selectAll();
+			}
+		});
+	}
+
+	/**
+	 * Select the next occurrence of the pattern, wrapping around to the start of the content.
+	 *
+	 * @param pattern
+	 * 		Hex bytes such as {@code CAFEBABE}, otherwise text to search for.
+	 */
+	private void findNext(String pattern) {
+		String hex = pattern.replaceAll("\\s+", "").toUpperCase();
+		byte[] bytes;
+		if (!hex.isEmpty() && hex.length() % 2 == 0 && hex.chars().allMatch(c -> isHex((char) c))) {
+			bytes = new byte[hex.length() / 2];
+			for (int i = 0; i < bytes.length; i++)
+				bytes[i] = unhex(hex.substring(i * 2, i * 2 + 2));
+		} else {
+			bytes = pattern.getBytes(StandardCharsets.UTF_8);
+		}
+		int match = content.indexOf(bytes, lastMatch + 1);
+		if (match < 0)
+			match = content.indexOf(bytes, 0);
+		if (match < 0) {
+			Toolkit.getDefaultToolkit().beep();
+			return;
+		}
+		lastMatch = match;
+		int row = match / COLS_PER_LINE;
+		TableColumn<Integer, ?> column = contentTable.getColumns().get(match % COLS_PER_LINE);
+		contentTable.getSelectionModel().clearAndSelect(row, column);
+		contentTable.getFocusModel().focus(row, column);
+		contentTable.scrollTo(row);
+		syncFromContent();
+	}
+
 	// ================= SCROLL SYNCHRONIZATION ================== //
 
 	private void syncFromContent() {
@@ -220,9 +271,11 @@ public class HexEditor extends BorderPane {
 	// ======================== HEX UTILS ======================== //
 
 	private static boolean isHex(String text) {
-		return  text.length() == 2 &&
-				Arrays.binarySearch(HEX_ARRAY, text.charAt(0)) >= 0 &&
-				Arrays.binarySearch(HEX_ARRAY, text.charAt(1)) >= 0;
+		return  text.length() == 2 && isHex(text.charAt(0)) && isHex(text.charAt(1));
+	}
+
+	private static boolean isHex(char c) {
+		return Arrays.binarySearch(HEX_ARRAY, c) >= 0;
 	}
 
 	private static String hex(int value) {
@@ -248,7 +301,7 @@ public class HexEditor extends BorderPane {
 		public int size() {
 			// We add DUMMY_PAD_LINES to the actual length so the table has a final "dummy" line.
 			// This allows the entire table to be visible with out scroll sync hack.
-			return DUMMY_PAD_LINES + (int) Math.ceil(content.length / (double) COLS_PER_LINE);
+			return DUMMY_PAD_LINES + (int) Math.ceil(content.length() / (double) COLS_PER_LINE);
 		}
 
 		@Override
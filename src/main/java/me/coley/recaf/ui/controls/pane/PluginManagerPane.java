@@ -71,7 +71,7 @@ public class PluginManagerPane extends BorderPane {
 		CheckBox chkEnabled = new CheckBox(LangUtil.translate("misc.enabled"));
 		chkEnabled.setSelected(manager.getPluginStates().get(plugin.getName()));
 		chkEnabled.selectedProperty()
-				.addListener((ob, o, n) -> manager.getPluginStates().put(plugin.getName(), n));
+				.addListener((ob, o, n) -> manager.setPluginState(plugin.getName(), n));
 		horizontal.getChildren().add(chkEnabled);
 		box.getChildren().add(horizontal);
 		return pane;
@@ -33,6 +33,7 @@ public class BytecodeEditorPane extends EditorPane<BytecodeErrorHandling, Byteco
 	private BytecodeStackHelper stackHelper;
 	private BytecodeLocalHelper localHelper;
 	private IconView errorGraphic;
+	private final IncrementalParser parser = new IncrementalParser();
 	private ParseResult<RootAST> lastParse;
 	protected final String className;
 	protected final boolean isMethod;
@@ -67,7 +68,7 @@ public class BytecodeEditorPane extends EditorPane<BytecodeErrorHandling, Byteco
 			currentField = null;
 			currentMethod = null;
 			// Setup assembler & context handling
-			ParseResult<RootAST> result = Parse.parse(getText());
+			ParseResult<RootAST> result = parser.parse(getText());
 			if (result.isSuccess())
 				contextHandler.setAST(result.getRoot());
 			lastParse = result;
@@ -155,24 +156,24 @@ public class BytecodeEditorPane extends EditorPane<BytecodeErrorHandling, Byteco
 			int flags = ClassReader.SKIP_FRAMES;
 			if (controller.config().assembler().stripDebug)
 				flags |= ClassReader.SKIP_DEBUG;
-			MethodNode method = ClassUtil.getMethod(cr, flags, memberName, memberDesc);
-			if(method == null) {
-				setEditable(false);
-				setText("# Failed to fetch method: " + className + "." + memberName + memberDesc);
-				forgetHistory();
-				return false;
-			}
+			String text;
 			try {
-				Disassembler disassembler = new Disassembler();
-				setText(disassembler.disassemble(method));
-				forgetHistory();
-				return true;
+				text = DisassemblyCache.disassemble(cr, flags, memberName, memberDesc);
 			} catch(Exception ex) {
 				setText("# Failed to disassemble method: " + className + "." + memberName + memberDesc);
 				Log.error(ex, "Failed disassembly of '{}.{}{}'\nReason: ", className,
 						memberName, memberDesc, ex.getMessage());
 				return false;
 			}
+			if(text == null) {
+				setEditable(false);
+				setText("# Failed to fetch method: " + className + "." + memberName + memberDesc);
+				forgetHistory();
+				return false;
+			}
+			setText(text);
+			forgetHistory();
+			return true;
 		} else {
 			FieldNode field = ClassUtil.getField(cr, ClassReader.SKIP_FRAMES, memberName, memberDesc);
 			if(field == null) {
@@ -6,11 +6,9 @@ import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.control.SplitPane;
 import javafx.scene.layout.BorderPane;
-import me.coley.analysis.SimInterpreter;
 import me.coley.analysis.value.AbstractValue;
 import me.coley.analysis.value.NullConstantValue;
 import me.coley.analysis.value.UninitializedValue;
-import me.coley.recaf.parse.bytecode.MethodAnalyzer;
 import me.coley.recaf.parse.bytecode.MethodAssembler;
 import me.coley.recaf.ui.controls.IconView;
 import me.coley.recaf.util.*;
@@ -101,7 +99,8 @@ public class BytecodeStackHelper extends SplitPane {
 		// Skip abstract methods
 		if (AccessFlag.isAbstract(assembler.getLastCompile().access))
 			return;
-		Frame<AbstractValue>[] frames = getFrames();
+		// Frames are cached by the assembler, generated on demand when verification is disabled
+		Frame<AbstractValue>[] frames = assembler.getFrames();
 		if (frames == null) {
 			if (isVerifyDisabled()) {
 				// TODO: Warn user that verification is disabled. Enable it for more information.
@@ -128,24 +127,6 @@ public class BytecodeStackHelper extends SplitPane {
 		});
 	}
 
-	/**
-	 * @return Method frames.
-	 */
-	private Frame<AbstractValue>[] getFrames() {
-		Frame<AbstractValue>[] frames = assembler.getFrames();
-		if (frames == null && isVerifyDisabled()) {
-			// Generate the frames since the assembler didn't.
-			try {
-				MethodAnalyzer analyzer = new MethodAnalyzer(new SimInterpreter());
-				analyzer.setSkipDeadCodeBlocks(false);
-				frames = analyzer.analyze(assembler.getDeclaringType(), assembler.getLastCompile());
-			} catch(Throwable t) {
-				// We will allow failures. Users should enable verification for more information.
-			}
-		}
-		return frames;
-	}
-
 	/**
 	 * @return {@code true} when the user has assembly verification disabled/
 	 */
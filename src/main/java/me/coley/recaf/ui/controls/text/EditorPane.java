@@ -14,7 +14,7 @@ import javafx.scene.shape.Polygon;
 import me.coley.recaf.control.gui.GuiController;
 import me.coley.recaf.ui.controls.SearchBar;
 import me.coley.recaf.ui.controls.text.model.*;
-import me.coley.recaf.util.ThreadUtil;
+import me.coley.recaf.util.DebouncedRunner;
 import me.coley.recaf.util.struct.Pair;
 import org.fxmisc.flowless.VirtualizedScrollPane;
 import org.fxmisc.richtext.CodeArea;
@@ -37,6 +37,7 @@ import java.util.function.*;
  * @author Matt
  */
 public class EditorPane<E extends ErrorHandling, C extends ContextHandling> extends BorderPane {
+	private static final int UPDATE_DELAY = 50;
 	protected final GuiController controller;
 	protected final CodeArea codeArea = new CodeArea();
 	protected final C contextHandler;
@@ -44,8 +45,11 @@ public class EditorPane<E extends ErrorHandling, C extends ContextHandling> exte
 	protected final ErrorList errorList = new ErrorList(this);
 	protected final SplitPane split;
 	private final SearchBar search = new SearchBar(codeArea::getText);
+	private final DebouncedRunner updates = new DebouncedRunner(UPDATE_DELAY);
 	private Consumer<String> onCodeChange;
 	private E errHandler;
+	private int changeStart = -1;
+	private int changeEnd;
 
 	/**
 	 * @param controller
@@ -94,11 +98,34 @@ public class EditorPane<E extends ErrorHandling, C extends ContextHandling> exte
 		codeArea.richChanges()
 				.filter(ch -> !ch.isPlainTextIdentity())
 				.filter(ch -> !ch.getInserted().equals(ch.getRemoved()))
-				.subscribe(change -> ThreadUtil.runSupplyConsumer(() -> {
-					if(onCodeChange != null)
-						onCodeChange.accept(codeArea.getText());
-					return styler.computeStyle(codeArea.getText());
-				}, computedStyle -> codeArea.setStyleSpans(0, computedStyle)));
+				.subscribe(change -> {
+					markChanged(change.getPosition(), change.getRemovalEnd(), change.getInsertionEnd());
+					// Capture the text on the FX thread, the background run may outlive further edits
+					String text = codeArea.getText();
+					int start = changeStart;
+					int end = changeEnd;
+					updates.submit(version -> {
+						if(onCodeChange != null)
+							onCodeChange.accept(text);
+						if(updates.isStale(version))
+							return;
+						StyleUpdate update = styler.computeUpdate(text, start, end);
+						Platform.runLater(() -> {
+							// Only apply styles matching the current text
+							if(updates.isStale(version))
+								return;
+							if(update != null) {
+								// Error highlighting is cleared by restyling everything, as a full restyle used to
+								if(errHandler != null && errHandler.hasErrors())
+									codeArea.setStyleSpans(0, styler.computeStyle(update));
+								else
+									codeArea.setStyleSpans(update.getStart(), update.getSpans());
+								styler.commit(update);
+							}
+							changeStart = -1;
+						});
+					});
+				});
 		// So, tabs are hard-coded to be 8-characters wide visually until JavaFX 14
 		// Its not great, but using 4 actual spaces is a good enough solution.
 		InputMap<KeyEvent> im = InputMap.consume(
@@ -108,6 +135,26 @@ public class EditorPane<E extends ErrorHandling, C extends ContextHandling> exte
 		Nodes.addInputMap(codeArea, im);
 	}
 
+	/**
+	 * Extend the range of text edited since styles were last applied.
+	 *
+	 * @param position
+	 * 		Start of the edit.
+	 * @param removalEnd
+	 * 		End of the removed text, prior to the edit.
+	 * @param insertionEnd
+	 * 		End of the inserted text, after the edit.
+	 */
+	private void markChanged(int position, int removalEnd, int insertionEnd) {
+		if(changeStart < 0) {
+			changeStart = position;
+			changeEnd = insertionEnd;
+		} else {
+			changeStart = Math.min(changeStart, position);
+			changeEnd = changeEnd >= removalEnd ? changeEnd + insertionEnd - removalEnd : insertionEnd;
+		}
+	}
+
 	private void setupSearch() {
 		setOnKeyPressed(e -> {
 			if(controller.config().keys().find.match(e)) {
@@ -6,7 +6,7 @@ import javafx.application.Platform;
 import javafx.geometry.Point2D;
 import javafx.scene.Node;
 import javafx.scene.control.*;
-import me.coley.recaf.util.ThreadUtil;
+import me.coley.recaf.util.DebouncedRunner;
 import me.coley.recaf.util.struct.Errorable;
 import me.coley.recaf.util.struct.Pair;
 import org.fxmisc.richtext.CodeArea;
@@ -14,7 +14,6 @@ import org.fxmisc.richtext.event.MouseOverTextEvent;
 
 import java.lang.reflect.Field;
 import java.util.*;
-import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -26,7 +25,7 @@ public abstract class ErrorHandling {
 	private static final double DEFAULT_ERROR_DISPLAY_PERCENT = 0.84;
 	private static final int UPDATE_DELAY = 500;
 	protected final CodeArea codeArea;
-	private Future<?> updateThread;
+	private final DebouncedRunner updates = new DebouncedRunner(UPDATE_DELAY);
 	private List<Pair<Integer, String>> oldProblems = Collections.emptyList();
 	private List<Pair<Integer, String>> problems = Collections.emptyList();
 	private ListView<Pair<Integer, String>> errorList;
@@ -83,18 +82,19 @@ public abstract class ErrorHandling {
 	public void onCodeChange(Errorable<?> errorable) {
 		// Because we need to clear old handlers for error-hover-messages
 		clearOldEvents();
-		// Check if new update thread needs to be spawned
-		if (updateThread != null)
-			updateThread.cancel(true);
-		updateThread = ThreadUtil.runDelayed(UPDATE_DELAY, () -> {
+		// Coalesce rapid changes, and drop the results of runs made obsolete by newer changes
+		updates.submit(version -> {
 			Platform.runLater(this::refreshProblemGraphics);
+			Throwable error = null;
 			try {
 				// Attempt to run
 				errorable.run();
-				handleCodeChangeError(null);
 			} catch(Throwable ex) {
-				handleCodeChangeError(ex);
+				error = ex;
 			}
+			if (updates.isStale(version))
+				return;
+			handleCodeChangeError(error);
 			Platform.runLater(this::refreshProblemGraphics);
 		});
 		// Reset line items
@@ -21,8 +21,8 @@ import java.util.Optional;
  */
 public class JavaDocHandling {
 	private final JavaEditorPane pane;
-	private final SymbolResolver solver;
-	private final SourceCode code;
+	private final GuiController controller;
+	private SourceCode code;
 	private Point2D last;
 
 	/**
@@ -30,17 +30,10 @@ public class JavaDocHandling {
 	 * 		Pane to handle JavaDoc on.
 	 * @param controller
 	 * 		Controller to pull docs from.
-	 * @param code
-	 * 		Analyzed code.
 	 */
-	public JavaDocHandling(JavaEditorPane pane, GuiController controller, SourceCode code) {
+	public JavaDocHandling(JavaEditorPane pane, GuiController controller) {
 		this.pane = pane;
-		// Fetch the solver so we can call it manually (see below for why)
-		Optional<SymbolResolver> optSolver = controller.getWorkspace().getSourceParseConfig().getSymbolResolver();
-		if (!optSolver.isPresent())
-			throw new IllegalStateException("");
-		this.solver = optSolver.get();
-		this.code = code;
+		this.controller = controller;
 		// Set mouse-over event
 		pane.codeArea.addEventHandler(MouseOverTextEvent.MOUSE_OVER_TEXT_BEGIN, e -> {
 			last = e.getScreenPosition();
@@ -65,7 +58,22 @@ public class JavaDocHandling {
 	}
 
 	protected Object getSelection(TwoDimensional.Position pos) {
-		return JavaParserUtil.getSelection(code, solver, pos);
+		if (code == null)
+			return null;
+		// Fetch the solver so we can call it manually (see above for why).
+		// Fetched per call since the handler outlives the workspace's current parser config.
+		Optional<SymbolResolver> optSolver = controller.getWorkspace().getSourceParseConfig().getSymbolResolver();
+		if (!optSolver.isPresent())
+			throw new IllegalStateException("");
+		return JavaParserUtil.getSelection(code, optSolver.get(), pos);
+	}
+
+	/**
+	 * @param code
+	 * 		Analyzed code to resolve hovered text against.
+	 */
+	public void setCode(SourceCode code) {
+		this.code = code;
 	}
 
 	private void handleClassType(GuiController controller, ClassSelection selection) {
@@ -15,8 +15,6 @@ import me.coley.recaf.util.*;
 import me.coley.recaf.workspace.*;
 
 import javax.tools.ToolProvider;
-import java.io.File;
-import java.io.IOException;
 import java.util.*;
 
 /**
@@ -29,7 +27,7 @@ public class JavaEditorPane extends EditorPane<JavaErrorHandling, JavaContextHan
 	public static final int HOVER_DOC_TIME = 700;
 	private final JavaResource resource;
 	private SourceCode code;
-	private JavaDocHandling docHandler;
+	private final JavaDocHandling docHandler;
 
 	/**
 	 * @param controller
@@ -52,6 +50,7 @@ public class JavaEditorPane extends EditorPane<JavaErrorHandling, JavaContextHan
 	public JavaEditorPane(GuiController controller, JavaResource resource, String initialText) {
 		super(controller, Languages.find("java"), JavaContextHandling::new);
 		this.resource = resource;
+		this.docHandler = new JavaDocHandling(this, controller);
 		if (initialText != null)
 			setText(initialText);
 		setErrorHandler(new JavaErrorHandling(this));
@@ -68,18 +67,18 @@ public class JavaEditorPane extends EditorPane<JavaErrorHandling, JavaContextHan
 		code = new SourceCode(resource, getText());
 		try {
 			code.analyze(controller.getWorkspace());
-			docHandler = new JavaDocHandling(this, controller, code);
+			docHandler.setCode(code);
 			contextHandler.setCode(code);
 		} catch (SourceCodeException e) {
 			if (JavaParserUtil.isCompilationUnitParseable(code.getUnit())) {  // Also accept partial result
-				docHandler = new JavaDocHandling(this, controller, code);
+				docHandler.setCode(code);
 				contextHandler.setCode(code);
 			} else if (contextHandler.getCode() == null) {  // If the code has never been parsed successfully before now
 				ParseResult<CompilationUnit> parseResult = code.analyzeFiltered(controller.getWorkspace(),
 						e.getResult().getProblems());
 				if (parseResult.isSuccessful() || parseResult.getResult()
 						.filter(JavaParserUtil::isCompilationUnitParseable).isPresent()) {
-					docHandler = new JavaDocHandling(this, controller, code);
+					docHandler.setCode(code);
 					contextHandler.setCode(code);
 
 					// We've got the basics parsed and working. Time to reset the unit back to
@@ -104,15 +103,9 @@ public class JavaEditorPane extends EditorPane<JavaErrorHandling, JavaContextHan
 	public Map<String, byte[]> save(String name) {
 		if (!canCompile())
 			throw new UnsupportedOperationException("Recompilation not supported in read-only mode");
-		List<String> path = null;
-		try {
-			path = getClassPath();
-		} catch(IOException e) {
-			throw new IllegalStateException("Failed writing temp resources before compiling");
-		}
 		int version = ClassUtil.getVersion(resource.getClasses().get(name));
 		JavacCompiler javac = new JavacCompiler();
-		javac.setClassPath(path);
+		javac.setClassPathResources(getClassPathResources());
 		javac.addUnit(name, getText());
 		javac.options().lineNumbers = true;
 		javac.options().variables = true;
@@ -156,38 +149,17 @@ public class JavaEditorPane extends EditorPane<JavaErrorHandling, JavaContextHan
 	}
 
 	/**
-	 * @return Classpath from workspace.
+	 * @return Classpath resources from workspace.
 	 */
-	private List<String> getClassPath() throws IOException {
-		List<String> path = new ArrayList<>();
+	private List<JavaResource> getClassPathResources() {
+		Workspace workspace = controller.getWorkspace();
+		List<JavaResource> resources = new ArrayList<>();
 		// Reference the most up-to-date primary definitions
-		File temp = controller.getWorkspace().getTemporaryPrimaryDefinitionJar();
-		if(temp.exists())
-			path.add(temp.getAbsolutePath());
-		else
-			add(path, controller.getWorkspace().getPrimary());
+		resources.add(workspace.getPrimary());
 		// Add backing resources
-		for(JavaResource resource : controller.getWorkspace().getLibraries())
-			add(path, resource);
-		return path;
-	}
-
-	/**
-	 * Add the resource to the classpath.
-	 *
-	 * @param path
-	 * 		Classpath to build on.
-	 * @param resource
-	 * 		Resource to add.
-	 */
-	private void add(List<String> path, JavaResource resource) {
-		if (resource instanceof FileSystemResource) {
-			FileSystemResource fsr = (FileSystemResource) resource;
-			path.add(IOUtil.toString(fsr.getPath()));
-		} else if (resource instanceof DeferringResource) {
-			JavaResource deferred = ((DeferringResource) resource).getBacking();
-			add(path, deferred);
-		}
+		resources.addAll(workspace.getLibraries());
+		resources.add(workspace.getPhantoms());
+		return resources;
 	}
 
 	/**
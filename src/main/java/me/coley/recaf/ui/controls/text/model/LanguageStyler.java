@@ -15,7 +15,12 @@ import java.util.*;
  * @author Matt
  */
 public class LanguageStyler {
+	private static final String REGEX_SYNTAX = "[](){}?*+|^$.";
 	private Language language;
+	private final Pattern pattern;
+	private final int[] groups;
+	private final String delimiters;
+	private StyleUpdate last;
 
 	/**
 	 * @param language
@@ -25,6 +30,19 @@ public class LanguageStyler {
 		if(language == null)
 			throw new IllegalStateException("Language must not be null");
 		this.language = language;
+		this.pattern = createPattern();
+		// Dispatch on group index, looking up groups by name for each match is slow
+		List<Rule> rules = getRules();
+		this.groups = new int[rules.size()];
+		StringBuilder delimiters = new StringBuilder();
+		for(int i = 0; i < groups.length; i++) {
+			Rule rule = rules.get(i);
+			Integer id = pattern.groupId(rule.getPatternGroupName());
+			groups[i] = id == null ? -1 : id;
+			if(isMultiLine(rule.getPattern()))
+				delimiters.append(getLiterals(rule.getPattern()));
+		}
+		this.delimiters = delimiters.toString();
 	}
 
 	/**
@@ -34,31 +52,83 @@ public class LanguageStyler {
 	 * @return Stylized regions of the text <i>(via css tags)</i>.
 	 */
 	public StyleSpans<Collection<String>> computeStyle(String text) {
-		Matcher matcher = getPattern().matcher(text);
-		int lastKwEnd = 0;
-		StyleSpansBuilder<Collection<String>> spansBuilder = new StyleSpansBuilder<>();
-		try {
-			while(matcher.find()) {
-				String styleClass = getClassFromGroup(matcher);
-				if(styleClass == null)
-					styleClass = "text";
-				spansBuilder.add(Collections.emptyList(), matcher.start() - lastKwEnd);
-				spansBuilder.add(Collections.singleton(styleClass), matcher.end() - matcher.start());
-				lastKwEnd = matcher.end();
-			}
-		} catch(NullPointerException npe) {
-			// There was once some odd behavior in 'matcher.find()' which caused NPE...
-			// This seems to have been fixed, but we will check for regressions
-			Log.error(npe, "Error occurred when computing styles:");
+		return scan(text, 0, null, 0, 0, 0).getSpans();
+	}
+
+	/**
+	 * @param update
+	 * 		Prior update.
+	 *
+	 * @return Stylized regions of the whole text of the update, from the tokens it recorded.
+	 */
+	public StyleSpans<Collection<String>> computeStyle(StyleUpdate update) {
+		return toSpans(update.starts, update.ends, update.kinds, 0, update.count, 0, update.text.length());
+	}
+
+	/**
+	 * Compute the styles of the given text incrementally. Only the lines that changed since the
+	 * last {@link #commit(StyleUpdate) committed} update are matched again, extended to the start of any
+	 * token spanning them, such as block comments. Changes to characters that may open or close
+	 * a multi-line token restyle the whole text.
+	 *
+	 * @param text
+	 * 		Text to apply styles to.
+	 * @param changeStart
+	 * 		Start of the range of the text edited since the last committed update.
+	 * @param changeEnd
+	 * 		End of the range of the text edited since the last committed update.
+	 *
+	 * @return Stylized region of the text that changed. {@code null} if the text is unchanged.
+	 */
+	public synchronized StyleUpdate computeUpdate(String text, int changeStart, int changeEnd) {
+		StyleUpdate base = last;
+		if(base == null)
+			return scan(text, 0, null, 0, 0, 0);
+		String old = base.text;
+		if(changeStart >= changeEnd && old.equals(text))
+			return null;
+		// Find the changed region. Edits that were undone since still need their styles restored.
+		int oldLen = old.length();
+		int newLen = text.length();
+		int max = Math.min(oldLen, newLen);
+		int prefix = 0;
+		int maxPrefix = Math.min(max, changeStart);
+		while(prefix < maxPrefix && old.charAt(prefix) == text.charAt(prefix))
+			prefix++;
+		int suffix = 0;
+		int maxSuffix = Math.min(max - prefix, newLen - changeEnd);
+		while(suffix < maxSuffix && old.charAt(oldLen - 1 - suffix) == text.charAt(newLen - 1 - suffix))
+			suffix++;
+		if(hasDelimiter(old, prefix, oldLen - suffix) || hasDelimiter(text, prefix, newLen - suffix))
+			return scan(text, 0, null, 0, 0, 0);
+		// Restart at a line start outside of any prior token
+		int restart = lineStart(text, prefix);
+		int first = firstEndingAfter(base, restart);
+		while(first < base.count && base.starts[first] < restart) {
+			restart = lineStart(text, base.starts[first]);
+			first = firstEndingAfter(base, restart);
 		}
-		spansBuilder.add(Collections.emptyList(), text.length() - lastKwEnd);
-		return spansBuilder.create();
+		return scan(text, restart, base, first, newLen - suffix, newLen - oldLen);
+	}
+
+	/**
+	 * Mark an update as applied to the styled text. The next update is computed against it.
+	 *
+	 * @param update
+	 * 		Update from {@link #computeUpdate(String, int, int)}.
+	 */
+	public synchronized void commit(StyleUpdate update) {
+		last = update;
 	}
 
 	/**
 	 * @return Compiled regex pattern from {@link #getRules() all existing rules}.
 	 */
 	public Pattern getPattern() {
+		return pattern;
+	}
+
+	private Pattern createPattern() {
 		if(getRules().isEmpty())
 			return RegexUtil.pattern("({EMPTY}EMPTY)");
 		StringBuilder sb = new StringBuilder();
@@ -75,17 +145,181 @@ public class LanguageStyler {
 	}
 
 	/**
-	 * Fetch the CSS class name to use based on the matched group.
+	 * Match tokens from the given position until the end of the text, or until the matches line up
+	 * with the tokens of the prior update.
+	 *
+	 * @param text
+	 * 		Text to apply styles to.
+	 * @param restart
+	 * 		Position to start matching at.
+	 * @param base
+	 * 		Prior update, {@code null} to match the whole text.
+	 * @param first
+	 * 		Index of the first token of the prior update to replace.
+	 * @param changeEnd
+	 * 		End of the changed region in the text.
+	 * @param delta
+	 * 		Difference in length of the text and the text of the prior update.
+	 *
+	 * @return Update of the matched region.
+	 */
+	private StyleUpdate scan(String text, int restart, StyleUpdate base, int first, int changeEnd, int delta) {
+		int size = base == null ? 16 : base.count + 16;
+		int[] starts = new int[size];
+		int[] ends = new int[size];
+		int[] kinds = new int[size];
+		int count = 0;
+		if(base != null) {
+			System.arraycopy(base.starts, 0, starts, 0, first);
+			System.arraycopy(base.ends, 0, ends, 0, first);
+			System.arraycopy(base.kinds, 0, kinds, 0, first);
+			count = first;
+		}
+		int synced = -1;
+		Matcher matcher = pattern.matcher(text);
+		if(restart > 0)
+			matcher.setPosition(restart);
+		try {
+			while(matcher.find()) {
+				int start = matcher.start();
+				int end = matcher.end();
+				int kind = getRuleFromGroup(matcher);
+				// Past the change, once a match lines up with a prior one the rest of the text matches as before
+				if(base != null && start >= changeEnd) {
+					int prior = Arrays.binarySearch(base.starts, 0, base.count, start - delta);
+					if(prior >= 0 && base.ends[prior] == end - delta && base.kinds[prior] == kind) {
+						synced = prior;
+						break;
+					}
+				}
+				if(count == starts.length) {
+					starts = Arrays.copyOf(starts, count * 2);
+					ends = Arrays.copyOf(ends, count * 2);
+					kinds = Arrays.copyOf(kinds, count * 2);
+				}
+				starts[count] = start;
+				ends[count] = end;
+				kinds[count] = kind;
+				count++;
+			}
+		} catch(NullPointerException npe) {
+			// There was once some odd behavior in 'matcher.find()' which caused NPE...
+			// This seems to have been fixed, but we will check for regressions
+			Log.error(npe, "Error occurred when computing styles:");
+		}
+		int matched = count;
+		int end = text.length();
+		if(synced >= 0) {
+			// Keep the remaining prior tokens, shifted by the change in length
+			end = base.starts[synced] + delta;
+			int remaining = base.count - synced;
+			if(count + remaining > starts.length) {
+				starts = Arrays.copyOf(starts, count + remaining);
+				ends = Arrays.copyOf(ends, count + remaining);
+				kinds = Arrays.copyOf(kinds, count + remaining);
+			}
+			for(int i = synced; i < base.count; i++) {
+				starts[count] = base.starts[i] + delta;
+				ends[count] = base.ends[i] + delta;
+				kinds[count] = base.kinds[i];
+				count++;
+			}
+		}
+		StyleSpans<Collection<String>> spans = toSpans(starts, ends, kinds, first, matched, restart, end);
+		return new StyleUpdate(text, starts, ends, kinds, count, restart, spans);
+	}
+
+	private StyleSpans<Collection<String>> toSpans(int[] starts, int[] ends, int[] kinds,
+												   int from, int to, int start, int end) {
+		List<Rule> rules = getRules();
+		int lastKwEnd = start;
+		StyleSpansBuilder<Collection<String>> spansBuilder = new StyleSpansBuilder<>();
+		for(int i = from; i < to; i++) {
+			String styleClass = kinds[i] < 0 ? "text" : rules.get(kinds[i]).getName();
+			spansBuilder.add(Collections.emptyList(), starts[i] - lastKwEnd);
+			spansBuilder.add(Collections.singleton(styleClass), ends[i] - starts[i]);
+			lastKwEnd = ends[i];
+		}
+		spansBuilder.add(Collections.emptyList(), end - lastKwEnd);
+		return spansBuilder.create();
+	}
+
+	/**
+	 * Fetch the rule to use based on the matched group.
 	 *
 	 * @param matcher
 	 * 		Matcher that has found a group.
 	 *
-	 * @return CSS class name <i>(Raw name of regex rule)</i>
+	 * @return Index of the matched rule, {@code -1} if no rule group matched.
 	 */
-	private String getClassFromGroup(Matcher matcher) {
-		for(Rule rule : getRules())
-			if(matcher.group(rule.getPatternGroupName()) != null)
-				return rule.getName();
-		return null;
+	private int getRuleFromGroup(Matcher matcher) {
+		for(int i = 0; i < groups.length; i++)
+			if(groups[i] >= 0 && matcher.isCaptured(groups[i]))
+				return i;
+		return -1;
+	}
+
+	private boolean hasDelimiter(String text, int from, int to) {
+		if(delimiters.isEmpty())
+			return false;
+		for(int i = from; i < to; i++)
+			if(delimiters.indexOf(text.charAt(i)) >= 0)
+				return true;
+		return false;
+	}
+
+	private static int firstEndingAfter(StyleUpdate update, int position) {
+		int low = 0;
+		int high = update.count;
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			if(update.ends[mid] > position)
+				high = mid;
+			else
+				low = mid + 1;
+		}
+		return low;
+	}
+
+	private static int lineStart(String text, int position) {
+		return position == 0 ? 0 : text.lastIndexOf('\n', position - 1) + 1;
+	}
+
+	/**
+	 * @param pattern
+	 * 		Rule pattern.
+	 *
+	 * @return {@code true} if the pattern may match across lines.
+	 */
+	private static boolean isMultiLine(String pattern) {
+		return pattern.contains("\\s") || pattern.contains("\\n") || pattern.contains("\\W") ||
+				pattern.contains("[^");
+	}
+
+	/**
+	 * @param pattern
+	 * 		Rule pattern.
+	 *
+	 * @return Literal symbol characters of the pattern, such as the delimiters of comments and strings.
+	 */
+	private static String getLiterals(String pattern) {
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			if(c == '\\' && i + 1 < pattern.length()) {
+				char next = pattern.charAt(++i);
+				if(!Character.isLetterOrDigit(next))
+					sb.append(next);
+			} else if(c == '(' && i + 1 < pattern.length() && pattern.charAt(i + 1) == '?') {
+				// Skip group syntax such as "(?:" and "(?<="
+				i++;
+				while(i + 1 < pattern.length() && "<=!:".indexOf(pattern.charAt(i + 1)) >= 0)
+					i++;
+			} else if(REGEX_SYNTAX.indexOf(c) < 0 && !Character.isLetterOrDigit(c) &&
+					!Character.isWhitespace(c) && c != '_') {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
 	}
 }
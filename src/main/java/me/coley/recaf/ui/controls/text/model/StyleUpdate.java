@@ -0,0 +1,53 @@
+package me.coley.recaf.ui.controls.text.model;
+
+import org.fxmisc.richtext.model.StyleSpans;
+
+import java.util.Collection;
+
+/**
+ * Styles of a region of text that changed, computed by {@link LanguageStyler#computeUpdate(String, int, int)}.
+ * Also records the matched tokens of the whole text, which the next update is computed against.
+ *
+ * @author Matt
+ */
+public class StyleUpdate {
+	final String text;
+	final int[] starts;
+	final int[] ends;
+	final int[] kinds;
+	final int count;
+	private final int start;
+	private final StyleSpans<Collection<String>> spans;
+
+	StyleUpdate(String text, int[] starts, int[] ends, int[] kinds, int count,
+				int start, StyleSpans<Collection<String>> spans) {
+		this.text = text;
+		this.starts = starts;
+		this.ends = ends;
+		this.kinds = kinds;
+		this.count = count;
+		this.start = start;
+		this.spans = spans;
+	}
+
+	/**
+	 * @return Text the update was computed for.
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * @return Offset in the text of the first restyled character.
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	/**
+	 * @return Styles of the restyled region, starting at {@link #getStart()}.
+	 */
+	public StyleSpans<Collection<String>> getSpans() {
+		return spans;
+	}
+}
@@ -1,17 +1,25 @@
 package me.coley.recaf.ui.controls.tree;
 
 import me.coley.recaf.Recaf;
+import me.coley.recaf.util.ClassUtil;
 import me.coley.recaf.workspace.JavaResource;
 
 import java.util.*;
 
 /**
  * Tree item to contain class sub-items.
+ * <br>
+ * Package contents are created from a sorted index of class names when the package is first
+ * expanded, so items are only made for the parts of the tree that are shown.
  *
  * @author Matt
  */
 public class ClassFolderItem extends DirectoryItem {
 	private final JavaResource resource = resource();
+	private final TreeSet<String> names;
+	private final Map<String, Integer> nameToAccess = new HashMap<>();
+	private final int maxDepth;
+	private NameIndex index;
 
 	/**
 	 * @param resource
@@ -19,15 +27,177 @@ public class ClassFolderItem extends DirectoryItem {
 	 */
 	public ClassFolderItem(JavaResource resource) {
 		super(resource, "classes");
-		// Add class sub-items in sorted order
-		new TreeSet<>(resource.getClasses().keySet()).forEach(this::addClass);
+		names = new TreeSet<>(resource.getClasses().keySet());
+		maxDepth = Recaf.getController().config().display().maxTreeDepth;
+		setLoader(() -> loadChildren(this, Collections.emptyList()));
 	}
 
 	protected void addClass(String name) {
+		if (!names.add(name))
+			return;
+		if (index != null)
+			index.add(name);
 		DirectoryItem item = this;
+		List<String> parts = getPath(name);
+		for (int i = 0; i < parts.size(); i++) {
+			// Children of items that have not been loaded will be created from the index
+			if (!item.isLoaded())
+				return;
+			String part = parts.get(i);
+			boolean isLeaf = i == parts.size() - 1;
+			DirectoryItem child = item.getChild(part, isLeaf);
+			if (child == null) {
+				child = createChild(name, parts, i);
+				item.addChild(part, child, isLeaf);
+			}
+			item = child;
+		}
+	}
+
+	protected void removeClass(String name) {
+		if (!names.remove(name))
+			return;
+		if (index != null)
+			index.remove(name);
+		nameToAccess.remove(name);
+		// Find the item, or the package item with children that have not been created
+		DirectoryItem item = this;
+		List<String> parts = getPath(name);
+		for (int i = 0; i < parts.size() && item != null; i++) {
+			if (!item.isLoaded())
+				break;
+			item = item.getChild(parts.get(i), i == parts.size() - 1);
+		}
+		if (item == null || item == this)
+			return;
+		// Unloaded packages are shown as expandable, so they are removed when nothing is left in them
+		if (item instanceof PackageItem && !isEmpty((PackageItem) item))
+			return;
+		BaseItem parent = (BaseItem) item.getParent();
+		if(parent != null) {
+			parent.removeSourceChild(item);
+			// Remove directories if needed
+			while(parent.isLeaf() && !(parent instanceof ClassFolderItem)) {
+				BaseItem parentOfParent = (BaseItem) parent.getParent();
+				parentOfParent.removeSourceChild(parent);
+				parent = parentOfParent;
+			}
+		}
+	}
+
+	protected void updateClass(String name) {
+		nameToAccess.remove(name);
+	}
+
+	/**
+	 * @param filter
+	 * 		Filter to apply.
+	 *
+	 * @return Sorted names of classes matching the filter.
+	 */
+	public NavigableSet<String> search(ItemFilter filter) {
+		if (index == null)
+			index = new NameIndex(names);
+		return new TreeSet<>(filter.matchClasses(index, name -> nameToAccess.computeIfAbsent(name,
+				n -> ClassUtil.getAccess(resource.getClasses().get(n)))));
+	}
+
+	/**
+	 * @param item
+	 * 		Package item.
+	 * @param matches
+	 * 		Sorted names of classes matching a filter.
+	 *
+	 * @return {@code true} when the package contains any of the classes.
+	 */
+	public boolean contains(PackageItem item, NavigableSet<String> matches) {
+		String prefix = item.getNamePrefix();
+		String match = matches.ceiling(prefix);
+		return match != null && match.startsWith(prefix);
+	}
+
+	/**
+	 * @param item
+	 * 		Package item.
+	 *
+	 * @return {@code true} when the package contains no classes.
+	 */
+	private boolean isEmpty(PackageItem item) {
+		String prefix = item.getNamePrefix();
+		String name = names.ceiling(prefix);
+		return name == null || !name.startsWith(prefix);
+	}
+
+	/**
+	 * Expand the packages leading to the class, creating their items if needed.
+	 *
+	 * @param name
+	 * 		Class name.
+	 */
+	public void reveal(String name) {
+		DirectoryItem item = this;
+		List<String> parts = getPath(name);
+		for (int i = 0; i < parts.size() && item != null; i++) {
+			item.setExpanded(true);
+			item.load();
+			item = item.getChild(parts.get(i), i == parts.size() - 1);
+		}
+	}
+
+	/**
+	 * @param item
+	 * 		Item to populate.
+	 * @param path
+	 * 		Path of the item in the tree.
+	 */
+	private void loadChildren(DirectoryItem item, List<String> path) {
+		int depth = path.size();
+		String prefix = getPrefix(path);
+		List<DirectoryItem> children = new ArrayList<>();
+		Set<String> packages = new HashSet<>();
+		String name = names.ceiling(prefix);
+		while (name != null && name.startsWith(prefix)) {
+			List<String> parts = getPath(name);
+			if (parts.size() > depth && parts.subList(0, depth).equals(path)) {
+				String part = parts.get(depth);
+				boolean isLeaf = parts.size() == depth + 1;
+				if (isLeaf) {
+					children.add(createChild(name, parts, depth));
+				} else if (packages.add(part)) {
+					children.add(createChild(name, parts, depth));
+					// Skip over the contents of the package, unless the tree is pruned at this depth
+					if (depth < maxDepth - 1) {
+						name = names.ceiling(prefix + part + '0');
+						continue;
+					}
+				}
+			}
+			name = names.higher(name);
+		}
+		Collections.sort(children);
+		item.addChildren(children);
+	}
+
+	private DirectoryItem createChild(String name, List<String> parts, int depth) {
+		String part = parts.get(depth);
+		if (depth == parts.size() - 1)
+			return new ClassItem(resource, part, name);
+		List<String> path = new ArrayList<>(parts.subList(0, depth + 1));
+		PackageItem item = new PackageItem(resource, part, String.join(".", path));
+		item.setNamePrefix(getPrefix(path));
+		item.setLoader(() -> loadChildren(item, path));
+		return item;
+	}
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 *
+	 * @return Local names of the items leading to the class in the tree.
+	 */
+	private List<String> getPath(String name) {
 		List<String> parts = new ArrayList<>(Arrays.asList(name.split("/")));
 		// Prune tree directory middle section if it is obnoxiously long
-		int maxDepth = Recaf.getController().config().display().maxTreeDepth;
 		if (parts.size() > maxDepth) {
 			String lastPart = parts.get(parts.size() - 1);
 			// We keep only elements between
@@ -36,20 +206,20 @@ public class ClassFolderItem extends DirectoryItem {
 			parts.add("...");
 			parts.add(lastPart);
 		}
-		// Build directory structure
+		return parts;
+	}
+
+	/**
+	 * @param path
+	 * 		Path of an item in the tree.
+	 *
+	 * @return Prefix of the names of classes within the item.
+	 */
+	private static String getPrefix(List<String> path) {
 		StringBuilder sb = new StringBuilder();
-		while(!parts.isEmpty()) {
-			String part = parts.remove(0);
-			sb.append(part).append('.');
-			boolean isLeaf = parts.isEmpty();
-			DirectoryItem child = item.getChild(part, isLeaf);
-			if(child == null) {
-				child = isLeaf ?
-						new ClassItem(resource, part, name) :
-						new PackageItem(resource, part, sb.substring(0, sb.length() - 1));
-				item.addChild(part, child, isLeaf);
-			}
-			item = child;
-		}
+		for (String part : path)
+			if (!part.equals("..."))
+				sb.append(part).append('/');
+		return sb.toString();
 	}
-}
\ No newline at end of file
+}
@@ -15,7 +15,7 @@ public class DirectoryItem extends BaseItem implements Comparable<DirectoryItem>
 	private final Map<String, DirectoryItem> localToDir = new HashMap<>();
 	private final Map<String, DirectoryItem> localToLeaf = new HashMap<>();
 	private final String local;
-
+	private Runnable loader;
 
 	/**
 	 * @param resource
@@ -52,6 +52,45 @@ public class DirectoryItem extends BaseItem implements Comparable<DirectoryItem>
 		return local;
 	}
 
+	/**
+	 * Defer creation of the children of this item until it is expanded or looked up by
+	 * {@link #getDeepChild(String)}.
+	 *
+	 * @param loader
+	 * 		Action to add the children of this item.
+	 */
+	public void setLoader(Runnable loader) {
+		this.loader = loader;
+		expandedProperty().addListener((ob, old, expanded) -> {
+			if(expanded)
+				load();
+		});
+	}
+
+	/**
+	 * Create the children of this item, if they have been deferred.
+	 */
+	public void load() {
+		Runnable loader = this.loader;
+		if(loader == null)
+			return;
+		this.loader = null;
+		loader.run();
+	}
+
+	/**
+	 * @return {@code true} when the children of this item have been created.
+	 */
+	public boolean isLoaded() {
+		return loader == null;
+	}
+
+	@Override
+	public boolean isLeaf() {
+		// Items with deferred children are shown as expandable
+		return isLoaded() && super.isLeaf();
+	}
+
 	/**
 	 * Add a child by the local name.
 	 *
@@ -70,6 +109,22 @@ public class DirectoryItem extends BaseItem implements Comparable<DirectoryItem>
 		addSourceChild(child);
 	}
 
+	/**
+	 * Add children by their local names, in a single update.
+	 *
+	 * @param children
+	 * 		Children to add, in sorted order.
+	 */
+	public void addChildren(List<DirectoryItem> children) {
+		for(DirectoryItem child : children) {
+			if (child instanceof ClassItem)
+				localToLeaf.put(child.local, child);
+			else
+				localToDir.put(child.local, child);
+		}
+		addSourceChildren(children);
+	}
+
 	/**
 	 * @param local
 	 * 		Local name of child.
@@ -97,6 +152,7 @@ public class DirectoryItem extends BaseItem implements Comparable<DirectoryItem>
 		List<String> parts = new ArrayList<>(Arrays.asList(path.split("/")));
 		while(!parts.isEmpty() && item != null) {
 			String part = parts.remove(0);
+			item.load();
 			item = item.getChild(part, parts.isEmpty());
 		}
 		return item;
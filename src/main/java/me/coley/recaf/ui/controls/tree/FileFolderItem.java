@@ -12,6 +12,7 @@ import java.util.*;
  */
 public class FileFolderItem extends DirectoryItem {
 	private final JavaResource resource = resource();
+	private NameIndex index;
 
 	/**
 	 * @param resource
@@ -24,6 +25,8 @@ public class FileFolderItem extends DirectoryItem {
 	}
 
 	protected void addFile(String name) {
+		if (index != null)
+			index.add(name);
 		DirectoryItem item = this;
 		List<String> parts = new ArrayList<>(Arrays.asList(name.split("/")));
 		// Prune tree directory middle section if it is obnoxiously long
@@ -48,4 +51,21 @@ public class FileFolderItem extends DirectoryItem {
 			item = child;
 		}
 	}
-}
\ No newline at end of file
+
+	protected void removeFile(String name) {
+		if (index != null)
+			index.remove(name);
+	}
+
+	/**
+	 * @param filter
+	 * 		Filter to apply.
+	 *
+	 * @return Names of files matching the filter.
+	 */
+	public Set<String> search(ItemFilter filter) {
+		if (index == null)
+			index = new NameIndex(resource.getFiles().keySet());
+		return filter.matchFiles(index);
+	}
+}
@@ -2,6 +2,7 @@ package me.coley.recaf.ui.controls.tree;
 
 import java.lang.reflect.Field;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.function.Predicate;
 
 import javafx.beans.binding.Bindings;
@@ -90,6 +91,20 @@ public class FilterableTreeItem<T> extends TreeItem<T> {
 		sourceChildren.add(index, item);
 	}
 
+	/**
+	 * Add unfiltered children to this item. Adding children to an item without any is done in a
+	 * single update of the children list.
+	 *
+	 * @param items
+	 * 		Child items to add, in sorted order.
+	 */
+	public void addSourceChildren(Collection<? extends TreeItem<T>> items) {
+		if(sourceChildren.isEmpty())
+			sourceChildren.addAll(items);
+		else
+			items.forEach(this::addSourceChild);
+	}
+
 	/**
 	 * Remove an unfiltered child from this item.
 	 *
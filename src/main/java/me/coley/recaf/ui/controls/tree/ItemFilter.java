@@ -0,0 +1,111 @@
+package me.coley.recaf.ui.controls.tree;
+
+import me.coley.recaf.util.AccessFlag;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+/**
+ * Filter for the items of a {@link JavaResourceTree}, parsed from the search text.
+ * <br>
+ * The text is split by whitespace. Words of the form {@code key:value} are options, all other
+ * words must be contained in the names of matching items. Supported options are:
+ * <ul>
+ *     <li>Class access flags, such as {@code enum:true} or {@code public:false}. Items that are not
+ *     classes do not match.</li>
+ *     <li>{@code ext:json} - File extension. Classes have the extension {@code class}.</li>
+ * </ul>
+ * For example {@code enum:true com/} matches enums in {@code com} packages.
+ *
+ * @author Matt
+ */
+public class ItemFilter {
+	private final List<String> words = new ArrayList<>();
+	private final Map<AccessFlag, Boolean> flags = new EnumMap<>(AccessFlag.class);
+	private String extension;
+
+	/**
+	 * @param text
+	 * 		Search text.
+	 */
+	public ItemFilter(String text) {
+		Set<AccessFlag> classFlags = AccessFlag.getApplicableFlags(AccessFlag.Type.CLASS);
+		for (String word : text.trim().split("\\s+")) {
+			if (word.isEmpty())
+				continue;
+			int split = word.indexOf(':');
+			if (split > 0) {
+				String key = word.substring(0, split).toLowerCase();
+				String value = word.substring(split + 1);
+				if (key.equals("ext")) {
+					extension = value.startsWith(".") ? value.substring(1) : value;
+					continue;
+				}
+				AccessFlag flag = AccessFlag.getFlag(key);
+				if (flag != null && classFlags.contains(flag)) {
+					flags.put(flag, Boolean.parseBoolean(value));
+					continue;
+				}
+			}
+			words.add(word);
+		}
+	}
+
+	/**
+	 * @return {@code true} when the filter matches all items.
+	 */
+	public boolean isEmpty() {
+		return words.isEmpty() && flags.isEmpty() && extension == null;
+	}
+
+	/**
+	 * @param index
+	 * 		Index of class names.
+	 * @param accessLookup
+	 * 		Lookup of class access flags.
+	 *
+	 * @return Class names matching the filter.
+	 */
+	public Set<String> matchClasses(NameIndex index, ToIntFunction<String> accessLookup) {
+		if (extension != null && !extension.equals("class"))
+			return Collections.emptySet();
+		Set<String> matches = matchNames(index);
+		if (!flags.isEmpty())
+			matches.removeIf(name -> {
+				int access = accessLookup.applyAsInt(name);
+				for (Map.Entry<AccessFlag, Boolean> e : flags.entrySet())
+					if (e.getKey().has(access) != e.getValue())
+						return true;
+				return false;
+			});
+		return matches;
+	}
+
+	/**
+	 * @param index
+	 * 		Index of file names.
+	 *
+	 * @return File names matching the filter.
+	 */
+	public Set<String> matchFiles(NameIndex index) {
+		// Files have no access flags
+		if (!flags.isEmpty())
+			return Collections.emptySet();
+		Set<String> matches = matchNames(index);
+		if (extension != null)
+			matches.removeIf(name -> !name.endsWith("." + extension));
+		return matches;
+	}
+
+	private Set<String> matchNames(NameIndex index) {
+		if (words.isEmpty())
+			return new HashSet<>(index.getNames());
+		// Look up the longest word, which is likely the most selective
+		String longest = Collections.max(words, Comparator.comparingInt(String::length));
+		Set<String> matches = index.search(longest);
+		for (String word : words)
+			if (word != longest)
+				matches.removeIf(name -> !name.contains(word));
+		return matches;
+	}
+}
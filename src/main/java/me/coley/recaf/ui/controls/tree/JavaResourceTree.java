@@ -54,34 +54,14 @@ public class JavaResourceTree extends BorderPane {
 	}
 
 	/**
-	 * Filter items in the tree that match <i>(contains)</i> the given text.
+	 * Filter items in the tree that match the given text. See {@link ItemFilter} for the format.
 	 *
 	 * @param text
 	 * 		Text to search with.
 	 */
 	private void updateSearch(String text) {
 		RootItem root = (RootItem) tree.getRoot();
-		// TODO: More verbose options
-		//  - Support for actions, for example:
-		//    - "enum:true com/" - search enums in com packages
-		//    - "ext:json xyz" - search for whatever ending in ".json"
-		root.predicateProperty().set(item -> {
-			// Empty predicate -> Simple return.
-			if(text.isEmpty())
-				return true;
-			// Check for content match
-			boolean match = false;
-			if(item instanceof ClassItem)
-				match = ((ClassItem) item).getClassName().contains(text);
-			else if(item instanceof FileItem)
-				match = ((FileItem) item).getFileName().contains(text);
-			// Expand items that match, hide those that do not.
-			if(match)
-				((DirectoryItem) item).expandParents();
-			else
-				item.setExpanded(false);
-			return match;
-		});
+		root.filter(new ItemFilter(text));
 	}
 
 	private void onClick(MouseEvent e) {
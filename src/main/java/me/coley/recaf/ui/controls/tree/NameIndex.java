@@ -0,0 +1,134 @@
+package me.coley.recaf.ui.controls.tree;
+
+import java.util.*;
+
+/**
+ * Trigram index of names, for finding all names containing some text without testing every name.
+ * <br>
+ * Removed names leave their slots and postings behind until they make up a large share of the index,
+ * at which point the index is rebuilt from the remaining names.
+ *
+ * @author Matt
+ */
+public class NameIndex {
+	// Share of removed names that triggers a rebuild, ignored for small indices
+	private static final double MAX_REMOVED_RATIO = 0.5;
+	private static final int MIN_COMPACT_SIZE = 64;
+	private final List<String> names = new ArrayList<>();
+	private final Map<String, Integer> nameToId = new HashMap<>();
+	private final Map<Long, Postings> trigramToIds = new HashMap<>();
+
+	/**
+	 * @param names
+	 * 		Initial names to index.
+	 */
+	public NameIndex(Collection<String> names) {
+		names.forEach(this::add);
+	}
+
+	/**
+	 * @param name
+	 * 		Name to add.
+	 */
+	public void add(String name) {
+		if (nameToId.containsKey(name))
+			return;
+		int id = names.size();
+		names.add(name);
+		nameToId.put(name, id);
+		for (int i = 0; i + 3 <= name.length(); i++)
+			trigramToIds.computeIfAbsent(trigram(name, i), k -> new Postings()).add(id);
+	}
+
+	/**
+	 * @param name
+	 * 		Name to remove.
+	 */
+	public void remove(String name) {
+		Integer id = nameToId.remove(name);
+		// Postings of removed names are skipped when searching
+		if (id == null)
+			return;
+		names.set(id, null);
+		int removed = names.size() - nameToId.size();
+		if (names.size() >= MIN_COMPACT_SIZE && removed > names.size() * MAX_REMOVED_RATIO)
+			compact();
+	}
+
+	/**
+	 * @param text
+	 * 		Text to search for.
+	 *
+	 * @return Names containing the text.
+	 */
+	public Set<String> search(String text) {
+		Set<String> results = new HashSet<>();
+		if (text.length() < 3) {
+			for (String name : names)
+				if (name != null && name.contains(text))
+					results.add(name);
+			return results;
+		}
+		// Check only the names having the least common trigram of the text
+		Postings smallest = null;
+		for (int i = 0; i + 3 <= text.length(); i++) {
+			Postings postings = trigramToIds.get(trigram(text, i));
+			if (postings == null)
+				return results;
+			if (smallest == null || postings.size < smallest.size)
+				smallest = postings;
+		}
+		for (int i = 0; i < smallest.size; i++) {
+			String name = names.get(smallest.ids[i]);
+			if (name != null && name.contains(text))
+				results.add(name);
+		}
+		return results;
+	}
+
+	/**
+	 * @return All indexed names.
+	 */
+	public Set<String> getNames() {
+		return Collections.unmodifiableSet(nameToId.keySet());
+	}
+
+	/**
+	 * @return Number of slots in the index, including those of removed names.
+	 */
+	int getSlotCount() {
+		return names.size();
+	}
+
+	private void compact() {
+		List<String> remaining = new ArrayList<>(nameToId.size());
+		for (String name : names)
+			if (name != null)
+				remaining.add(name);
+		names.clear();
+		nameToId.clear();
+		trigramToIds.clear();
+		remaining.forEach(this::add);
+	}
+
+	private static long trigram(String text, int start) {
+		return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+	}
+
+	/**
+	 * Ids of names containing a trigram, in ascending order.
+	 */
+	private static final class Postings {
+		private int[] ids = new int[4];
+		private int size;
+
+		private void add(int id) {
+			// Names with repeated trigrams only need to be listed once
+			if (size > 0 && ids[size - 1] == id)
+				return;
+			if (size == ids.length)
+				ids = Arrays.copyOf(ids, size * 2);
+			ids[size++] = id;
+		}
+	}
+}
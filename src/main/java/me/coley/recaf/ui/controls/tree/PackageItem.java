@@ -9,6 +9,7 @@ import me.coley.recaf.workspace.JavaResource;
  */
 public class PackageItem extends DirectoryItem {
 	private final String packageName;
+	private String namePrefix;
 
 	/**
 	 * @param resource
@@ -29,4 +30,19 @@ public class PackageItem extends DirectoryItem {
 	public String getPackageName() {
 		return packageName;
 	}
+
+	/**
+	 * @return Prefix of the names of classes within the package.
+	 */
+	String getNamePrefix() {
+		return namePrefix;
+	}
+
+	/**
+	 * @param namePrefix
+	 * 		Prefix of the names of classes within the package.
+	 */
+	void setNamePrefix(String namePrefix) {
+		this.namePrefix = namePrefix;
+	}
 }
\ No newline at end of file
@@ -5,12 +5,16 @@ import me.coley.recaf.util.struct.InternalBiConsumer;
 import me.coley.recaf.util.struct.InternalConsumer;
 import me.coley.recaf.workspace.JavaResource;
 
+import java.util.*;
+
 /**
  * Root item
  *
  * @author Matt
  */
 public class RootItem extends BaseItem {
+	private static final int MAX_REVEALED_MATCHES = 100;
+	private final List<Runnable> pendingUpdates = new ArrayList<>();
 	private ClassFolderItem classes;
 	private FileFolderItem files;
 
@@ -26,26 +30,14 @@ public class RootItem extends BaseItem {
 			// Register listeners and update if the classes update
 			resource.getClasses().getRemoveListeners().add(InternalConsumer.internal(r -> {
 				String name = r.toString();
-				DirectoryItem di = classes.getDeepChild(name);
-				if (di != null) {
-					Platform.runLater(() -> {
-						BaseItem parent = (BaseItem) di.getParent();
-						if(parent != null) {
-							parent.removeSourceChild(di);
-							// Remove directories if needed
-							while(parent.isLeaf() && !(parent instanceof ClassFolderItem)) {
-								BaseItem parentOfParent = (BaseItem) parent.getParent();
-								parentOfParent.removeSourceChild(parent);
-								parent = parentOfParent;
-							}
-						}
-					});
-				}
+				update(() -> classes.removeClass(name));
 			}));
 			resource.getClasses().getPutListeners().add(InternalBiConsumer.internal((k, v) -> {
 				// Put includes updates, so only "add" the class when it doesn't already exist
 				if (!resource.getClasses().containsKey(k))
-					Platform.runLater(() -> classes.addClass(k));
+					update(() -> classes.addClass(k));
+				else
+					update(() -> classes.updateClass(k));
 			}));
 		}
 		// files sub-folder
@@ -54,30 +46,87 @@ public class RootItem extends BaseItem {
 			// Register listeners and update if the files update
 			resource.getFiles().getRemoveListeners().add(InternalConsumer.internal(r -> {
 				String name = r.toString();
-				DirectoryItem di = files.getDeepChild(name);
-				if (di != null) {
-					Platform.runLater(() -> {
-						BaseItem parent = (BaseItem) di.getParent();
-						if(parent != null) {
-							parent.removeSourceChild(di);
-							// Remove directories if needed
-							while(parent.isLeaf() && !(parent instanceof FileFolderItem)) {
-								BaseItem parentOfParent = (BaseItem) parent.getParent();
-								parentOfParent.removeSourceChild(parent);
-								parent = parentOfParent;
-							}
+				update(() -> {
+					files.removeFile(name);
+					DirectoryItem di = files.getDeepChild(name);
+					if (di == null)
+						return;
+					BaseItem parent = (BaseItem) di.getParent();
+					if(parent != null) {
+						parent.removeSourceChild(di);
+						// Remove directories if needed
+						while(parent.isLeaf() && !(parent instanceof FileFolderItem)) {
+							BaseItem parentOfParent = (BaseItem) parent.getParent();
+							parentOfParent.removeSourceChild(parent);
+							parent = parentOfParent;
 						}
-					});
-				}
+					}
+				});
 			}));
 			resource.getFiles().getPutListeners().add(InternalBiConsumer.internal((k, v) -> {
 				// Put includes updates, so only "add" the file when it doesn't already exist
 				if (!resource.getFiles().containsKey(k))
-					Platform.runLater(() -> files.addFile(k));
+					update(() -> files.addFile(k));
 			}));
 		}
 		// TODO: Sub-folders for these?
 		//  - docs
 		//  - sources
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Show only the items matching the filter, and expand the packages and directories of the first
+	 * few matches. Classes are looked up from an index, so only the matching branches of the tree
+	 * are created.
+	 *
+	 * @param filter
+	 * 		Filter to apply, or {@code null} to show all items.
+	 */
+	public void filter(ItemFilter filter) {
+		if (filter == null || filter.isEmpty()) {
+			predicateProperty().set(null);
+			return;
+		}
+		NavigableSet<String> classMatches = classes == null ? Collections.emptyNavigableSet() : classes.search(filter);
+		Set<String> fileMatches = files == null ? Collections.emptySet() : files.search(filter);
+		predicateProperty().set(item -> {
+			if (item instanceof ClassItem)
+				return classMatches.contains(((ClassItem) item).getClassName());
+			else if (item instanceof PackageItem)
+				return classes.contains((PackageItem) item, classMatches);
+			else if (item instanceof FileItem)
+				return fileMatches.contains(((FileItem) item).getFileName());
+			return false;
+		});
+		// Expand items that match
+		classMatches.stream().limit(MAX_REVEALED_MATCHES).forEach(classes::reveal);
+		fileMatches.stream().limit(MAX_REVEALED_MATCHES).forEach(name -> {
+			DirectoryItem item = files.getDeepChild(name);
+			if (item != null)
+				item.expandParents();
+		});
+	}
+
+	/**
+	 * Queue an update of the tree. Updates queued before the FX thread gets to them are applied
+	 * together, so bulk changes to the resource do not flood the FX thread.
+	 *
+	 * @param update
+	 * 		Tree update action.
+	 */
+	private void update(Runnable update) {
+		synchronized(pendingUpdates) {
+			pendingUpdates.add(update);
+			if (pendingUpdates.size() > 1)
+				return;
+		}
+		Platform.runLater(() -> {
+			List<Runnable> updates;
+			synchronized(pendingUpdates) {
+				updates = new ArrayList<>(pendingUpdates);
+				pendingUpdates.clear();
+			}
+			updates.forEach(Runnable::run);
+		});
+	}
+}
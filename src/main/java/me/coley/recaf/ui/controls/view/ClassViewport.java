@@ -199,7 +199,6 @@ public class ClassViewport extends EditorViewport {
 			case HEX:
 			default:
 				HexEditor hex = new HexEditor(last);
-				hex.setContentCallback(array -> current = array);
 				hex.setEditable(resource.isPrimary());
 				setCenter(hex);
 				break;
@@ -4,6 +4,7 @@ import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.BorderPane;
 import me.coley.recaf.config.ConfKeybinding;
 import me.coley.recaf.control.gui.GuiController;
+import me.coley.recaf.ui.controls.HexEditor;
 import me.coley.recaf.util.UiUtil;
 import me.coley.recaf.workspace.History;
 import me.coley.recaf.workspace.JavaResource;
@@ -68,6 +69,11 @@ public abstract class EditorViewport extends BorderPane {
 	 * If {@link #current} is {@code null} there is no modification to save.
 	 */
 	public void save() {
+		// Hex edits are only applied to a copy of the content when saving.
+		// The editor only knows about its original content, not the last save, so its content is
+		// always compared against the last save. Reverting a saved edit leaves no edits in the editor.
+		if (getCenter() instanceof HexEditor)
+			current = ((HexEditor) getCenter()).getContent();
 		// Skip if no modifications to save.
 		if (current == null || Arrays.equals(last, current))
 			return;
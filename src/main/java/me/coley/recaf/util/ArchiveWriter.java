@@ -0,0 +1,384 @@
+package me.coley.recaf.util;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * Archive writer that compresses entries concurrently. Each entry is deflated into its own
+ * independent stream, and the results are assembled in order into a standard zip layout.
+ * <br>
+ * Entries whose content matches an entry of a {@link #addSource(Path) source archive} are copied
+ * as-is from that archive, skipping the inflate/deflate round trip entirely.
+ *
+ * @author Matt
+ */
+public class ArchiveWriter {
+	/**
+	 * Compression level which stores entries without any compression.
+	 */
+	public static final int STORED = 0;
+	private static final int SIG_LOCAL = 0x04034b50;
+	private static final int SIG_CENTRAL = 0x02014b50;
+	private static final int SIG_END = 0x06054b50;
+	private static final int SIG_END_64 = 0x06064b50;
+	private static final int SIG_LOCATOR_64 = 0x07064b50;
+	private static final int FLAG_UTF8 = 0x0800;
+	private static final int VERSION = 20;
+	private static final int VERSION_64 = 45;
+	private static final long MAX_32 = 0xFFFFFFFFL;
+	private static final int MAX_16 = 0xFFFF;
+	private static final byte[] JAR_MAGIC = {(byte) 0xFE, (byte) 0xCA, 0, 0};
+	// Limit of uncompressed bytes held by a single batch of entries being compressed
+	private static final long BATCH_BYTES = 64L * 1024 * 1024;
+	private final List<RawArchiveIndex> sources = new ArrayList<>();
+	private final int level;
+	private BiFunction<String, byte[], byte[]> interceptor;
+	private boolean jar = true;
+
+	/**
+	 * @param level
+	 * 		Compression level, from {@link #STORED} to {@link Deflater#BEST_COMPRESSION}.
+	 * 		Use {@link Deflater#DEFAULT_COMPRESSION} for the default.
+	 */
+	public ArchiveWriter(int level) {
+		if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION)
+			throw new IllegalArgumentException("Invalid compression level: " + level);
+		this.level = level;
+	}
+
+	/**
+	 * Register an existing archive to copy unmodified entries from. Entries are considered unmodified
+	 * when their name, size and CRC match the content being written.
+	 *
+	 * @param archive
+	 * 		Path to archive.
+	 *
+	 * @throws IOException
+	 * 		When the archive could not be indexed.
+	 */
+	public void addSource(Path archive) throws IOException {
+		sources.add(RawArchiveIndex.open(archive));
+	}
+
+	/**
+	 * @param interceptor
+	 * 		Function applied to each entry's name and content before it is written.
+	 * 		Always called on the writing thread, in entry order.
+	 */
+	public void setInterceptor(BiFunction<String, byte[], byte[]> interceptor) {
+		this.interceptor = interceptor;
+	}
+
+	/**
+	 * @param jar
+	 *        {@code true} to mark the archive as a jar with the jar magic extra field.
+	 */
+	public void setJar(boolean jar) {
+		this.jar = jar;
+	}
+
+	/**
+	 * Writes the content to an archive. Directory entries are generated for all parent directories
+	 * of the content. Source archives are closed afterwards.
+	 *
+	 * @param output
+	 * 		Path to archive to write.
+	 * @param content
+	 * 		Map of entry names to their content.
+	 *
+	 * @throws IOException
+	 * 		When the archive cannot be written to.
+	 */
+	public void write(Path output, Map<String, byte[]> content) throws IOException {
+		// Sorting allows us to insert directory entries before file entries of that directory occur.
+		List<String> names = content.keySet().parallelStream().sorted().collect(Collectors.toList());
+		long time = toDosTime(System.currentTimeMillis());
+		// Use buffered streams
+		// See https://github.com/Col-E/Recaf/issues/391
+		try (CountingOutputStream out = new CountingOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(output), 1048576))) {
+			List<EntryData> written = new ArrayList<>();
+			Set<String> dirsVisited = new HashSet<>();
+			List<PendingEntry> batch = new ArrayList<>();
+			long batchBytes = 0;
+			for (String name : names) {
+				// Record directories, put in order of depth
+				if (name.contains("/")) {
+					String parent = name;
+					List<String> toAdd = new ArrayList<>();
+					do {
+						parent = parent.substring(0, parent.lastIndexOf('/'));
+						if (dirsVisited.add(parent)) {
+							toAdd.add(0, parent + '/');
+						} else break;
+					} while (parent.contains("/"));
+					for (String dir : toAdd)
+						batch.add(new PendingEntry(dir, new byte[0]));
+				}
+				byte[] value = content.get(name);
+				if (interceptor != null)
+					value = interceptor.apply(name, value);
+				batch.add(new PendingEntry(name, value));
+				batchBytes += value.length;
+				if (batchBytes >= BATCH_BYTES) {
+					writeBatch(out, batch, written, time);
+					batch.clear();
+					batchBytes = 0;
+				}
+			}
+			writeBatch(out, batch, written, time);
+			writeCentralDirectory(out, written);
+		} finally {
+			for (RawArchiveIndex source : sources)
+				source.close();
+			sources.clear();
+		}
+	}
+
+	private void writeBatch(CountingOutputStream out, List<PendingEntry> batch, List<EntryData> written,
+							long time) throws IOException {
+		List<EntryData> compressed;
+		// Deflaters hold native memory until ended, so they are only kept for the batch.
+		// The pool never holds more deflaters than there are threads compressing at once.
+		Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+		try {
+			compressed = batch.parallelStream()
+					.map(pending -> compress(pending, deflaters))
+					.collect(Collectors.toList());
+		} catch(UncheckedIOException ex) {
+			throw ex.getCause();
+		} finally {
+			deflaters.forEach(Deflater::end);
+		}
+		for (EntryData entry : compressed) {
+			entry.time = time;
+			entry.offset = out.count;
+			entry.compressedSize = entry.data.length;
+			// The jar magic only goes on the first entry, like JarOutputStream does
+			entry.extra = (jar && written.isEmpty()) ? JAR_MAGIC : new byte[0];
+			writeLocalHeader(out, entry);
+			out.write(entry.data);
+			// Drop content reference, only the header information is needed from here on
+			entry.data = null;
+			written.add(entry);
+		}
+	}
+
+	private EntryData compress(PendingEntry pending, Queue<Deflater> deflaters) {
+		byte[] value = pending.value;
+		CRC32 crc32 = new CRC32();
+		crc32.update(value);
+		int crc = (int) crc32.getValue();
+		EntryData entry = new EntryData(pending.name, crc, value.length);
+		// Check if the entry is unchanged from a source archive
+		// - Do not copy deflated data if the user asked for stored entries
+		for (RawArchiveIndex source : sources) {
+			RawArchiveIndex.RawEntry raw = source.get(pending.name);
+			if (raw == null || raw.getCrc() != crc || raw.getSize() != value.length)
+				continue;
+			if (level == STORED && raw.getMethod() != ZipEntry.STORED)
+				continue;
+			try {
+				entry.method = raw.getMethod();
+				entry.data = source.readRaw(raw);
+				return entry;
+			} catch(IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+		entry.method = ZipEntry.STORED;
+		entry.data = value;
+		if (level == STORED || value.length == 0)
+			return entry;
+		Deflater deflater = deflaters.poll();
+		if (deflater == null)
+			deflater = new Deflater(level, true);
+		else
+			deflater.reset();
+		ByteArrayOutputStream baos = new ByteArrayOutputStream(Math.max(64, value.length / 2));
+		try {
+			deflater.setInput(value);
+			deflater.finish();
+			byte[] buffer = new byte[8192];
+			while (!deflater.finished()) {
+				int len = deflater.deflate(buffer);
+				baos.write(buffer, 0, len);
+			}
+		} finally {
+			deflaters.add(deflater);
+		}
+		// Only use the compressed form if it is actually smaller
+		if (baos.size() < value.length) {
+			entry.method = ZipEntry.DEFLATED;
+			entry.data = baos.toByteArray();
+		}
+		return entry;
+	}
+
+	private static void writeLocalHeader(CountingOutputStream out, EntryData entry) throws IOException {
+		byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+		writeInt(out, SIG_LOCAL);
+		writeShort(out, VERSION);
+		writeShort(out, FLAG_UTF8);
+		writeShort(out, entry.method);
+		writeInt(out, (int) entry.time);
+		writeInt(out, entry.crc);
+		writeInt(out, entry.data.length);
+		writeInt(out, entry.size);
+		writeShort(out, name.length);
+		writeShort(out, entry.extra.length);
+		out.write(name);
+		out.write(entry.extra);
+	}
+
+	private static void writeCentralDirectory(CountingOutputStream out, List<EntryData> entries)
+			throws IOException {
+		long cdOffset = out.count;
+		for (EntryData entry : entries) {
+			byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+			boolean zip64 = entry.offset >= MAX_32;
+			writeInt(out, SIG_CENTRAL);
+			writeShort(out, zip64 ? VERSION_64 : VERSION);
+			writeShort(out, zip64 ? VERSION_64 : VERSION);
+			writeShort(out, FLAG_UTF8);
+			writeShort(out, entry.method);
+			writeInt(out, (int) entry.time);
+			writeInt(out, entry.crc);
+			writeInt(out, entry.compressedSize);
+			writeInt(out, entry.size);
+			writeShort(out, name.length);
+			writeShort(out, entry.extra.length + (zip64 ? 12 : 0));
+			writeShort(out, 0); // comment length
+			writeShort(out, 0); // disk number
+			writeShort(out, 0); // internal attributes
+			writeInt(out, entry.name.endsWith("/") ? 0x10 : 0); // external attributes
+			writeInt(out, zip64 ? (int) MAX_32 : (int) entry.offset);
+			out.write(name);
+			out.write(entry.extra);
+			if (zip64) {
+				writeShort(out, 0x0001);
+				writeShort(out, 8);
+				writeLong(out, entry.offset);
+			}
+		}
+		long cdSize = out.count - cdOffset;
+		int count = entries.size();
+		if (count >= MAX_16 || cdOffset >= MAX_32 || cdSize >= MAX_32) {
+			long end64Offset = out.count;
+			writeInt(out, SIG_END_64);
+			writeLong(out, 44);
+			writeShort(out, VERSION_64);
+			writeShort(out, VERSION_64);
+			writeInt(out, 0);
+			writeInt(out, 0);
+			writeLong(out, count);
+			writeLong(out, count);
+			writeLong(out, cdSize);
+			writeLong(out, cdOffset);
+			writeInt(out, SIG_LOCATOR_64);
+			writeInt(out, 0);
+			writeLong(out, end64Offset);
+			writeInt(out, 1);
+		}
+		writeInt(out, SIG_END);
+		writeShort(out, 0);
+		writeShort(out, 0);
+		writeShort(out, Math.min(count, MAX_16));
+		writeShort(out, Math.min(count, MAX_16));
+		writeInt(out, (int) Math.min(cdSize, MAX_32));
+		writeInt(out, (int) Math.min(cdOffset, MAX_32));
+		writeShort(out, 0);
+	}
+
+	private static long toDosTime(long millis) {
+		Calendar c = Calendar.getInstance();
+		c.setTimeInMillis(millis);
+		int year = c.get(Calendar.YEAR);
+		if (year < 1980)
+			return (1 << 21) | (1 << 16);
+		return ((long) (year - 1980) << 25) | ((long) (c.get(Calendar.MONTH) + 1) << 21) |
+				((long) c.get(Calendar.DAY_OF_MONTH) << 16) | ((long) c.get(Calendar.HOUR_OF_DAY) << 11) |
+				((long) c.get(Calendar.MINUTE) << 5) | ((long) c.get(Calendar.SECOND) >> 1);
+	}
+
+	private static void writeShort(OutputStream out, int value) throws IOException {
+		out.write(value & 0xFF);
+		out.write((value >>> 8) & 0xFF);
+	}
+
+	private static void writeInt(OutputStream out, int value) throws IOException {
+		writeShort(out, value & 0xFFFF);
+		writeShort(out, (value >>> 16) & 0xFFFF);
+	}
+
+	private static void writeLong(OutputStream out, long value) throws IOException {
+		writeInt(out, (int) value);
+		writeInt(out, (int) (value >>> 32));
+	}
+
+	/**
+	 * Entry content waiting to be compressed.
+	 */
+	private static class PendingEntry {
+		private final String name;
+		private final byte[] value;
+
+		private PendingEntry(String name, byte[] value) {
+			this.name = name;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * Compressed entry content and header information.
+	 */
+	private static class EntryData {
+		private final String name;
+		private final int crc;
+		private final int size;
+		private int compressedSize;
+		private int method;
+		private byte[] data;
+		private byte[] extra;
+		private long time;
+		private long offset;
+
+		private EntryData(String name, int crc, int size) {
+			this.name = name;
+			this.crc = crc;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * Stream wrapper that tracks the number of written bytes, used to record entry offsets.
+	 */
+	private static class CountingOutputStream extends FilterOutputStream {
+		private long count;
+
+		private CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+}
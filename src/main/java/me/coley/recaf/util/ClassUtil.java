@@ -6,8 +6,8 @@ import org.objectweb.asm.*;
 import org.objectweb.asm.tree.*;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.lang.ref.SoftReference;
+import java.util.*;
 
 import static org.objectweb.asm.ClassReader.*;
 
@@ -21,6 +21,14 @@ public class ClassUtil {
 	 * The offset from which a version and the version constant value is. For example, Java 8 is 52 <i>(44 + 8)</i>.
 	 */
 	public static final int VERSION_OFFSET = 44;
+	private static final int SKELETON_FLAGS = SKIP_DEBUG | SKIP_CODE | SKIP_FRAMES;
+	/**
+	 * Skeletons keyed by the class bytecode array. Updating a class replaces its array, so entries of
+	 * outdated or removed classes are dropped once their bytecode is no longer referenced.
+	 * Skeletons themselves are dropped when memory runs low.
+	 */
+	private static final Map<byte[], SoftReference<ClassNode>> SKELETONS =
+			Collections.synchronizedMap(new WeakHashMap<>());
 
 	/**
 	 * @param name
@@ -54,6 +62,63 @@ public class ClassUtil {
 		return node;
 	}
 
+	/**
+	 * Skeletons are shared between callers, and are cached for as long as the class bytecode is in
+	 * use. They must not be modified, use {@link #getNode(ClassReader, int)} for a modifiable node.
+	 *
+	 * @param reader
+	 * 		Class reader to generate a node from.
+	 *
+	 * @return Node from reader, without debug information or method code.
+	 */
+	public static ClassNode getSkeleton(ClassReader reader) {
+		SoftReference<ClassNode> ref = SKELETONS.get(reader.b);
+		ClassNode node = ref == null ? null : ref.get();
+		// The bytecode array may hold multiple classes when read at an offset
+		if(node != null && node.name.equals(reader.getClassName()))
+			return node;
+		node = getNode(reader, SKELETON_FLAGS);
+		if(ref == null || ref.get() == null)
+			SKELETONS.put(reader.b, new SoftReference<>(node));
+		return node;
+	}
+
+	/**
+	 * @param reader
+	 * 		Class to visit.
+	 * @param name
+	 * 		Name of method to fetch.
+	 * @param desc
+	 * 		Descriptor of method to fetch.
+	 *
+	 * @return Method of the class {@link #getSkeleton(ClassReader) skeleton} matching the given definition.
+	 * {@code null} if no such method exists.
+	 */
+	public static MethodNode getSkeletonMethod(ClassReader reader, String name, String desc) {
+		for(MethodNode method : getSkeleton(reader).methods)
+			if(method.name.equals(name) && method.desc.equals(desc))
+				return method;
+		return null;
+	}
+
+	/**
+	 * @param reader
+	 * 		Class to visit.
+	 * @param name
+	 * 		Name of field to fetch.
+	 * @param desc
+	 * 		Descriptor of field to fetch.
+	 *
+	 * @return Field of the class {@link #getSkeleton(ClassReader) skeleton} matching the given definition.
+	 * {@code null} if no such field exists.
+	 */
+	public static FieldNode getSkeletonField(ClassReader reader, String name, String desc) {
+		for(FieldNode field : getSkeleton(reader).fields)
+			if(field.name.equals(name) && field.desc.equals(desc))
+				return field;
+		return null;
+	}
+
 	/**
 	 * @param node
 	 * 		Node to convert back to bytecode.
@@ -80,16 +145,7 @@ public class ClassUtil {
 	 * given name &amp; descriptor.
 	 */
 	public static boolean containsMethod(ClassReader reader, String name, String desc) {
-		boolean[] contains = {false};
-		reader.accept(new ClassVisitor(Recaf.ASM_VERSION) {
-			@Override
-			public MethodVisitor visitMethod(int access, String vname, String vdesc, String
-					signature, String[] exceptions) {
-				if (name.equals(vname) && vdesc.equals(desc)) contains[0] = true;
-				return null;
-			}
-		}, SKIP_DEBUG | SKIP_CODE);
-		return contains[0];
+		return getSkeletonMethod(reader, name, desc) != null;
 	}
 
 	/**
@@ -104,16 +160,7 @@ public class ClassUtil {
 	 * given name &amp; descriptor.
 	 */
 	public static boolean containsField(ClassReader reader, String name, String desc) {
-		boolean[] contains = {false};
-		reader.accept(new ClassVisitor(Recaf.ASM_VERSION) {
-			@Override
-			public FieldVisitor visitField(int access, String vname, String vdesc, String
-					signature, Object value) {
-				if (name.equals(vname) && vdesc.equals(desc)) contains[0] = true;
-				return null;
-			}
-		}, SKIP_DEBUG | SKIP_CODE);
-		return contains[0];
+		return getSkeletonField(reader, name, desc) != null;
 	}
 
 	/**
@@ -154,14 +201,8 @@ public class ClassUtil {
 	 */
 	public static List<Pair<String, String>> getMethodDefs(ClassReader reader) {
 		List<Pair<String, String>> methods = new ArrayList<>();
-		reader.accept(new ClassVisitor(Recaf.ASM_VERSION) {
-			@Override
-			public MethodVisitor visitMethod(int access, String vname, String vdesc, String
-					signature, String[] exceptions) {
-				methods.add(new Pair<>(vname, vdesc));
-				return null;
-			}
-		}, SKIP_DEBUG | SKIP_CODE);
+		for(MethodNode method : getSkeleton(reader).methods)
+			methods.add(new Pair<>(method.name, method.desc));
 		return methods;
 	}
 
@@ -202,14 +243,8 @@ public class ClassUtil {
 	 */
 	public static List<Pair<String, String>> getFieldDefs(ClassReader reader) {
 		List<Pair<String, String>> fields = new ArrayList<>();
-		reader.accept(new ClassVisitor(Recaf.ASM_VERSION) {
-			@Override
-			public FieldVisitor visitField(int access, String vname, String vdesc, String
-					signature, Object value) {
-				fields.add(new Pair<>(vname, vdesc));
-				return null;
-			}
-		}, SKIP_DEBUG | SKIP_CODE);
+		for(FieldNode field : getSkeleton(reader).fields)
+			fields.add(new Pair<>(field.name, field.desc));
 		return fields;
 	}
 
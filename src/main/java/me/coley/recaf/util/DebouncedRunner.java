@@ -0,0 +1,90 @@
+package me.coley.recaf.util;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Runs the latest of a stream of submitted tasks, such as the update work of an editor.
+ * <ul>
+ *     <li>Submissions within the delay of each other are coalesced into one run of the latest task.</li>
+ *     <li>At most one task runs at a time. A task submitted while another is running waits for it
+ *     to finish.</li>
+ *     <li>Each task is given a version number. Tasks are cancelled cooperatively, they should check
+ *     {@link #isStale(long)} between steps and before applying results.</li>
+ * </ul>
+ * Tasks run on the shared {@link ThreadUtil} executor instead of a thread per submission.
+ *
+ * @author Matt
+ */
+public class DebouncedRunner {
+	private final AtomicLong latest = new AtomicLong();
+	private final long delay;
+	private Future<?> scheduled;
+	private boolean running;
+	private long queuedVersion;
+	private LongConsumer queuedTask;
+
+	/**
+	 * @param delay
+	 * 		Time in milliseconds to wait for further submissions before running a task.
+	 */
+	public DebouncedRunner(long delay) {
+		this.delay = delay;
+	}
+
+	/**
+	 * @param task
+	 * 		Task to run, given its version number.
+	 *
+	 * @return Version number of the task.
+	 */
+	public synchronized long submit(LongConsumer task) {
+		long version = latest.incrementAndGet();
+		if (scheduled != null)
+			scheduled.cancel(false);
+		scheduled = ThreadUtil.runDelayed(delay, () -> start(version, task));
+		return version;
+	}
+
+	/**
+	 * @param version
+	 * 		Version number of a task.
+	 *
+	 * @return {@code true} when a newer task has been submitted, so the results of the given task are
+	 * obsolete.
+	 */
+	public boolean isStale(long version) {
+		return version != latest.get();
+	}
+
+	private synchronized void start(long version, LongConsumer task) {
+		if (isStale(version))
+			return;
+		if (running) {
+			// Run once the current task completes
+			queuedVersion = version;
+			queuedTask = task;
+			return;
+		}
+		running = true;
+		ThreadUtil.run(() -> run(version, task));
+	}
+
+	private void run(long version, LongConsumer task) {
+		try {
+			if (!isStale(version))
+				task.accept(version);
+		} catch(Throwable t) {
+			Log.error(t, "Uncaught exception in background task");
+		} finally {
+			synchronized(this) {
+				running = false;
+				LongConsumer next = queuedTask;
+				queuedTask = null;
+				if (next != null)
+					start(queuedVersion, next);
+			}
+		}
+	}
+}
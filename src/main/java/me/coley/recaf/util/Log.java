@@ -6,20 +6,28 @@ import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
 import ch.qos.logback.core.FileAppender;
 import me.coley.recaf.Recaf;
 import me.coley.recaf.util.struct.Pair;
+import me.coley.recaf.util.struct.RingBuffer;
 import me.coley.recaf.workspace.InstrumentationResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
-import java.util.regex.Matcher;
 
 /**
  * Proxy to intercept tinylog logging.
+ * <br>
+ * Messages are only formatted if something receives their level. Formatted messages are put into a
+ * buffer and passed to the loggers and consumers in batches on a separate thread, so callers do not
+ * wait on file writes or consumers. Errors are passed on immediately, along with any messages still
+ * in the buffer.
  *
  * @author Matt
  */
@@ -33,23 +41,30 @@ public class Log {
 	/**
 	 * Set of consumers that are fed trace-level messages.
 	 */
-	public static final Set<Consumer<String>> traceConsumers = new HashSet<>();
+	public static final Set<Consumer<String>> traceConsumers = new CopyOnWriteArraySet<>();
 	/**
 	 * Set of consumers that are fed debug-level messages.
 	 */
-	public static final Set<Consumer<String>> debugConsumers = new HashSet<>();
+	public static final Set<Consumer<String>> debugConsumers = new CopyOnWriteArraySet<>();
 	/**
 	 * Set of consumers that are fed info-level messages.
 	 */
-	public static final Set<Consumer<String>> infoConsumers = new HashSet<>();
+	public static final Set<Consumer<String>> infoConsumers = new CopyOnWriteArraySet<>();
 	/**
 	 * Set of consumers that are fed warn-level messages.
 	 */
-	public static final Set<Consumer<String>> warnConsumers = new HashSet<>();
+	public static final Set<Consumer<String>> warnConsumers = new CopyOnWriteArraySet<>();
 	/**
 	 * Set of consumers that are fed error-level messages.
 	 */
-	public static final Set<Consumer<Pair<String, Throwable>>> errorConsumers = new HashSet<>();
+	public static final Set<Consumer<Pair<String, Throwable>>> errorConsumers = new CopyOnWriteArraySet<>();
+	private static final String THREAD_KEY = "thread";
+	private static final int BUFFER_SIZE = 8192;
+	private static final int BATCH_SIZE = 512;
+	private static final long DRAIN_INTERVAL_MS = 50;
+	private static final RingBuffer<Message> buffer = new RingBuffer<>(BUFFER_SIZE);
+	private static final Object drainLock = new Object();
+	private static final boolean async;
 
 	/**
 	 * @param msg
@@ -58,10 +73,8 @@ public class Log {
 	 * 		Message arguments.
 	 */
 	public static void trace(String msg, Object... args) {
-		String msgCmp = compile(msg,args);
-		appLogger.trace(msgCmp);
-		fileLogger.trace(msgCmp);
-		traceConsumers.forEach(c -> c.accept(msgCmp));
+		if (appLogger.isTraceEnabled() || fileLogger.isTraceEnabled() || !traceConsumers.isEmpty())
+			log(new Message(Level.TRACE, compile(msg, args), null));
 	}
 
 	/**
@@ -71,10 +84,8 @@ public class Log {
 	 * 		Message arguments.
 	 */
 	public static void debug(String msg, Object... args) {
-		String msgCmp = compile(msg,args);
-		appLogger.debug(msgCmp);
-		fileLogger.debug(msgCmp);
-		debugConsumers.forEach(c -> c.accept(msgCmp));
+		if (appLogger.isDebugEnabled() || fileLogger.isDebugEnabled() || !debugConsumers.isEmpty())
+			log(new Message(Level.DEBUG, compile(msg, args), null));
 	}
 
 	/**
@@ -84,10 +95,8 @@ public class Log {
 	 * 		Message arguments.
 	 */
 	public static void info(String msg, Object... args) {
-		String msgCmp = compile(msg,args);
-		appLogger.info(msgCmp);
-		fileLogger.info(msgCmp);
-		infoConsumers.forEach(c -> c.accept(msgCmp));
+		if (appLogger.isInfoEnabled() || fileLogger.isInfoEnabled() || !infoConsumers.isEmpty())
+			log(new Message(Level.INFO, compile(msg, args), null));
 	}
 
 	/**
@@ -97,10 +106,7 @@ public class Log {
 	 * 		Message arguments.
 	 */
 	public static void warn(String msg, Object... args) {
-		String msgCmp = compile(msg,args);
-		appLogger.warn(msgCmp);
-		fileLogger.warn(msgCmp);
-		warnConsumers.forEach(c -> c.accept(msgCmp));
+		warn(null, msg, args);
 	}
 
 	/**
@@ -112,10 +118,8 @@ public class Log {
 	 * 		Message arguments.
 	 */
 	public static void warn(Throwable t, String msg, Object... args) {
-		String msgCmp = compile(msg,args);
-		appLogger.warn(msgCmp, t);
-		fileLogger.warn(msgCmp, t);
-		warnConsumers.forEach(c -> c.accept(msgCmp));
+		if (appLogger.isWarnEnabled() || fileLogger.isWarnEnabled() || !warnConsumers.isEmpty())
+			log(new Message(Level.WARN, compile(msg, args), t));
 	}
 
 	/**
@@ -137,10 +141,85 @@ public class Log {
 	 * 		Message arguments.
 	 */
 	public static void error(Throwable t, String msg, Object... args) {
-		String msgCmp = compile(msg,args);
-		appLogger.error(msgCmp, t);
-		fileLogger.error(msgCmp, t);
-		errorConsumers.forEach(c -> c.accept(new Pair<>(msgCmp, t)));
+		log(new Message(Level.ERROR, compile(msg, args), t));
+	}
+
+	/**
+	 * Pass all buffered messages to the loggers and consumers.
+	 */
+	public static void flush() {
+		synchronized (drainLock) {
+			while (buffer.drain(Log::deliver, BATCH_SIZE) > 0)
+				continue;
+		}
+	}
+
+	/**
+	 * @param message
+	 * 		Message to buffer, or to deliver on the calling thread if it cannot wait.
+	 */
+	private static void log(Message message) {
+		if (async && message.level != Level.ERROR && buffer.offer(message))
+			return;
+		// Deliver after the messages already in the buffer to keep them in order.
+		// This also applies back-pressure when the buffer is full.
+		synchronized (drainLock) {
+			flush();
+			deliver(message);
+		}
+	}
+
+	/**
+	 * @param message
+	 * 		Message to pass to the loggers and consumers.
+	 */
+	private static void deliver(Message message) {
+		// The file pattern shows the thread the message was logged on, not the delivering thread
+		MDC.put(THREAD_KEY, message.thread);
+		String msg = message.text;
+		Throwable t = message.thrown;
+		Level level = message.level;
+		try {
+			if (level == Level.TRACE) {
+				appLogger.trace(msg);
+				fileLogger.trace(msg);
+				traceConsumers.forEach(c -> c.accept(msg));
+			} else if (level == Level.DEBUG) {
+				appLogger.debug(msg);
+				fileLogger.debug(msg);
+				debugConsumers.forEach(c -> c.accept(msg));
+			} else if (level == Level.INFO) {
+				appLogger.info(msg);
+				fileLogger.info(msg);
+				infoConsumers.forEach(c -> c.accept(msg));
+			} else if (level == Level.WARN) {
+				appLogger.warn(msg, t);
+				fileLogger.warn(msg, t);
+				warnConsumers.forEach(c -> c.accept(msg));
+			} else {
+				appLogger.error(msg, t);
+				fileLogger.error(msg, t);
+				errorConsumers.forEach(c -> c.accept(new Pair<>(msg, t)));
+			}
+		} catch (Throwable ex) {
+			// Cannot go through the regular path, the failing consumer would be called again
+			appLogger.error("Log consumer failed on message: " + msg, ex);
+		}
+	}
+
+	/**
+	 * Deliver buffered messages until the application exits.
+	 */
+	private static void drainLoop() {
+		while (true) {
+			int count;
+			do {
+				synchronized (drainLock) {
+					count = buffer.drain(Log::deliver, BATCH_SIZE);
+				}
+			} while (count == BATCH_SIZE);
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(DRAIN_INTERVAL_MS));
+		}
 	}
 
 	/**
@@ -154,18 +233,18 @@ public class Log {
 	 * @return Compiled message with inlined arg values.
 	 */
 	private static String compile(String msg, Object[] args) {
+		if (args.length == 0)
+			return msg;
+		StringBuilder sb = new StringBuilder(msg.length() + 16 * args.length);
+		int start = 0;
+		int index;
 		int c = 0;
-		while(msg.contains("{}")) {
-			// Failsafe, shouldn't occur if logging is written correctly
-			if (c == args.length) 
-				return msg;
-			// Replace arg in pattern
-			Object arg = args[c];
-			String argStr = arg == null ? "null" : arg.toString();
-			msg = msg.replaceFirst("\\{}", Matcher.quoteReplacement(argStr));
-			c++;
+		// Patterns without a matching arg are left as-is, shouldn't occur if logging is written correctly
+		while (c < args.length && (index = msg.indexOf("{}", start)) >= 0) {
+			sb.append(msg, start, index).append(args[c++]);
+			start = index + 2;
 		}
-		return msg;
+		return sb.append(msg, start, msg.length()).toString();
 	}
 
 	static {
@@ -191,7 +270,7 @@ public class Log {
 		// Pattern
 		PatternLayoutEncoder encoder = new PatternLayoutEncoder();
 		encoder.setContext(loggerContext);
-		encoder.setPattern("%d{HH:mm:ss.SSS} [%thread] %-5level: %msg%n");
+		encoder.setPattern("%d{HH:mm:ss.SSS} [%X{" + THREAD_KEY + "}] %-5level: %msg%n");
 		encoder.start();
 		fileAppender.setEncoder(encoder);
 		// Start file appender
@@ -202,8 +281,32 @@ public class Log {
 		logbackLogger.addAppender(fileAppender);
 		logbackLogger.setAdditive(false);
 		fileLogger = logbackLogger;
+		// Instrumentation mode writes messages immediately, the host process may exit at any time
+		async = !InstrumentationResource.isActive();
+		if (async) {
+			Thread drainThread = new Thread(Log::drainLoop, "Recaf Log Thread");
+			drainThread.setDaemon(true);
+			drainThread.start();
+			Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "Recaf Log Flush"));
+		}
 		if (ioException != null) {
 			warn("Failed to delete old log file, will append instead");
 		}
 	}
+
+	/**
+	 * Formatted message waiting to be delivered.
+	 */
+	private static final class Message {
+		private final Level level;
+		private final String text;
+		private final Throwable thrown;
+		private final String thread = Thread.currentThread().getName();
+
+		private Message(Level level, String text, Throwable thrown) {
+			this.level = level;
+			this.text = text;
+			this.thrown = thrown;
+		}
+	}
 }
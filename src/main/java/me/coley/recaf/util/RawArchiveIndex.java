@@ -0,0 +1,233 @@
+package me.coley.recaf.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+
+/**
+ * Index of the central directory of an existing archive. Allows the compressed data of entries
+ * to be read as-is, so that unmodified content can be copied into a new archive without
+ * inflating and deflating it again.
+ *
+ * @author Matt
+ */
+public class RawArchiveIndex implements Closeable {
+	private static final int SIG_LOCAL = 0x04034b50;
+	private static final int SIG_CENTRAL = 0x02014b50;
+	private static final int SIG_END = 0x06054b50;
+	private static final int SIG_END_64 = 0x06064b50;
+	private static final int SIG_LOCATOR_64 = 0x07064b50;
+	private static final int END_SIZE = 22;
+	private static final int MAX_COMMENT = 0xFFFF;
+	private final Map<String, RawEntry> entries = new HashMap<>();
+	private final FileChannel channel;
+
+	private RawArchiveIndex(FileChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * @param path
+	 * 		Path to archive.
+	 *
+	 * @return Index of the archive's entries.
+	 *
+	 * @throws IOException
+	 * 		When the archive cannot be read, or its central directory is malformed.
+	 */
+	public static RawArchiveIndex open(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		RawArchiveIndex index = new RawArchiveIndex(channel);
+		try {
+			index.readCentralDirectory();
+		} catch(IOException | RuntimeException ex) {
+			channel.close();
+			throw ex instanceof IOException ? (IOException) ex : new IOException(ex);
+		}
+		return index;
+	}
+
+	/**
+	 * @param name
+	 * 		Entry name.
+	 *
+	 * @return Entry info, or {@code null} if no usable entry by the name exists.
+	 */
+	public RawEntry get(String name) {
+		return entries.get(name);
+	}
+
+	/**
+	 * @param entry
+	 * 		Entry to read.
+	 *
+	 * @return Compressed content of the entry, exactly as stored in the archive.
+	 *
+	 * @throws IOException
+	 * 		When the content cannot be read.
+	 */
+	public byte[] readRaw(RawEntry entry) throws IOException {
+		ByteBuffer header = read(entry.localOffset, 30);
+		if (header.getInt(0) != SIG_LOCAL)
+			throw new IOException("Invalid local header for: " + entry.name);
+		int nameLen = header.getShort(26) & 0xFFFF;
+		int extraLen = header.getShort(28) & 0xFFFF;
+		ByteBuffer data = read(entry.localOffset + 30 + nameLen + extraLen, (int) entry.compressedSize);
+		return data.array();
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private void readCentralDirectory() throws IOException {
+		long size = channel.size();
+		int tailLen = (int) Math.min(size, END_SIZE + MAX_COMMENT);
+		ByteBuffer tail = read(size - tailLen, tailLen);
+		int endPos = -1;
+		for (int i = tailLen - END_SIZE; i >= 0; i--) {
+			if (tail.getInt(i) == SIG_END) {
+				endPos = i;
+				break;
+			}
+		}
+		if (endPos < 0)
+			throw new IOException("No end of central directory record");
+		long count = tail.getShort(endPos + 10) & 0xFFFF;
+		long cdSize = tail.getInt(endPos + 12) & 0xFFFFFFFFL;
+		long cdOffset = tail.getInt(endPos + 16) & 0xFFFFFFFFL;
+		// Check for zip64 end record
+		long locatorPos = size - tailLen + endPos - 20;
+		if (locatorPos >= 0) {
+			ByteBuffer locator = read(locatorPos, 20);
+			if (locator.getInt(0) == SIG_LOCATOR_64) {
+				ByteBuffer end64 = read(locator.getLong(8), 56);
+				if (end64.getInt(0) != SIG_END_64)
+					throw new IOException("Invalid zip64 end of central directory record");
+				count = end64.getLong(32);
+				cdSize = end64.getLong(40);
+				cdOffset = end64.getLong(48);
+			}
+		}
+		if (cdSize > Integer.MAX_VALUE)
+			throw new IOException("Central directory too large");
+		ByteBuffer cd = read(cdOffset, (int) cdSize);
+		int pos = 0;
+		for (long i = 0; i < count; i++) {
+			if (cd.getInt(pos) != SIG_CENTRAL)
+				throw new IOException("Invalid central directory header at: " + (cdOffset + pos));
+			int flags = cd.getShort(pos + 8) & 0xFFFF;
+			int method = cd.getShort(pos + 10) & 0xFFFF;
+			int crc = cd.getInt(pos + 16);
+			long compressedSize = cd.getInt(pos + 20) & 0xFFFFFFFFL;
+			long size32 = cd.getInt(pos + 24) & 0xFFFFFFFFL;
+			int nameLen = cd.getShort(pos + 28) & 0xFFFF;
+			int extraLen = cd.getShort(pos + 30) & 0xFFFF;
+			int commentLen = cd.getShort(pos + 32) & 0xFFFF;
+			long localOffset = cd.getInt(pos + 42) & 0xFFFFFFFFL;
+			String name = new String(cd.array(), pos + 46, nameLen, StandardCharsets.UTF_8);
+			// Resolve zip64 values from the extra field
+			long uncompressedSize = size32;
+			int extra = pos + 46 + nameLen;
+			int extraEnd = extra + extraLen;
+			while (extra + 4 <= extraEnd) {
+				int id = cd.getShort(extra) & 0xFFFF;
+				int len = cd.getShort(extra + 2) & 0xFFFF;
+				if (id == 0x0001) {
+					int field = extra + 4;
+					if (size32 == 0xFFFFFFFFL && field + 8 <= extraEnd) {
+						uncompressedSize = cd.getLong(field);
+						field += 8;
+					}
+					if (compressedSize == 0xFFFFFFFFL && field + 8 <= extraEnd) {
+						compressedSize = cd.getLong(field);
+						field += 8;
+					}
+					if (localOffset == 0xFFFFFFFFL && field + 8 <= extraEnd)
+						localOffset = cd.getLong(field);
+				}
+				extra += 4 + len;
+			}
+			pos = extraEnd + commentLen;
+			// Skip entries we cannot copy as-is: encrypted, unknown compression, or duplicate names
+			// - Duplicates are common in obfuscated archives, and we do not know which one was loaded
+			boolean encrypted = (flags & 1) != 0;
+			boolean knownMethod = method == ZipEntry.STORED || method == ZipEntry.DEFLATED;
+			if (encrypted || !knownMethod || compressedSize > Integer.MAX_VALUE)
+				continue;
+			RawEntry entry = new RawEntry(name, method, crc, compressedSize, uncompressedSize, localOffset);
+			if (entries.putIfAbsent(name, entry) != null)
+				entries.put(name, RawEntry.DUPLICATE);
+		}
+		entries.values().removeIf(e -> e == RawEntry.DUPLICATE);
+	}
+
+	private ByteBuffer read(long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			int r = channel.read(buffer, position + buffer.position());
+			if (r < 0)
+				throw new IOException("Unexpected end of archive");
+		}
+		return buffer;
+	}
+
+	/**
+	 * Central directory information of an archive entry.
+	 */
+	public static class RawEntry {
+		private static final RawEntry DUPLICATE = new RawEntry(null, -1, 0, 0, 0, 0);
+		private final String name;
+		private final int method;
+		private final int crc;
+		private final long compressedSize;
+		private final long size;
+		private final long localOffset;
+
+		private RawEntry(String name, int method, int crc, long compressedSize, long size, long localOffset) {
+			this.name = name;
+			this.method = method;
+			this.crc = crc;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.localOffset = localOffset;
+		}
+
+		/**
+		 * @return Compression method, either {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED}.
+		 */
+		public int getMethod() {
+			return method;
+		}
+
+		/**
+		 * @return CRC-32 of the uncompressed content.
+		 */
+		public int getCrc() {
+			return crc;
+		}
+
+		/**
+		 * @return Size of the compressed content.
+		 */
+		public long getCompressedSize() {
+			return compressedSize;
+		}
+
+		/**
+		 * @return Size of the uncompressed content.
+		 */
+		public long getSize() {
+			return size;
+		}
+	}
+}
@@ -4,9 +4,9 @@ import jregex.Matcher;
 import jregex.Pattern;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Misc regex patterns.
@@ -16,7 +16,7 @@ import java.util.Map;
 public class RegexUtil {
 	private static final Pattern WORD = new Pattern("\\s*(\\S+)\\s*");
 	private static final String[] EMPTY = new String[0];
-	private static final Map<String, Pattern> PATTERNS = new HashMap<>();
+	private static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
 
 	/**
 	 * @param text
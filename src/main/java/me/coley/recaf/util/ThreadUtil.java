@@ -5,6 +5,7 @@ import javafx.application.Platform;
 import javafx.concurrent.Task;
 
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -123,30 +124,30 @@ public class ThreadUtil {
 	 */
 	public static <T> void runSupplyConsumer(Supplier<T> supplier, long supplierTimeout, Runnable timeoutAction,
 											 Consumer<T> consumer, Consumer<Throwable> handler) {
-		new Thread(() -> {
+		// Whichever of completion, failure, or timeout happens first is handled
+		AtomicBoolean handled = new AtomicBoolean();
+		Future<?> future = service.submit(() -> {
 			try {
-				// Attempt to compute value within given time
-				Future<T> future = service.submit(supplier::get);
-				T value = future.get(supplierTimeout, TimeUnit.MILLISECONDS);
-				// Execute action with value
-				Platform.runLater(() -> consumer.accept(value));
-			} catch(CancellationException | InterruptedException | TimeoutException r) {
-				// Timed out
-				if (timeoutAction != null)
-					timeoutAction.run();
-			} catch(ExecutionException e) {
+				T value = supplier.get();
+				if (handled.compareAndSet(false, true))
+					Platform.runLater(() -> consumer.accept(value));
+			} catch(Throwable t) {
 				// Supplier encountered an error
-				// - Actual cause is wrapped twice
-				Throwable cause = e.getCause().getCause();
-				if(handler != null)
-					handler.accept(cause);
+				// - Actual cause is usually wrapped by the supplier
+				if (handled.compareAndSet(false, true) && handler != null)
+					handler.accept(t.getCause() != null ? t.getCause() : t);
 			}
-			catch(Throwable t) {
-				// Unknown error
-				if(handler != null)
-					handler.accept(t);
-			}
-		}).start();
+		});
+		if (supplierTimeout != Long.MAX_VALUE) {
+			scheduledService.schedule(() -> {
+				if (handled.compareAndSet(false, true)) {
+					// Timed out
+					future.cancel(true);
+					if (timeoutAction != null)
+						timeoutAction.run();
+				}
+			}, supplierTimeout, TimeUnit.MILLISECONDS);
+		}
 	}
 
 	/**
@@ -71,7 +71,7 @@ public class UiUtil {
 	public static String getResourceIcon(JavaResource resource) {
 		if(resource instanceof DirectoryResource)
 			return "icons/folder-source.png";
-		else if(resource instanceof ArchiveResource)
+		else if(resource instanceof ArchiveResource || resource instanceof NestedArchiveResource)
 			return "icons/jar.png";
 		else if(resource instanceof ClassResource)
 			return "icons/binary.png";
@@ -0,0 +1,117 @@
+package me.coley.recaf.util.struct;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ * <br>
+ * Each slot has a sequence number telling producers and the consumer whose turn it is to use the slot,
+ * so producers only contend on claiming a position.
+ *
+ * @param <T>
+ * 		Element type.
+ *
+ * @author Matt
+ */
+public class RingBuffer<T> {
+	private final AtomicReferenceArray<T> slots;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();
+	private final int mask;
+	private long head;
+
+	/**
+	 * @param capacity
+	 * 		Minimum number of elements the buffer can hold. Rounded up to a power of two.
+	 */
+	public RingBuffer(int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be positive");
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		slots = new AtomicReferenceArray<>(size);
+		sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++)
+			sequences.set(i, i);
+		mask = size - 1;
+	}
+
+	/**
+	 * May be called from any thread.
+	 *
+	 * @param value
+	 * 		Element to add.
+	 *
+	 * @return {@code true} if the element was added, {@code false} if the buffer is full.
+	 */
+	public boolean offer(T value) {
+		long pos = tail.get();
+		while (true) {
+			int index = (int) (pos & mask);
+			long diff = sequences.get(index) - pos;
+			if (diff == 0) {
+				if (tail.compareAndSet(pos, pos + 1)) {
+					slots.lazySet(index, value);
+					// Publish the element to the consumer
+					sequences.set(index, pos + 1);
+					return true;
+				}
+				pos = tail.get();
+			} else if (diff < 0) {
+				// Slot still holds an element from the previous lap
+				return false;
+			} else {
+				// Another producer claimed the position
+				pos = tail.get();
+			}
+		}
+	}
+
+	/**
+	 * Must only be called by one thread at a time.
+	 *
+	 * @return Next element, or {@code null} if there is none.
+	 */
+	public T poll() {
+		int index = (int) (head & mask);
+		if (sequences.get(index) != head + 1)
+			return null;
+		T value = slots.get(index);
+		slots.lazySet(index, null);
+		// Hand the slot back to producers for the next lap
+		sequences.set(index, head + mask + 1);
+		head++;
+		return value;
+	}
+
+	/**
+	 * Must only be called by one thread at a time.
+	 *
+	 * @param consumer
+	 * 		Action to run on each element.
+	 * @param max
+	 * 		Maximum number of elements to take.
+	 *
+	 * @return Number of elements taken.
+	 */
+	public int drain(Consumer<T> consumer, int max) {
+		int count = 0;
+		T value;
+		while (count < max && (value = poll()) != null) {
+			consumer.accept(value);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * @return Maximum number of elements the buffer can hold.
+	 */
+	public int capacity() {
+		return mask + 1;
+	}
+}
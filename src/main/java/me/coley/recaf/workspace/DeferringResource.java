@@ -95,8 +95,8 @@ public class DeferringResource extends JavaResource {
 	}
 
 	@Override
-	public boolean createClassSave(String name) {
-		return backing.createClassSave(name);
+	public boolean createClassSave(String name, boolean quiet) {
+		return backing.createClassSave(name, quiet);
 	}
 
 	@Override
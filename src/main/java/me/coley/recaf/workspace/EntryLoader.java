@@ -30,6 +30,8 @@ public class EntryLoader {
 	private final Map<String, byte[]> files = new HashMap<>();
 	private final Map<String, byte[]> invalidClasses = new HashMap<>();
 	private final Map<String, byte[]> invalidJunkClasses = new HashMap<>();
+	private int duplicateClasses;
+	private int junkEntries;
 
 	/**
 	 * @return New archive entry loader instance.
@@ -62,24 +64,22 @@ public class EntryLoader {
 				// If the data can be read, overwrite whatever entry we have previously seen
 				new ClassFileReader().read(value);
 				invalidClasses.put(entryName, value);
-				if (invalidJunkClasses.remove(entryName) != null) {
-					debug("Replacing class '{}' previously associated with non-class junk with" +
-							" newly discovered class data", entryName);
-				}
+				if (invalidJunkClasses.remove(entryName) != null)
+					junkEntries++;
 				return false;
 			} catch (InvalidClassException e) {
 				// Skip if we think this is junk data that is masking an invalid class we already recovered
 				if (invalidClasses.containsKey(entryName)) {
-					debug("Skipping masking junk data for class '{}'", entryName);
+					junkEntries++;
 					return false;
 				}
 				// Doesnt look like the CAFEDOOD backup parser can read it either.
 				if (invalidJunkClasses.containsKey(entryName)) {
 					// Already seen it. Probably dupe junk data.
-					debug("Skipping duplicate invalid class '{}'", entryName);
+					junkEntries++;
 					return false;
 				} else {
-					debug("Invalid class detected, not parsable by backup reader \"{}\"", entryName);
+					trace("Invalid class detected, not parsable by backup reader \"{}\"", entryName);
 				}
 				invalidJunkClasses.put(entryName, value);
 				return false;
@@ -88,7 +88,7 @@ public class EntryLoader {
 		// Check if we've already seen this class
 		String clsName = new ClassReader(value).getClassName();
 		if (classes.containsKey(clsName)) {
-			debug("Skipping duplicate class '{}'", clsName);
+			duplicateClasses++;
 			return false;
 		}
 		// Load the class
@@ -209,6 +209,7 @@ public class EntryLoader {
 	 * Called when all classes in the jar have been read.
 	 */
 	public void finishClasses() {
+		int patchedClasses = 0;
 		Collection<LoadInterceptorPlugin> interceptors =
 				PluginsManager.getInstance().ofType(LoadInterceptorPlugin.class);
 		for (Map.Entry<String, byte[]> e : invalidClasses.entrySet()) {
@@ -218,7 +219,7 @@ public class EntryLoader {
 				// Attempt to patch invalid classes.
 				// If the internal measure fails, allow plugins to patch invalid classes
 				if (!ClassUtil.isValidClass(value)) {
-					debug("Attempting to patch invalid class '{}'", entryName);
+					trace("Attempting to patch invalid class '{}'", entryName);
 					byte[] patched = IllegalBytecodePatcherUtil.fix(classes, invalidClasses, value);
 					if (ClassUtil.isValidClass(patched)) {
 						value = patched;
@@ -235,8 +236,8 @@ public class EntryLoader {
 				}
 				// Check if class is valid
 				if (ClassUtil.isValidClass(value)) {
-					debug("Illegal class patching success!");
 					handleAddClass(entryName, value);
+					patchedClasses++;
 				} else {
 					warn("Invalid class \"{}\" - Cannot be parsed with ASM reader\n" +
 							"Adding as a file instead.", entryName);
@@ -251,6 +252,12 @@ public class EntryLoader {
 				continue;
 			onFile(e.getKey(), e.getValue());
 		}
+		// Summarize instead of logging each class, archives may hold thousands of junk entries
+		if (duplicateClasses > 0 || junkEntries > 0 || !invalidClasses.isEmpty())
+			debug("Loaded {} classes: skipped {} duplicate classes and {} junk entries, patched {} of {} invalid classes",
+					classes.size(), duplicateClasses, junkEntries, patchedClasses, invalidClasses.size());
+		duplicateClasses = 0;
+		junkEntries = 0;
 	}
 
 	/**
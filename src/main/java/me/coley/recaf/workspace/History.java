@@ -128,11 +128,25 @@ public class History {
 	 * 		Changed value.
 	 */
 	public void push(byte[] modified) {
+		push(modified, false);
+	}
+
+	/**
+	 * Updates current value, pushing the latest value into the history
+	 * stack.
+	 *
+	 * @param modified
+	 * 		Changed value.
+	 * @param quiet
+	 * 		{@code true} to not log the save, for bulk changes that log their own summary.
+	 */
+	public void push(byte[] modified, boolean quiet) {
 		stack.push(modified);
 		times.push(Instant.now());
 		// Don't log the initial push
 		if(stack.size() > 1) {
-			info("Saved '{}' - {} total", name, stack.size());
+			if (!quiet)
+				info("Saved '{}' - {} total", name, stack.size());
 			atInitial = false;
 		}
 	}
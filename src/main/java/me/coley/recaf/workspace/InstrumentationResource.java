@@ -9,10 +9,10 @@ import me.coley.recaf.plugin.api.StartupPlugin;
 import me.coley.recaf.util.ClasspathUtil;
 import me.coley.recaf.util.IOUtil;
 import me.coley.recaf.util.Log;
+import me.coley.recaf.util.struct.ListeningMap;
 import org.objectweb.asm.Type;
 import org.plugface.core.annotations.Plugin;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.instrument.ClassDefinition;
@@ -25,6 +25,9 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Importable instrumentation resource.
+ * <br>
+ * The names of loaded classes are listed when the resource is loaded, but their bytecode is only
+ * fetched once a class is requested.
  *
  * @author Matt
  */
@@ -34,6 +37,8 @@ public class InstrumentationResource extends JavaResource {
 			"Instrumentation");
 	public static Instrumentation instrumentation;
 	private static InstrumentationResource instance;
+	private final RuntimeClassMap runtimeClasses = new RuntimeClassMap();
+	private volatile boolean listedClasses;
 
 	/**
 	 * Constructs an instrumentation resource.
@@ -67,7 +72,8 @@ public class InstrumentationResource extends JavaResource {
 		try {
 			// Add transformer to add new classes to the map
 			ClassFileTransformer transformer = new InstrumentationResourceTransformer();
-			instrumentation.addTransformer(transformer);
+			// Allow retransforming, so the bytecode of classes without a class file can be fetched
+			instrumentation.addTransformer(transformer, true);
 			// Setup hook for workspace.
 			PluginsManager.getInstance()
 					.addPlugin(new InstrumentationPlugin(instance, transformer));
@@ -96,27 +102,46 @@ public class InstrumentationResource extends JavaResource {
 			return;
 		}
 		Log.info("Preparing to redefine {} classes", dirty.size());
-		ClassDefinition[] definitions = new ClassDefinition[dirty.size()];
-		int i = 0;
+		List<ClassDefinition> definitions = new ArrayList<>();
 		for (String name : dirty) {
-			String clsName = name.replace('/', '.');
-			Class<?> cls = Class.forName(clsName, false, ClasspathUtil.scl);
 			byte[] value = getClasses().get(name);
 			if (value == null)
 				throw new IllegalStateException("Failed to fetch code for class: " + name);
-			definitions[i] = new ClassDefinition(cls, value);
-			i++;
+			// Skip classes that have been changed back to the definition the VM already has
+			if (runtimeClasses.isUnchanged(name, value))
+				continue;
+			definitions.add(new ClassDefinition(runtimeClasses.getRuntimeClass(name), value));
 		}
 		// Apply new definitions
-		instrumentation.redefineClasses(definitions);
+		if (!definitions.isEmpty())
+			instrumentation.redefineClasses(definitions.toArray(new ClassDefinition[0]));
 		// We don't want to continually re-apply changes that don't need to be updated
+		runtimeClasses.markApplied(dirty);
 		getDirtyClasses().clear();
-		Log.info("Successfully redefined {} classes", definitions.length);
+		Log.info("Successfully redefined {} classes, {} were unchanged",
+				definitions.size(), dirty.size() - definitions.size());
+	}
+
+	@Override
+	public ListeningMap<String, byte[]> getClasses() {
+		ListeningMap<String, byte[]> classes = super.getClasses();
+		// Listed after the map is loaded, since creating the initial save states would fetch every class
+		if (!listedClasses) {
+			synchronized(runtimeClasses) {
+				if (!listedClasses) {
+					listedClasses = true;
+					listRuntimeClasses();
+				}
+			}
+		}
+		return classes;
 	}
 
 	@Override
 	protected Map<String, byte[]> loadClasses() throws IOException {
-		return Collections.emptyMap();
+		// Names are listed again on the next request for the classes
+		listedClasses = false;
+		return runtimeClasses;
 	}
 
 	@Override
@@ -126,6 +151,8 @@ public class InstrumentationResource extends JavaResource {
 
 	@Override
 	protected Map<String, byte[]> copyMap(Map<String, byte[]> map) {
+		if (map == runtimeClasses)
+			return map;
 		return new ConcurrentHashMap<>(map);
 	}
 
@@ -134,10 +161,7 @@ public class InstrumentationResource extends JavaResource {
 		return "Instrumentation";
 	}
 
-	private void loadRuntimeClasses(Map<String, byte[]> map) throws IOException {
-		// iterate over loaded classes
-		ByteArrayOutputStream out = new ByteArrayOutputStream();
-		byte[] buffer = new byte[8192];
+	private void listRuntimeClasses() {
 		// Let's skipp all Recaf's classes.
 		for(Class<?> c : instrumentation.getAllLoadedClasses()) {
 			if (ClasspathUtil.isRecafClass(c)) {
@@ -150,18 +174,40 @@ public class InstrumentationResource extends JavaResource {
 			// Skip array types
 			if (name.contains("["))
 				continue;
-			String path = name.concat(".class");
-			ClassLoader loader = c.getClassLoader();
-			try(InputStream in = (loader != null) ?
-					loader.getResourceAsStream(path) :
-					ClassLoader.getSystemResourceAsStream(path)) {
-				if(in != null) {
-					out.reset();
-					getClasses().put(name, IOUtil.toByteArray(in, out, buffer));
-					getDirtyClasses().remove(name);
-				}
+			runtimeClasses.addLoaded(name, c);
+		}
+	}
+
+	/**
+	 * @param name
+	 * 		Internal class name.
+	 * @param cls
+	 * 		Loaded class.
+	 *
+	 * @return Bytecode of the class, or {@code null} if it could not be found.
+	 */
+	private byte[] fetchRuntimeClass(String name, Class<?> cls) {
+		String path = name.concat(".class");
+		ClassLoader loader = cls.getClassLoader();
+		try(InputStream in = (loader != null) ?
+				loader.getResourceAsStream(path) :
+				ClassLoader.getSystemResourceAsStream(path)) {
+			if(in != null)
+				return IOUtil.toByteArray(in);
+		} catch(IOException ex) {
+			Log.error(ex, "Failed to read class file of: {}", name);
+		}
+		// Classes defined at runtime have no class file, but the transformer receives their
+		// bytecode when they are retransformed.
+		if (instrumentation.isRetransformClassesSupported() && instrumentation.isModifiableClass(cls)) {
+			try {
+				instrumentation.retransformClasses(cls);
+				return runtimeClasses.fetched.get(name);
+			} catch(Throwable t) {
+				Log.error(t, "Failed to retransform class: {}", name);
 			}
 		}
+		return null;
 	}
 
 	/**
@@ -206,8 +252,8 @@ public class InstrumentationResource extends JavaResource {
 					if (firstTransformerLoad) {
 						firstTransformerLoad = false;
 						// There is a time gap between when we first called 'loadClasses' and this gets called.
-						// We need to fetch those classes here so we have everything available.
-						res.loadRuntimeClasses(getInstance().getClasses());
+						// We need to list those classes here so we have everything available.
+						res.getClasses();
 					}
 				}
 			} catch(IOException ex) { return buffer; }
@@ -222,10 +268,165 @@ public class InstrumentationResource extends JavaResource {
 			res.getClasses().put(internal, buffer);
 			// Make sure the class is NOT marked as dirty after initially registering it
 			res.getDirtyClasses().remove(internal);
+			res.runtimeClasses.markApplied(Collections.singleton(internal));
 			return buffer;
 		}
 	}
 
+	/**
+	 * Map of loaded classes that fetches their bytecode when first requested.
+	 * <br>
+	 * The bytecode a class had before being modified in Recaf is kept until the change is applied
+	 * to the VM, so that classes changed back to their original bytecode are not redefined.
+	 * <br>
+	 * Whether a loaded class has bytecode available is only known once it is fetched.
+	 * So {@link #size()} counts every listed class, while iteration skips, and removes, classes
+	 * whose bytecode could not be fetched. Once every class has been fetched the two agree.
+	 */
+	private final class RuntimeClassMap extends AbstractMap<String, byte[]> {
+		private final Set<String> names = ConcurrentHashMap.newKeySet();
+		private final Map<String, Class<?>> loaded = new ConcurrentHashMap<>();
+		private final Map<String, byte[]> fetched = new ConcurrentHashMap<>();
+		private final Map<String, byte[]> applied = new ConcurrentHashMap<>();
+		private final Map<String, Object> fetchLocks = new ConcurrentHashMap<>();
+
+		private void addLoaded(String name, Class<?> cls) {
+			loaded.putIfAbsent(name, cls);
+			names.add(name);
+		}
+
+		private Class<?> getRuntimeClass(String name) throws ClassNotFoundException {
+			Class<?> cls = loaded.get(name);
+			if (cls != null)
+				return cls;
+			return Class.forName(name.replace('/', '.'), false, ClasspathUtil.scl);
+		}
+
+		private boolean isUnchanged(String name, byte[] value) {
+			byte[] original = applied.get(name);
+			return original != null && Arrays.equals(original, value);
+		}
+
+		private void markApplied(Collection<String> classNames) {
+			applied.keySet().removeAll(classNames);
+		}
+
+		@Override
+		public byte[] get(Object key) {
+			byte[] value = fetched.get(key);
+			if (value != null)
+				return value;
+			Class<?> cls = loaded.get(key);
+			if (cls == null)
+				return null;
+			String name = (String) key;
+			// Never lock on the class itself, the VM and the application may also lock on it
+			Object lock = fetchLocks.computeIfAbsent(name, k -> new Object());
+			try {
+				synchronized(lock) {
+					value = fetched.get(name);
+					if (value != null)
+						return value;
+					value = fetchRuntimeClass(name, cls);
+					if (value == null) {
+						// Nothing to show for the class
+						remove(name);
+						return null;
+					}
+					fetched.put(name, value);
+				}
+			} finally {
+				// Later lookups find the fetched value before needing a lock
+				fetchLocks.remove(name, lock);
+			}
+			createClassSave(name);
+			return value;
+		}
+
+		@Override
+		public byte[] put(String key, byte[] value) {
+			byte[] old = fetched.put(key, value);
+			if (old != null)
+				applied.putIfAbsent(key, old);
+			names.add(key);
+			return old;
+		}
+
+		@Override
+		public byte[] remove(Object key) {
+			names.remove(key);
+			loaded.remove(key);
+			applied.remove(key);
+			return fetched.remove(key);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return names.contains(key);
+		}
+
+		/**
+		 * @return Number of listed classes, including those not yet fetched which may turn out to
+		 * have no bytecode available.
+		 */
+		@Override
+		public int size() {
+			return names.size();
+		}
+
+		@Override
+		public void clear() {
+			names.clear();
+			loaded.clear();
+			fetched.clear();
+			applied.clear();
+		}
+
+		@Override
+		public Set<String> keySet() {
+			return Collections.unmodifiableSet(names);
+		}
+
+		@Override
+		public Set<Entry<String, byte[]>> entrySet() {
+			return new AbstractSet<Entry<String, byte[]>>() {
+				@Override
+				public Iterator<Entry<String, byte[]>> iterator() {
+					Iterator<String> it = names.iterator();
+					return new Iterator<Entry<String, byte[]>>() {
+						private Entry<String, byte[]> next;
+
+						@Override
+						public boolean hasNext() {
+							// Skip classes that have no bytecode available
+							while (next == null && it.hasNext()) {
+								String name = it.next();
+								byte[] value = get(name);
+								if (value != null)
+									next = new SimpleImmutableEntry<>(name, value);
+							}
+							return next != null;
+						}
+
+						@Override
+						public Entry<String, byte[]> next() {
+							if (!hasNext())
+								throw new NoSuchElementException();
+							Entry<String, byte[]> entry = next;
+							next = null;
+							return entry;
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return names.size();
+				}
+			};
+		}
+	}
+
 	@Override
 	public ResourceLocation getShortName() {
 		return LOCATION;
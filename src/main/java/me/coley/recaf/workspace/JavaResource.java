@@ -13,9 +13,15 @@ import me.coley.recaf.util.struct.ListeningMap;
 import org.apache.commons.io.IOUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.zip.*;
 
 import static me.coley.recaf.util.Log.*;
@@ -37,6 +43,9 @@ public abstract class JavaResource {
 	private final Set<String> dirtyFiles = new HashSet<>();
 	private final Map<String, SourceCode> classSource = new HashMap<>();
 	private final Map<String, Javadocs> classDocs = new HashMap<>();
+	private final Map<String, List<String>> classSourceEntries = new HashMap<>();
+	private final Map<String, String> classDocsEntries = new HashMap<>();
+	private final Map<String, NestedArchiveResource> nestedArchives = new ConcurrentHashMap<>();
 	private Path classSourceFile;
 	private Path classDocsFile;
 	private boolean isPrimary;
@@ -135,9 +144,19 @@ public abstract class JavaResource {
 	}
 
 	/**
+	 * Any attached sources not yet parsed are parsed by this call.
+	 *
 	 * @return Map of class names to sources.
 	 */
-	public Map<String, SourceCode> getClassSources() {
+	public synchronized Map<String, SourceCode> getClassSources() {
+		if (!classSourceEntries.isEmpty()) {
+			List<String> entries = classSourceEntries.values().stream()
+					.flatMap(Collection::stream)
+					.collect(Collectors.toList());
+			classSource.putAll(parseEntries(classSourceFile, entries, this::parseSource,
+					SourceCode::getInternalName));
+			classSourceEntries.clear();
+		}
 		return classSource;
 	}
 
@@ -147,14 +166,46 @@ public abstract class JavaResource {
 	 *
 	 * @return Source code wrapper for class.
 	 */
-	public SourceCode getClassSource(String name) {
-		return classSource.get(name);
+	public synchronized SourceCode getClassSource(String name) {
+		SourceCode code = classSource.get(name);
+		if (code != null)
+			return code;
+		List<String> entries = classSourceEntries.get(getSimpleName(name));
+		if (entries == null)
+			return null;
+		// Archives may put sources in a directory of their own, like "src/" or a module directory,
+		// so any entry ending with the class's path is a candidate.
+		for (Iterator<String> it = entries.iterator(); it.hasNext();) {
+			String entry = it.next();
+			String path = entry.substring(0, entry.length() - ".java".length());
+			if (!path.equals(name) && !path.endsWith("/" + name))
+				continue;
+			it.remove();
+			code = parseEntry(classSourceFile, entry, this::parseSource);
+			if (code == null)
+				continue;
+			// The declared package may not match the entry's directory
+			classSource.put(code.getInternalName(), code);
+			if (name.equals(code.getInternalName()))
+				break;
+			code = null;
+		}
+		if (entries.isEmpty())
+			classSourceEntries.remove(getSimpleName(name));
+		return code;
 	}
 
 	/**
+	 * Any attached docs not yet parsed are parsed by this call.
+	 *
 	 * @return Map of class names to javadocs.
 	 */
-	public Map<String, Javadocs> getClassDocs() {
+	public synchronized Map<String, Javadocs> getClassDocs() {
+		if (!classDocsEntries.isEmpty()) {
+			classDocs.putAll(parseEntries(classDocsFile, classDocsEntries.values(), this::parseDocs,
+					Javadocs::getInternalName));
+			classDocsEntries.clear();
+		}
 		return classDocs;
 	}
 
@@ -164,8 +215,17 @@ public abstract class JavaResource {
 	 *
 	 * @return Javadocs wrapper for class.
 	 */
-	public Javadocs getClassDocs(String name) {
-		return classDocs.get(name);
+	public synchronized Javadocs getClassDocs(String name) {
+		Javadocs docs = classDocs.get(name);
+		if (docs != null)
+			return docs;
+		String entry = classDocsEntries.remove(name);
+		if (entry == null)
+			return null;
+		docs = parseEntry(classDocsFile, entry, this::parseDocs);
+		if (docs != null)
+			classDocs.put(name, docs);
+		return docs;
 	}
 
 	/**
@@ -177,12 +237,26 @@ public abstract class JavaResource {
 	 * @return {@code true} if the save-state was created successfully.
 	 */
 	public boolean createClassSave(String name) {
+		return createClassSave(name, false);
+	}
+
+	/**
+	 * Create a save-state for the class.
+	 *
+	 * @param name
+	 * 		Class name.
+	 * @param quiet
+	 * 		{@code true} to not log the save, for bulk changes that log their own summary.
+	 *
+	 * @return {@code true} if the save-state was created successfully.
+	 */
+	public boolean createClassSave(String name, boolean quiet) {
 		if (isPrimary()) {
 			byte[] value = cachedClasses.get(name);
 			if (value == null)
 				return false;
 			History history = classHistory.computeIfAbsent(name, key -> new History(cachedClasses, key));
-			history.push(value);
+			history.push(value, quiet);
 		}
 		return true;
 	}
@@ -288,6 +362,32 @@ public abstract class JavaResource {
 		return cachedFiles;
 	}
 
+	/**
+	 * @return Names of files that are archives, which can be loaded with {@link #getNestedArchive(String)}.
+	 */
+	public Set<String> getNestedArchiveNames() {
+		Set<String> names = new TreeSet<>();
+		getFiles().forEach((name, value) -> {
+			if (NestedArchiveResource.isArchive(name, value))
+				names.add(name);
+		});
+		return names;
+	}
+
+	/**
+	 * @param name
+	 * 		Name of an archive file in this resource.
+	 *
+	 * @return Resource of the archive's content, or {@code null} if the file is not an archive.
+	 * The same resource is returned for each call with the same name.
+	 */
+	public NestedArchiveResource getNestedArchive(String name) {
+		NestedArchiveResource nested = nestedArchives.get(name);
+		if (nested == null && NestedArchiveResource.isArchive(name, getFiles().get(name)))
+			nested = nestedArchives.computeIfAbsent(name, n -> new NestedArchiveResource(this, n));
+		return nested;
+	}
+
 	/**
 	 * Refresh this resource.
 	 */
@@ -302,6 +402,9 @@ public abstract class JavaResource {
 		cachedClasses.setBacking(null);
 		classDocs.clear();
 		classSource.clear();
+		classDocsEntries.clear();
+		classSourceEntries.clear();
+		nestedArchives.clear();
 		classHistory.clear();
 	}
 
@@ -334,71 +437,189 @@ public abstract class JavaResource {
 	protected abstract Map<String, byte[]> loadFiles() throws IOException;
 
 	/**
+	 * @param path
+	 * 		Internal name or entry path, without the file extension.
+	 *
+	 * @return Last segment of the path.
+	 */
+	private static String getSimpleName(String path) {
+		return path.substring(path.lastIndexOf('/') + 1);
+	}
+
+	/**
+	 * Sources in archives are only indexed here, see {@link #getClassSource(String)}.
+	 *
 	 * @param path
 	 * 		File containing source code.
 	 *
-	 * @return Map of class names to their source code wrappers.
+	 * @return Map of class names to their source code wrappers, for sources that were parsed up-front.
 	 *
 	 * @throws IOException
 	 * 		When the file could not be fetched or parsed.
 	 */
 	protected Map<String, SourceCode> loadSources(Path path) throws IOException {
-		Map<String, SourceCode> map = new HashMap<>();
-		// Will throw IO exception if the file couldn't be opened as an archive
-		try (ZipFile zip = new ZipFile(path.toFile())) {
-			Enumeration<? extends ZipEntry> entries = zip.entries();
-			while (entries.hasMoreElements()) {
-				ZipEntry entry = entries.nextElement();
-				String name = entry.getName();
-				if (!name.endsWith(".java"))
-					continue;
-				String src = IOUtils.toString(zip.getInputStream(entry), StandardCharsets.UTF_8);
-				try {
-					SourceCode code = new SourceCode(this, src);
-					code.analyze();
-					map.put(code.getInternalName(), code);
-				} catch(SourceCodeException ex) {
-					error(ex, "Failed to parse source: {} in {}", name, path);
-				}
-			}
-		}
-		return map;
+		indexEntries(path, name -> name.endsWith(".java")).forEach((key, entry) ->
+				classSourceEntries.computeIfAbsent(getSimpleName(key), k -> new ArrayList<>()).add(entry));
+		return Collections.emptyMap();
 	}
 
 	/**
+	 * Docs in archives are only indexed here, see {@link #getClassDocs(String)}.
+	 *
 	 * @param path
 	 * 		File containing documentation.
 	 *
-	 * @return Map of class names to their documentation.
+	 * @return Map of class names to their documentation, for docs that were parsed up-front.
 	 *
 	 * @throws IOException
 	 * 		When the file could not be fetched or parsed.
 	 */
 	protected Map<String, Javadocs> loadDocs(Path path) throws IOException {
-		Map<String, Javadocs> map = new HashMap<>(512, 1F);
+		classDocsEntries.putAll(indexEntries(path, name -> name.endsWith(".html") &&
+				!name.contains("-") && !name.contains("index")));
+		return Collections.emptyMap();
+	}
+
+	/**
+	 * @param path
+	 * 		Archive to index.
+	 * @param filter
+	 * 		Filter of entry names to index.
+	 *
+	 * @return Map of entry names, without their extension, to entry names.
+	 *
+	 * @throws IOException
+	 * 		When the file could not be opened as an archive.
+	 */
+	private static Map<String, String> indexEntries(Path path, Predicate<String> filter) throws IOException {
+		Map<String, String> map = new HashMap<>();
 		// Will throw IO exception if the file couldn't be opened as an archive
 		try (ZipFile zip = new ZipFile(path.toFile())) {
 			Enumeration<? extends ZipEntry> entries = zip.entries();
 			while (entries.hasMoreElements()) {
-				ZipEntry entry = entries.nextElement();
-				String name = entry.getName();
-				if (!name.endsWith(".html"))
-					continue;
-				if (name.contains("-") || name.contains("index"))
-					continue;
-				String src = IOUtils.toString(zip.getInputStream(entry), StandardCharsets.UTF_8);
-				try {
-					Javadocs docs = new Javadocs(name, src);
-					docs.parse();
-					map.put(docs.getInternalName(), docs);
-				} catch(DocumentationParseException ex) {
-					error(ex, "Failed to parse docs: {} in {}", name, path);
-				}
+				String name = entries.nextElement().getName();
+				if (filter.test(name))
+					map.put(name.substring(0, name.lastIndexOf('.')), name);
 			}
 		}
 		return map;
 	}
 
+	/**
+	 * @param path
+	 * 		Archive to read from.
+	 * @param entry
+	 * 		Name of entry to parse.
+	 * @param parser
+	 * 		Parser of entry text, yielding {@code null} on failure.
+	 * @param <T>
+	 * 		Parsed type.
+	 *
+	 * @return Parsed entry, or {@code null} if it could not be read or parsed.
+	 */
+	private static <T> T parseEntry(Path path, String entry, BiFunction<String, String, T> parser) {
+		try (ZipFile zip = new ZipFile(path.toFile())) {
+			ZipEntry zipEntry = zip.getEntry(entry);
+			return zipEntry == null ? null : parser.apply(entry, readEntry(zip, zipEntry));
+		} catch(IOException ex) {
+			error(ex, "Failed to read entry: {} in {}", entry, path);
+			return null;
+		}
+	}
+
+	/**
+	 * @param path
+	 * 		Archive to read from.
+	 * @param entries
+	 * 		Names of entries to parse.
+	 * @param parser
+	 * 		Parser of entry text, yielding {@code null} on failure.
+	 * @param key
+	 * 		Class name of a parsed entry.
+	 * @param <T>
+	 * 		Parsed type.
+	 *
+	 * @return Map of class names to parsed entries.
+	 */
+	private static <T> Map<String, T> parseEntries(Path path, Collection<String> entries,
+												   BiFunction<String, String, T> parser,
+												   Function<T, String> key) {
+		try (ZipFile zip = new ZipFile(path.toFile())) {
+			// Entries are independent of one another, so they can be parsed concurrently.
+			// Each entry's text is only held while it is being parsed.
+			return entries.parallelStream()
+					.map(entry -> {
+						try {
+							ZipEntry zipEntry = zip.getEntry(entry);
+							return zipEntry == null ? null : parser.apply(entry, readEntry(zip, zipEntry));
+						} catch(IOException ex) {
+							error(ex, "Failed to read entry: {} in {}", entry, path);
+							return null;
+						}
+					})
+					.filter(Objects::nonNull)
+					.collect(Collectors.toMap(key, value -> value, (a, b) -> a));
+		} catch(IOException ex) {
+			error(ex, "Failed to open archive: {}", path);
+			return Collections.emptyMap();
+		}
+	}
+
+	/**
+	 * @param zip
+	 * 		Archive to read from.
+	 * @param entry
+	 * 		Entry to read.
+	 *
+	 * @return Text of entry.
+	 *
+	 * @throws IOException
+	 * 		When the entry could not be read.
+	 */
+	private static String readEntry(ZipFile zip, ZipEntry entry) throws IOException {
+		try (InputStream in = zip.getInputStream(entry)) {
+			return IOUtils.toString(in, StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * @param entry
+	 * 		Name of entry.
+	 * @param text
+	 * 		Source code text.
+	 *
+	 * @return Source code wrapper, or {@code null} if the source could not be parsed.
+	 */
+	private SourceCode parseSource(String entry, String text) {
+		try {
+			SourceCode code = new SourceCode(this, text);
+			code.analyze();
+			return code;
+		} catch(SourceCodeException ex) {
+			error(ex, "Failed to parse source: {} in {}", entry, classSourceFile);
+			return null;
+		}
+	}
+
+	/**
+	 * @param entry
+	 * 		Name of entry.
+	 * @param text
+	 * 		Documentation html.
+	 *
+	 * @return Documentation wrapper, or {@code null} if the docs could not be parsed.
+	 */
+	private Javadocs parseDocs(String entry, String text) {
+		try {
+			Javadocs docs = new Javadocs(entry, text);
+			docs.parse();
+			return docs;
+		} catch(DocumentationParseException ex) {
+			error(ex, "Failed to parse docs: {} in {}", entry, classDocsFile);
+			return null;
+		}
+	}
+
 	/**
 	 * Loads the source code from the given file.
 	 *
@@ -411,11 +632,12 @@ public abstract class JavaResource {
 	 * @throws IOException
 	 * 		When the path could not be fetched or parsed.
 	 */
-	public boolean setClassSources(Path path) throws  IOException {
+	public synchronized boolean setClassSources(Path path) throws  IOException {
 		this.classSourceFile = path;
 		this.classSource.clear();
+		this.classSourceEntries.clear();
 		this.classSource.putAll(loadSources(path));
-		return !classSource.isEmpty();
+		return !classSource.isEmpty() || !classSourceEntries.isEmpty();
 	}
 
 	/**
@@ -430,11 +652,12 @@ public abstract class JavaResource {
 	 * @throws IOException
 	 * 		When the path could not be fetched or parsed.
 	 */
-	public boolean setClassDocs(Path path) throws  IOException {
+	public synchronized boolean setClassDocs(Path path) throws  IOException {
 		this.classDocsFile = path;
 		this.classDocs.clear();
+		this.classDocsEntries.clear();
 		this.classDocs.putAll(loadDocs(path));
-		return !classDocs.isEmpty();
+		return !classDocs.isEmpty() || !classDocsEntries.isEmpty();
 	}
 
 	/**
@@ -463,10 +686,12 @@ public abstract class JavaResource {
 	 * then it's result may have {@link com.github.javaparser.ParseResult#isSuccessful()} be {@code false}.
 	 */
 	public Map<String, ParseResult<CompilationUnit>> analyzeSource(Workspace workspace) {
-		Map<String,ParseResult<CompilationUnit>> copy = new HashMap<>();
-		classSource.forEach((name, value) -> {
+		Map<String,ParseResult<CompilationUnit>> copy = new ConcurrentHashMap<>();
+		// Each source is parsed with its own parser, sharing the workspace's parser configuration
+		getClassSources().entrySet().parallelStream().forEach(e -> {
+			String name = e.getKey();
 			try {
-				copy.put(name, value.analyze(workspace));
+				copy.put(name, e.getValue().analyze(workspace));
 			} catch(SourceCodeException ex) {
 				error(ex, "Failed to parse source: {}", name);
 				copy.put(name, ex.getResult());
@@ -0,0 +1,144 @@
+package me.coley.recaf.workspace;
+
+import me.coley.recaf.util.IOUtil;
+
+import java.io.*;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Archive stored as a file of another resource, such as the libraries bundled in a fat jar.
+ * <br>
+ * The archive is read from the bytes of the parent resource's file, without extracting it to disk.
+ * Like any resource, its content is only read when first requested.
+ *
+ * @author Matt
+ */
+public class NestedArchiveResource extends JavaResource {
+	private final JavaResource parent;
+	private final String entryName;
+
+	/**
+	 * Constructs a nested archive resource.
+	 *
+	 * @param parent
+	 * 		Resource containing the archive.
+	 * @param entryName
+	 * 		Name of the archive file in the parent resource.
+	 */
+	public NestedArchiveResource(JavaResource parent, String entryName) {
+		super(ResourceKind.NESTED);
+		this.parent = parent;
+		this.entryName = entryName;
+	}
+
+	/**
+	 * @param name
+	 * 		File name.
+	 * @param value
+	 * 		File content.
+	 *
+	 * @return {@code true} if the file is an archive that can be loaded as a nested resource.
+	 */
+	public static boolean isArchive(String name, byte[] value) {
+		String lower = name.toLowerCase();
+		if (!lower.endsWith(".jar") && !lower.endsWith(".war") && !lower.endsWith(".zip"))
+			return false;
+		// Local file header signature
+		return value != null && value.length >= 4 &&
+				value[0] == 'P' && value[1] == 'K' && value[2] == 3 && value[3] == 4;
+	}
+
+	/**
+	 * @return Resource containing the archive.
+	 */
+	public JavaResource getParent() {
+		return parent;
+	}
+
+	/**
+	 * @return Name of the archive file in the parent resource.
+	 */
+	public String getEntryName() {
+		return entryName;
+	}
+
+	@Override
+	protected Map<String, byte[]> loadClasses() throws IOException {
+		EntryLoader loader = getEntryLoader();
+		boolean war = entryName.toLowerCase().endsWith(".war");
+		readEntries((entry, in) -> {
+			if (!loader.isValidClassEntry(entry)) {
+				// Maybe it is actually valid?
+				if (!loader.isValidClassFile(new ByteArrayInputStream(in)))
+					return;
+			}
+			// There is no possible way a "class" under 30 bytes is valid
+			if (in.length < 30)
+				return;
+			String name = entry.getName();
+			if (war && name.startsWith(WarResource.WAR_CLASS_PREFIX))
+				name = name.substring(WarResource.WAR_CLASS_PREFIX.length());
+			loader.onClass(name, in);
+		});
+		loader.finishClasses();
+		return loader.getClasses();
+	}
+
+	@Override
+	protected Map<String, byte[]> loadFiles() throws IOException {
+		EntryLoader loader = getEntryLoader();
+		readEntries((entry, in) -> {
+			if (loader.isValidClassEntry(entry))
+				return;
+			if (!loader.isValidFileEntry(entry))
+				return;
+			loader.onFile(entry.getName(), in);
+		});
+		loader.finishFiles();
+		return loader.getFiles();
+	}
+
+	/**
+	 * @param handler
+	 * 		Handler to call for each entry of the archive that is not skipped.
+	 *
+	 * @throws IOException
+	 * 		When the archive is no longer in the parent, or could not be read.
+	 */
+	private void readEntries(EntryHandler handler) throws IOException {
+		byte[] archive = parent.getFiles().get(entryName);
+		if (archive == null)
+			throw new IOException("The file \"" + entryName + "\" does not exist in " + parent);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(archive))) {
+			ZipEntry entry;
+			while ((entry = zis.getNextEntry()) != null) {
+				if (shouldSkip(entry.getName()))
+					continue;
+				out.reset();
+				handler.accept(entry, IOUtil.toByteArray(zis, out, buffer));
+			}
+		}
+	}
+
+	@Override
+	public ResourceLocation getShortName() {
+		String name = entryName.substring(entryName.lastIndexOf('/') + 1);
+		return LiteralResourceLocation.ofKind(ResourceKind.NESTED, name);
+	}
+
+	@Override
+	public ResourceLocation getName() {
+		return LiteralResourceLocation.ofKind(ResourceKind.NESTED, parent.getName() + "!/" + entryName);
+	}
+
+	/**
+	 * Handler of archive entries.
+	 */
+	private interface EntryHandler {
+		void accept(ZipEntry entry, byte[] content) throws IOException;
+	}
+}
@@ -3,9 +3,11 @@ package me.coley.recaf.workspace;
 import me.coley.recaf.Recaf;
 import me.coley.recaf.command.impl.Export;
 import me.coley.recaf.util.AccessFlag;
+import me.coley.recaf.util.ArchiveWriter;
 import me.coley.recaf.util.ClassUtil;
 import me.coley.recaf.util.Log;
 import me.coley.recaf.util.TypeUtil;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.clyze.jphantom.ClassMembers;
 import org.clyze.jphantom.JPhantom;
 import org.clyze.jphantom.Options;
@@ -17,15 +19,16 @@ import org.clyze.jphantom.adapters.ClassPhantomExtractor;
 import org.clyze.jphantom.hier.ClassHierarchy;
 import org.clyze.jphantom.hier.IncrementalClassHierarchy;
 import org.objectweb.asm.*;
+import org.objectweb.asm.commons.ClassRemapper;
+import org.objectweb.asm.commons.Remapper;
 import org.objectweb.asm.tree.ClassNode;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.stream.Collectors;
 
 /**
  * Resource for holding phantom references.
@@ -35,11 +38,15 @@ import java.util.jar.JarFile;
 public class PhantomResource extends JavaResource {
 	private static final ResourceLocation LOCATION = LiteralResourceLocation.ofKind(ResourceKind.JAR, "Phantoms");
 	private static final Path PHANTOM_DIR = Recaf.getDirectory("classpath").resolve("generated");
+	private static final int MAX_INCREMENTAL_CHANGES = 64;
 	// TODO: Update phantom refs when:
 	//  - using the recompilers
 	//  - assembling methods (just at startup?)
+	//  Unaffected updates are detected and skip generation, so repopulating after small changes is cheap.
 
 	// TODO: Add a visual indicator when this passes / fails
+	// Summary of the last populated classes, their bytecode is not kept
+	private Map<String, InputClass> lastInput;
 
 	/**
 	 * Constructs the phantom resource.
@@ -54,9 +61,10 @@ public class PhantomResource extends JavaResource {
 	 * @throws IOException
 	 * 		When the files cannot be deleted.
 	 */
-	public void clear() throws IOException {
+	public synchronized void clear() throws IOException {
 		// Clear internal
 		getClasses().clear();
+		lastInput = null;
 		// Clear file cache
 		Path input = PHANTOM_DIR.resolve("input.jar");
 		Path output = PHANTOM_DIR.resolve("output.jar");
@@ -67,8 +75,12 @@ public class PhantomResource extends JavaResource {
 	}
 
 	/**
-	 * Populates the current resource with phantom classes
-	 * and dumps the classes into {@code [RECAF]/classpath/generated/output.jar}
+	 * Populates the current resource with phantom classes.
+	 * The compiler reads them from this resource directly.
+	 * <br>
+	 * Generation is skipped when the classes are the same as the last populated classes, or when
+	 * the only changes are to a few classes that reference no missing types and keep their
+	 * inheritance.
 	 *
 	 * @param classes
 	 * 		Collection of classes to generate phantoms for.
@@ -76,53 +88,71 @@ public class PhantomResource extends JavaResource {
 	 * @throws IOException
 	 * 		Thrown when JPhantom cannot read from the temporary file where these classes are written to.
 	 */
-	public void populatePhantoms(Collection<byte[]> classes) throws IOException {
+	public synchronized void populatePhantoms(Collection<byte[]> classes) throws IOException {
 		Log.debug("Begin generating phantom classes, given {} input classes", classes.size());
+		// Read each class once
+		Map<String, ClassReader> readers = classes.parallelStream()
+				.map(ClassReader::new)
+				.collect(Collectors.toMap(ClassReader::getClassName, cr -> cr, (first, second) -> second));
+		Map<String, InputClass> input = readers.entrySet().parallelStream()
+				.collect(Collectors.toMap(Map.Entry::getKey, e -> new InputClass(e.getValue())));
+		if (lastInput != null) {
+			if (input.equals(lastInput)) {
+				Log.debug("Phantom input unchanged, keeping {} phantom classes", getClasses().size());
+				return;
+			}
+			if (isUnaffected(readers, input)) {
+				Log.debug("Phantom input changes reference no missing types, keeping {} phantom classes",
+						getClasses().size());
+				lastInput = input;
+				return;
+			}
+		}
+		generate(readers);
+		lastInput = input;
+	}
+
+	private void generate(Map<String, ClassReader> readers) throws IOException {
 		// Clear old classes
 		clear();
+		// JPhantom reads class members from an archive, so write the classes to a temp jar
 		Path input = PHANTOM_DIR.resolve("input.jar");
-		Path output = PHANTOM_DIR.resolve("output.jar");
-		// Write the parameter passed classes to a temp jar
 		Map<String, byte[]> classMap = new HashMap<>();
-		Map<Type, ClassNode> nodes = new HashMap<>();
-		classes.forEach(c -> {
-			ClassReader cr = new ClassReader(c);
-			ClassNode node = ClassUtil.getNode(cr, 0);
-			classMap.put(node.name + ".class", c);
-			nodes.put(Type.getObjectType(node.name), node);
-		});
-		Export.writeArchive(input.toFile(), classMap);
-		Log.debug("Wrote classes to temp file, starting phantom analysis...", classes.size());
+		readers.forEach((name, cr) -> classMap.put(name + ".class", cr.b));
+		Export.writeArchive(input.toFile(), classMap, ArchiveWriter.STORED, Collections.emptyList());
+		Map<Type, ClassNode> nodes = readers.values().parallelStream()
+				.collect(Collectors.toMap(cr -> Type.getObjectType(cr.getClassName()),
+						cr -> ClassUtil.getNode(cr, 0)));
+		Log.debug("Wrote classes to temp file, starting phantom analysis...");
 		// Read into JPhantom
 		Options.V().setSoftFail(true);
 		Options.V().setJavaVersion(8);
-		ClassHierarchy hierarchy = clsHierarchyFromArchive(new JarFile(input.toFile()));
-		ClassMembers members = ClassMembers.fromJar(new JarFile(input.toFile()), hierarchy);
-		classes.forEach(c -> {
-			ClassReader cr = new ClassReader(c);
+		ClassHierarchy hierarchy = clsHierarchyFromClasses(readers.values());
+		ClassMembers members;
+		try (JarFile jar = new JarFile(input.toFile())) {
+			members = ClassMembers.fromJar(jar, hierarchy);
+		}
+		// Constraints are recorded in JPhantom's global state machines, so extraction is not threaded
+		for (ClassReader cr : readers.values()) {
 			if (cr.getClassName().contains("$"))
-				return;
+				continue;
 			try {
 				cr.accept(new ClassPhantomExtractor(hierarchy, members), 0);
 			} catch (Throwable t) {
 				Log.debug("Phantom extraction failed: {}", t);
 			}
-		});
-		// Remove duplicate constraints for faster analysis
+		}
+		// Remove duplicate constraints for faster analysis.
+		// Constraints are compared by their text, which names the kind of constraint and its types.
 		Set<String> existingConstraints = new HashSet<>();
-		ClassAccessStateMachine.v().getConstraints().removeIf(c -> {
-			boolean isDuplicate = existingConstraints.contains(c.toString());
-			existingConstraints.add(c.toString());
-			return isDuplicate;
-		});
+		ClassAccessStateMachine.v().getConstraints().removeIf(c -> !existingConstraints.add(c.toString()));
 		// Execute and populate the current resource with generated classes
 		JPhantom phantom = new JPhantom(nodes, hierarchy, members);
 		phantom.run();
-		phantom.getGenerated().forEach((k, v) -> getClasses().put(k.getInternalName(), decorate(v)));
-		classMap.clear();
-		getClasses().forEach((k, v) -> classMap.put(k + ".class", v));
-		Export.writeArchive(output.toFile(), classMap);
-		Log.debug("Phantom analysis complete, cleaning temp file", classes.size());
+		Map<String, byte[]> generated = phantom.getGenerated().entrySet().parallelStream()
+				.collect(Collectors.toMap(e -> e.getKey().getInternalName(), e -> decorate(e.getValue())));
+		getClasses().putAll(generated);
+		Log.debug("Phantom analysis complete, cleaning temp file");
 		// Cleanup
 		Phantoms.refresh();
 		ClassAccessStateMachine.refresh();
@@ -132,53 +162,86 @@ public class PhantomResource extends JavaResource {
 	}
 
 	/**
-	 * This is copy pasted from JPhantom, modified to be more lenient towards obfuscated inputs.
+	 * @param readers
+	 * 		Map of class names to classes.
+	 * @param input
+	 * 		Map of class names to their summaries.
 	 *
-	 * @param file
-	 * 		Some jar file.
+	 * @return {@code true} when the changes since the last populated classes cannot require
+	 * different phantoms.
+	 */
+	private boolean isUnaffected(Map<String, ClassReader> readers, Map<String, InputClass> input) {
+		// Removed classes may need to be replaced by phantoms
+		if (!readers.keySet().containsAll(lastInput.keySet()))
+			return false;
+		int changes = 0;
+		for (ClassReader cr : readers.values()) {
+			String name = cr.getClassName();
+			InputClass current = input.get(name);
+			InputClass last = lastInput.get(name);
+			if (current.equals(last))
+				continue;
+			if (++changes > MAX_INCREMENTAL_CHANGES)
+				return false;
+			// Added classes may replace phantoms, and changes in inheritance affect phantom hierarchies
+			if (last == null ? getClasses().containsKey(name) : !last.isSameInheritance(current))
+				return false;
+			// References to phantoms or to missing types may need new phantom members or classes
+			for (String type : getReferencedTypes(cr))
+				if (!readers.containsKey(type) && (getClasses().containsKey(type) || !isRuntimeClass(type)))
+					return false;
+		}
+		return true;
+	}
+
+	private static Set<String> getReferencedTypes(ClassReader cr) {
+		Set<String> types = new HashSet<>();
+		cr.accept(new ClassRemapper(new ClassNode(), new Remapper() {
+			@Override
+			public String map(String internalName) {
+				types.add(internalName);
+				return internalName;
+			}
+		}), ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+		return types;
+	}
+
+	private static boolean isRuntimeClass(String name) {
+		return ClassLoader.getSystemResource(name + ".class") != null;
+	}
+
+	/**
+	 * This is copy pasted from JPhantom, modified to be more lenient towards obfuscated inputs,
+	 * and to read from the given classes instead of an archive.
 	 *
-	 * @return Class hierarchy.
+	 * @param classes
+	 * 		Some classes.
 	 *
-	 * @throws IOException
-	 * 		When the archive cannot be read.
+	 * @return Class hierarchy.
 	 */
-	private static ClassHierarchy clsHierarchyFromArchive(JarFile file) throws IOException {
-		try {
-			ClassHierarchy hierarchy = new IncrementalClassHierarchy();
-			for (Enumeration<JarEntry> e = file.entries(); e.hasMoreElements(); ) {
-				JarEntry entry = e.nextElement();
-				if (entry.isDirectory())
-					continue;
-				if (!entry.getName().endsWith(".class"))
-					continue;
-				try (InputStream stream = file.getInputStream(entry)) {
-					ClassReader reader = new ClassReader(stream);
-					String[] ifaceNames = reader.getInterfaces();
-					Type clazz = Type.getObjectType(reader.getClassName());
-					Type superclass = reader.getSuperName() == null ?
-							TypeUtil.OBJECT_TYPE : Type.getObjectType(reader.getSuperName());
-					Type[] ifaces = new Type[ifaceNames.length];
-					for (int i = 0; i < ifaces.length; i++)
-						ifaces[i] = Type.getObjectType(ifaceNames[i]);
-					// Add type to hierarchy
-					boolean isInterface = (reader.getAccess() & Opcodes.ACC_INTERFACE) != 0;
-					try {
-						if (isInterface) {
-							hierarchy.addInterface(clazz, ifaces);
-						} else {
-							hierarchy.addClass(clazz, superclass, ifaces);
-						}
-					} catch (Exception ex) {
-						Log.error(ex, "JPhantom: Hierarchy failure for: {}", clazz);
-					}
-				} catch (IOException ex) {
-					Log.error(ex, "JPhantom: IO Error reading from archive: {}", file.getName());
+	private static ClassHierarchy clsHierarchyFromClasses(Collection<ClassReader> classes) {
+		ClassHierarchy hierarchy = new IncrementalClassHierarchy();
+		for (ClassReader reader : classes) {
+			String[] ifaceNames = reader.getInterfaces();
+			Type clazz = Type.getObjectType(reader.getClassName());
+			Type superclass = reader.getSuperName() == null ?
+					TypeUtil.OBJECT_TYPE : Type.getObjectType(reader.getSuperName());
+			Type[] ifaces = new Type[ifaceNames.length];
+			for (int i = 0; i < ifaces.length; i++)
+				ifaces[i] = Type.getObjectType(ifaceNames[i]);
+			// Add type to hierarchy
+			boolean isInterface = (reader.getAccess() & Opcodes.ACC_INTERFACE) != 0;
+			try {
+				if (isInterface) {
+					hierarchy.addInterface(clazz, ifaces);
+				} else {
+					hierarchy.addClass(clazz, superclass, ifaces);
 				}
+			} catch (Exception ex) {
+				Log.error(ex, "JPhantom: Hierarchy failure for: {}", clazz);
 			}
-			return hierarchy;
-		} finally {
-			file.close();
 		}
+		return hierarchy;
 	}
 
 	/**
@@ -229,4 +292,42 @@ public class PhantomResource extends JavaResource {
 	public ResourceLocation getName() {
 		return LOCATION;
 	}
+
+	/**
+	 * Summary of an input class: a digest of its bytecode, and its inheritance.
+	 */
+	private static final class InputClass {
+		private final byte[] digest;
+		private final int access;
+		private final String superName;
+		private final String[] interfaces;
+
+		private InputClass(ClassReader reader) {
+			digest = DigestUtils.sha256(reader.b);
+			access = reader.getAccess();
+			superName = reader.getSuperName();
+			interfaces = reader.getInterfaces();
+		}
+
+		private boolean isSameInheritance(InputClass other) {
+			return access == other.access &&
+					Objects.equals(superName, other.superName) &&
+					Arrays.equals(interfaces, other.interfaces);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (!(o instanceof InputClass))
+				return false;
+			InputClass other = (InputClass) o;
+			return Arrays.equals(digest, other.digest) && isSameInheritance(other);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(digest);
+		}
+	}
 }
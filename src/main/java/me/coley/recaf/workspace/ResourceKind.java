@@ -11,6 +11,7 @@ package me.coley.recaf.workspace;
  *     <li><b>Maven</b> - Resource of multiple files in a maven artifact</li>
  *     <li><b>URL</b> - Resource hosted online, should map to either a {@link #CLASS} or {@link #JAR}</li>
  *     <li><b>Instrumentation</b> - Resource of from the current agent instrumentation</li>
+ *     <li><b>Nested</b> - Resource of an archive stored as a file of another resource</li>
  * </ul>
  *
  * @author Matt
@@ -44,6 +45,10 @@ public enum ResourceKind {
 	 * Resource of from the current agent instrumentation.
 	 */
 	INSTRUMENTATION,
+	/**
+	 * Resource of an archive stored as a file of another resource.
+	 */
+	NESTED,
 	/**
 	 * Resource for a debugger.
 	 */
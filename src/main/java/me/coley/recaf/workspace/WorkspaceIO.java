@@ -143,6 +143,12 @@ public class WorkspaceIO {
 				root.add("kind", "url");
 				root.add("source", url.getUrl().toString());
 				break;
+			case NESTED:
+				NestedArchiveResource nested = (NestedArchiveResource) resource;
+				root.add("kind", "nested");
+				root.add("source", nested.getEntryName());
+				root.add("parent", serializeBase(nested.getParent()));
+				break;
 			case INSTRUMENTATION:
 				root.add("kind", "instrumentation");
 				root.add("source", "n/a");
@@ -205,6 +211,12 @@ public class WorkspaceIO {
 			case "empty":
 				resource = new EmptyResource();
 				break;
+			case "nested":
+				JsonValue parent = jresource.get("parent");
+				if (parent == null || !parent.isObject())
+					throw new IllegalArgumentException("Invalid resource, nested parent not specified!");
+				resource = new NestedArchiveResource(deserializeBase(parent.asObject()), source);
+				break;
 			case "debugger":
 			case "instrumentation":
 				// Do nothing. Can't be deserialized.
@@ -0,0 +1,172 @@
+package me.coley.recaf.workspace;
+
+import me.coley.recaf.plugin.PluginsManager;
+import me.coley.recaf.plugin.api.ClassVisitorPlugin;
+import me.coley.recaf.plugin.api.WorkspaceTransformerPlugin;
+import me.coley.recaf.util.ClassUtil;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static me.coley.recaf.util.Log.*;
+
+/**
+ * Runs {@link WorkspaceTransformerPlugin transformer plugins} over the primary resource.
+ * <br>
+ * Classes are transformed in parallel and the changed classes are put into the resource once all
+ * classes are done, followed by a single update of the workspace's hierarchy. If a transformer fails
+ * on a class, that class is left unchanged. Changed classes are written through the active
+ * {@link ClassVisitorPlugin visitor plugins}.
+ *
+ * @author Matt
+ */
+public class WorkspaceTransformer {
+	private final Workspace workspace;
+
+	/**
+	 * @param workspace
+	 * 		Workspace to transform.
+	 */
+	public WorkspaceTransformer(Workspace workspace) {
+		this.workspace = workspace;
+	}
+
+	/**
+	 * Transform the primary resource with all active transformer plugins.
+	 *
+	 * @return Names of the changed classes, prior to the transformation.
+	 */
+	public Set<String> apply() {
+		return apply(PluginsManager.getInstance().ofType(WorkspaceTransformerPlugin.class));
+	}
+
+	/**
+	 * Transform the primary resource with the given transformers. Transformers are called for
+	 * each class in the given order.
+	 *
+	 * @param transformers
+	 * 		Transformers to apply.
+	 *
+	 * @return Names of the changed classes, prior to the transformation.
+	 */
+	public Set<String> apply(Collection<? extends WorkspaceTransformerPlugin> transformers) {
+		if (transformers.isEmpty())
+			return Collections.emptySet();
+		JavaResource primary = workspace.getPrimary();
+		Map<String, byte[]> updated = new ConcurrentHashMap<>();
+		new ArrayList<>(primary.getClasses().entrySet()).parallelStream().forEach(e -> {
+			byte[] code = transform(transformers, e.getValue());
+			if (code != null)
+				updated.put(e.getKey(), code);
+		});
+		commit(primary, updated);
+		info("Applied {} transformers, {} classes changed", transformers.size(), updated.size());
+		return updated.keySet();
+	}
+
+	/**
+	 * @param transformers
+	 * 		Transformers to apply.
+	 * @param code
+	 * 		Bytecode of class to transform.
+	 *
+	 * @return Bytecode of the transformed class, or {@code null} if no transformer changed the class.
+	 */
+	private byte[] transform(Collection<? extends WorkspaceTransformerPlugin> transformers, byte[] code) {
+		ClassReader reader = new ClassReader(code);
+		List<WorkspaceTransformerPlugin> targeting = transformers.stream()
+				.filter(transformer -> transformer.isTargeted(workspace, reader))
+				.collect(Collectors.toList());
+		if (targeting.isEmpty())
+			return null;
+		boolean skipDebug = targeting.stream().noneMatch(WorkspaceTransformerPlugin::isDebugInfoNeeded);
+		ClassNode node = transform(targeting, reader, skipDebug);
+		// Most classes are left unchanged, so only those that are changed are read again with their
+		// debug information, which would otherwise be removed when the class is written.
+		if (node != null && skipDebug)
+			node = transform(targeting, reader, false);
+		if (node == null)
+			return null;
+		try {
+			return write(node, ClassWriter.COMPUTE_FRAMES);
+		} catch(IllegalArgumentException ex) {
+			// ASM throws: "JSR/RET are not supported with computeFrames option"
+			// Classes using JSR/RET predate stack map frames, so they do not need them.
+			if (ex.getMessage() != null && ex.getMessage().contains("JSR/RET"))
+				return write(node, ClassWriter.COMPUTE_MAXS);
+			error(ex, "Failed to write the transformed class '{}'", reader.getClassName());
+			return null;
+		}
+	}
+
+	/**
+	 * @param transformers
+	 * 		Transformers to apply.
+	 * @param reader
+	 * 		Class to transform.
+	 * @param skipDebug
+	 * 		Whether to skip reading debug information.
+	 *
+	 * @return Transformed class, or {@code null} if no transformer changed the class or one failed.
+	 */
+	private ClassNode transform(List<WorkspaceTransformerPlugin> transformers, ClassReader reader,
+								boolean skipDebug) {
+		int readFlags = ClassReader.SKIP_FRAMES;
+		if (skipDebug)
+			readFlags |= ClassReader.SKIP_DEBUG;
+		ClassNode node = ClassUtil.getNode(reader, readFlags);
+		boolean changed = false;
+		for (WorkspaceTransformerPlugin transformer : transformers) {
+			try {
+				changed |= transformer.transform(workspace, node);
+			} catch(Throwable t) {
+				// The node may have been left partially modified, so none of the changes are kept
+				error(t, "Plugin '{}' threw exception when transforming the class '{}', skipping class",
+						transformer.getName(), reader.getClassName());
+				return null;
+			}
+		}
+		return changed ? node : null;
+	}
+
+	private byte[] write(ClassNode node, int writeFlags) {
+		ClassWriter cw = workspace.createWriter(writeFlags);
+		ClassVisitor visitor = cw;
+		for (ClassVisitorPlugin visitorPlugin : PluginsManager.getInstance()
+				.ofType(ClassVisitorPlugin.class)) {
+			visitor = visitorPlugin.intercept(visitor);
+		}
+		node.accept(visitor);
+		return cw.toByteArray();
+	}
+
+	/**
+	 * @param primary
+	 * 		Resource to update.
+	 * @param updated
+	 * 		Map of names of changed classes, prior to the transformation, to their new bytecode.
+	 */
+	private void commit(JavaResource primary, Map<String, byte[]> updated) {
+		if (updated.isEmpty())
+			return;
+		Map<String, byte[]> classes = primary.getClasses();
+		for (Map.Entry<String, byte[]> e : updated.entrySet()) {
+			String oldKey = e.getKey();
+			String newKey = new ClassReader(e.getValue()).getClassName();
+			if (!oldKey.equals(newKey))
+				classes.remove(oldKey);
+			// New classes are given their initial save state when put into the resource
+			boolean existing = classes.containsKey(newKey);
+			classes.put(newKey, e.getValue());
+			if (existing)
+				primary.createClassSave(newKey, true);
+		}
+		workspace.onPrimaryDefinitionChanges(updated.keySet());
+		workspace.getHierarchyGraph().refresh();
+	}
+}
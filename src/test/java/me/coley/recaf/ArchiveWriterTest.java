@@ -0,0 +1,97 @@
+package me.coley.recaf;
+
+import me.coley.recaf.util.ArchiveWriter;
+import me.coley.recaf.util.IOUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the parallel archive writer.
+ *
+ * @author Matt
+ */
+public class ArchiveWriterTest extends Base {
+	@Test
+	public void testRoundTrip(@TempDir Path dir) throws IOException {
+		Map<String, byte[]> content = readArchive(getClasspathFile("calc.jar"));
+		content.put("a/b/New.txt", "Hello world, hello world".getBytes(StandardCharsets.UTF_8));
+		for (int level : new int[] { Deflater.DEFAULT_COMPRESSION, ArchiveWriter.STORED, Deflater.BEST_COMPRESSION }) {
+			Path output = dir.resolve("out" + level + ".jar");
+			new ArchiveWriter(level).write(output, content);
+			Map<String, byte[]> written = readArchive(output);
+			assertEquals(content.keySet(), written.keySet());
+			content.forEach((name, value) -> assertArrayEquals(value, written.get(name)));
+		}
+	}
+
+	@Test
+	public void testStoredLevel(@TempDir Path dir) throws IOException {
+		Map<String, byte[]> content = readArchive(getClasspathFile("calc.jar"));
+		Path output = dir.resolve("out.jar");
+		ArchiveWriter writer = new ArchiveWriter(ArchiveWriter.STORED);
+		writer.addSource(getClasspathFile("calc.jar"));
+		writer.write(output, content);
+		try (ZipFile zip = new ZipFile(output.toFile())) {
+			for (ZipEntry entry : Collections.list(zip.entries()))
+				assertEquals(ZipEntry.STORED, entry.getMethod());
+		}
+	}
+
+	@Test
+	public void testRawCopyFromSource(@TempDir Path dir) throws IOException {
+		Path source = getClasspathFile("calc.jar");
+		Map<String, byte[]> content = readArchive(source);
+		String modified = "calc/Calculator.class";
+		content.put(modified, new byte[] { 1, 2, 3 });
+		Path output = dir.resolve("out.jar");
+		ArchiveWriter writer = new ArchiveWriter(Deflater.DEFAULT_COMPRESSION);
+		writer.addSource(source);
+		writer.write(output, content);
+		try (ZipFile original = new ZipFile(source.toFile()); ZipFile zip = new ZipFile(output.toFile())) {
+			for (ZipEntry entry : Collections.list(zip.entries())) {
+				if (entry.isDirectory() || entry.getName().equals(modified))
+					continue;
+				// Unmodified entries should be byte-for-byte copies of the original compressed data
+				ZipEntry originalEntry = original.getEntry(entry.getName());
+				assertEquals(originalEntry.getMethod(), entry.getMethod());
+				assertEquals(originalEntry.getCompressedSize(), entry.getCompressedSize());
+			}
+			assertArrayEquals(new byte[] { 1, 2, 3 }, readArchive(output).get(modified));
+		}
+	}
+
+	@Test
+	public void testManyEntries(@TempDir Path dir) throws IOException {
+		// Exceeds the entry limit of the standard end of central directory record
+		Map<String, byte[]> content = new HashMap<>();
+		for (int i = 0; i < 70_000; i++)
+			content.put("a/" + i, new byte[] { (byte) i });
+		Path output = dir.resolve("out.zip");
+		new ArchiveWriter(Deflater.DEFAULT_COMPRESSION).write(output, content);
+		try (ZipFile zip = new ZipFile(output.toFile())) {
+			// Includes the directory entry
+			assertEquals(content.size() + 1, zip.size());
+		}
+	}
+
+	private static Map<String, byte[]> readArchive(Path path) throws IOException {
+		Map<String, byte[]> map = new TreeMap<>();
+		try (ZipFile zip = new ZipFile(path.toFile())) {
+			for (ZipEntry entry : Collections.list(zip.entries())) {
+				if (!entry.isDirectory())
+					map.put(entry.getName(), IOUtil.toByteArray(zip.getInputStream(entry)));
+			}
+		}
+		return map;
+	}
+}
@@ -1,5 +1,6 @@
 package me.coley.recaf;
 
+import me.coley.recaf.parse.bytecode.IncrementalParser;
 import me.coley.recaf.parse.bytecode.Parse;
 import me.coley.recaf.parse.bytecode.ParseResult;
 import me.coley.recaf.parse.bytecode.exception.ASTParseException;
@@ -688,6 +689,51 @@ public class AssemblyAstTest {
 		}
 	}
 
+	@Nested
+	public class Incremental {
+		@Test
+		public void testReusesUnchangedLines() {
+			IncrementalParser parser = new IncrementalParser();
+			RootAST first = parser.parse("DEFINE static a()V\nstart:\nRETURN\nend:").getRoot();
+			AST definition = first.getAtLine(1);
+			AST end = first.getAtLine(4);
+			// Edit a line in the middle, lines before and after it are kept
+			RootAST second = parser.parse("DEFINE static a()V\nstart:\nNOP\nend:").getRoot();
+			assertSame(definition, second.getAtLine(1));
+			assertSame(end, second.getAtLine(4));
+			assertEquals("NOP", second.getAtLine(3).print());
+			// Insert a line in the middle, later lines are parsed again with their new line numbers
+			RootAST third = parser.parse("DEFINE static a()V\nstart:\nNOP\nRETURN\nend:").getRoot();
+			assertSame(definition, third.getAtLine(1));
+			AST shifted = third.getAtLine(5);
+			assertNotSame(end, shifted);
+			assertEquals(5, shifted.getLine());
+			assertEquals(5, ((LabelAST) shifted).getName().getLine());
+			assertEquals(Parse.parse("DEFINE static a()V\nstart:\nNOP\nRETURN\nend:").getRoot().print(),
+					third.print());
+			// Prior results are not modified
+			assertEquals(4, end.getLine());
+			assertEquals("RETURN", first.getAtLine(3).print());
+			assertEquals(4, first.getChildren().size());
+		}
+
+		@Test
+		public void testReportsProblemsAgain() {
+			IncrementalParser parser = new IncrementalParser();
+			assertErrors(() -> parser.parse("NOP\nACONST_OOF"));
+			assertErrors(() -> parser.parse("NOP\nNOP\nACONST_OOF"));
+			assertTrue(parser.parse("NOP\nNOP").isSuccess());
+		}
+
+		@Test
+		public void testAliasChangeUpdatesAllLines() {
+			IncrementalParser parser = new IncrementalParser();
+			parser.parse("ALIAS hello \"\"Hello\"\"\nLDC ${hello}");
+			RootAST root = parser.parse("ALIAS hello \"\"World\"\"\nLDC ${hello}").getRoot();
+			assertEquals("LDC \"World\"", root.getAtLine(2).print());
+		}
+	}
+
 	// ================================================================ //
 	// ============================= UTILS ============================ //
 	// ================================================================ //
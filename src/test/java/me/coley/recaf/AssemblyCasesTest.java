@@ -689,6 +689,33 @@ public class AssemblyCasesTest {
 		}
 	}
 
+	@Nested
+	public class FrameReuse {
+		@Test
+		public void testFramesReusedWhenCodeUnchanged() throws AssemblerException {
+			Recaf.getController().config().assembler().verify = true;
+			MethodAssembler assembler = new MethodAssembler("Test", Recaf.getController());
+			assembler.compile(parse("ICONST_0\nISTORE 0\nRETURN"));
+			Frame<AbstractValue>[] frames = assembler.getFrames();
+			// Comments and renamed labels do not change the generated code
+			assembler.compile(parseLit("DEFINE static func()V\n// hello\nFIRST:\nICONST_0\nISTORE 0\nRETURN\nLAST:\n"));
+			assertSame(frames, assembler.getFrames());
+			// Changed code must be analyzed again
+			assembler.compile(parse("ICONST_1\nISTORE 0\nRETURN"));
+			assertNotSame(frames, assembler.getFrames());
+		}
+
+		@Test
+		public void testFramesGeneratedWhenVerifyDisabled() throws AssemblerException {
+			Recaf.getController().config().assembler().verify = false;
+			MethodAssembler assembler = new MethodAssembler("Test", Recaf.getController());
+			assembler.compile(parse("ICONST_0\nISTORE 0\nRETURN"));
+			Frame<AbstractValue>[] frames = assembler.getFrames();
+			assertNotNull(frames);
+			assertSame(frames, assembler.getFrames());
+		}
+	}
+
 	// =============================================================== //
 
 	private static MethodNode compile(ParseResult<RootAST> result) throws AssemblerException {
@@ -1,12 +1,19 @@
 package me.coley.recaf;
 
 import me.coley.recaf.compiler.*;
+import me.coley.recaf.workspace.EmptyResource;
+import me.coley.recaf.workspace.JavaResource;
 import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
 
 import javax.tools.Diagnostic;
 import javax.tools.DiagnosticListener;
 
+import java.util.Collections;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.objectweb.asm.Opcodes.*;
 
 
 /**
@@ -84,4 +91,40 @@ public class CompilerTest {
 		assertNotNull(nodebug);
 		assertTrue(debug.length > nodebug.length);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Tests referencing classes that only exist in a resource.
+	 */
+	@Test
+	public void testResourceClassPath() {
+		// Generate a class that does not exist on the classpath
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC, "generated/Greeter", null, "java/lang/Object", null);
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_STATIC, "greet", "()Ljava/lang/String;", null, null);
+		mv.visitCode();
+		mv.visitLdcInsn("Hello");
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		cw.visitEnd();
+		JavaResource resource = new EmptyResource();
+		resource.getClasses().put("generated/Greeter", cw.toByteArray());
+		// source code
+		String s = "public class HelloWorld {" +
+				"  public static void main(String args[])" +
+				"  {" +
+				"    System.out.println(generated.Greeter.greet());" +
+				"  }" +
+				"}";
+		JavacCompiler withResource = new JavacCompiler();
+		withResource.addUnit("HelloWorld", s);
+		withResource.setClassPathResources(Collections.singletonList(resource));
+		withResource.setCompileListener(FAIL_ON_ERROR);
+		assertTrue(withResource.compile());
+		assertNotNull(withResource.getUnitCode("HelloWorld"));
+		// Without the resource the class cannot be resolved
+		JavacCompiler withoutResource = new JavacCompiler();
+		withoutResource.addUnit("HelloWorld", s);
+		assertFalse(withoutResource.compile());
+	}
+}
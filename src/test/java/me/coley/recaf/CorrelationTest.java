@@ -4,6 +4,7 @@ import me.coley.recaf.graph.flow.FlowBuilder;
 import me.coley.recaf.graph.flow.FlowVertex;
 import me.coley.recaf.mapping.Correlation;
 import me.coley.recaf.mapping.CorrelationResult;
+import me.coley.recaf.mapping.FingerprintCorrelation;
 import me.coley.recaf.workspace.*;
 import org.junit.jupiter.api.*;
 import org.objectweb.asm.ClassReader;
@@ -84,6 +85,21 @@ public class CorrelationTest extends Base {
 			// 7 instance method renames
 			assertEquals(20, mappings.size());
 		}
+
+		@Test
+		public void testFingerprintMappingsInObfuscatedJar() {
+			// Run fingerprint analysis, which does not need entry points
+			Map<String, String> mappings = new FingerprintCorrelation(base, target).analyze();
+			// 8 class renames
+			// 5 static method renames
+			// 7 instance method renames
+			// 3 field renames
+			assertEquals(23, mappings.size());
+			assertEquals("calc/Calculator", mappings.get("n"));
+			assertEquals("evaluate", mappings.get("n.j(ILjava/lang/String;)D"));
+			assertEquals("accept", mappings.get("q.t(Ljava/lang/String;)D"));
+			assertEquals("MAX_DEPTH", mappings.get("n.q"));
+		}
 	}
 
 	/**
@@ -174,5 +190,13 @@ public class CorrelationTest extends Base {
 			// However, there should be NO mappings since the jar has no identifiers renamed.
 			assertEquals(0, mappings.size());
 		}
+
+		@Test
+		public void testFingerprintMappingsInModifiedJar() {
+			// The modified main method does not affect the rest of the analysis,
+			// and there are no renamed identifiers to map.
+			Map<String, String> mappings = new FingerprintCorrelation(base, target).analyze();
+			assertEquals(0, mappings.size());
+		}
 	}
 }
@@ -7,7 +7,12 @@ import me.coley.recaf.workspace.JarResource;
 import me.coley.recaf.workspace.Workspace;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import me.coley.recaf.util.ClassUtil;
 import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.*;
 
 import java.io.File;
 import java.io.IOException;
@@ -23,12 +28,13 @@ import static org.junit.jupiter.api.Assertions.*;
  * @author Matt
  */
 public class FlowGraphTest extends Base {
+	private Workspace workspace;
 	private FlowGraph graph;
 
 	@BeforeEach
 	public void setup() throws IOException {
 		Path file = getClasspathFile("calls.jar");
-		Workspace workspace = new Workspace(new JarResource(file));
+		workspace = new Workspace(new JarResource(file));
 		graph = workspace.getFlowGraph();
 	}
 
@@ -102,6 +108,121 @@ public class FlowGraphTest extends Base {
 		assertEquals(interfaceThing, calledInterface);
 	}
 
+	@Test
+	public void testCallers() {
+		// one -> two --> three --> one
+		FlowVertex one = graph.getVertex("test/Loopback", "one", "()V");
+		FlowVertex three = graph.getVertex("test/Loopback", "three", "()V");
+		Set<FlowVertex> callers = graph.getCallers("test/Loopback", "one", "()V");
+		assertEquals(1, callers.size());
+		assertEquals(three, callers.iterator().next());
+		// Both child methods call into other classes
+		FlowVertex callsParent = graph.getVertex("test/Child", "callParentThing", "()V");
+		assertTrue(graph.getCallers("test/Parent", "thing", "()V").contains(callsParent));
+		assertTrue(graph.getCallees("test/Loopback", "three", "()V").contains(one));
+	}
+
+	@Test
+	public void testCallersUpdatedOnRemoval() {
+		assertEquals(1, graph.getCallers("test/Loopback", "one", "()V").size());
+		// Removing the class removes the calls it made
+		workspace.getPrimary().getClasses().remove("test/Loopback");
+		assertTrue(graph.getCallers("test/Loopback", "one", "()V").isEmpty());
+	}
+
+	@Test
+	public void testMethodNameWithSpace() {
+		// Obfuscated classes may use names with spaces, which are legal in the JVM
+		String name = "one two";
+		ClassNode node = ClassUtil.getNode(new ClassReader(workspace.getRawClass("test/Loopback")), 0);
+		for (MethodNode method : node.methods) {
+			if (method.name.equals("one"))
+				method.name = name;
+			for (AbstractInsnNode insn : method.instructions)
+				if (insn instanceof MethodInsnNode && ((MethodInsnNode) insn).name.equals("one"))
+					((MethodInsnNode) insn).name = name;
+		}
+		ClassWriter cw = new ClassWriter(0);
+		node.accept(cw);
+		workspace.getPrimary().getClasses().put("test/Loopback", cw.toByteArray());
+		FlowVertex three = graph.getVertex("test/Loopback", "three", "()V");
+		FlowVertex renamed = getSingleEdgeOther(three);
+		assertEquals(name, renamed.getName());
+		assertEquals("()V", renamed.getDesc());
+		Set<FlowVertex> callers = graph.getCallers("test/Loopback", name, "()V");
+		assertEquals(1, callers.size());
+		assertEquals(three, callers.iterator().next());
+	}
+
+	@Test
+	public void testCallersOfLaterAddedClass() {
+		// Calls to a class missing from the workspace are dropped until the class is added
+		workspace.getPrimary().getClasses().put("test/Loopback", redirectCall("test/Later", "run"));
+		assertEquals(0, graph.getCallers("test/Later", "run", "()V").size());
+		workspace.getPrimary().getClasses().put("test/Later", createClass("test/Later", "run"));
+		FlowVertex three = graph.getVertex("test/Loopback", "three", "()V");
+		Set<FlowVertex> callers = graph.getCallers("test/Later", "run", "()V");
+		assertEquals(1, callers.size());
+		assertEquals(three, callers.iterator().next());
+	}
+
+	@Test
+	public void testQueryWhileClassIsUpdated() {
+		// Listeners are called before the class is updated, querying then must not hide the update
+		workspace.getPrimary().getClasses().put("test/Later", createClass("test/Later", "run"));
+		workspace.getPrimary().getClasses().getPutListeners().add((name, code) ->
+				graph.getCallers("test/Later", "run", "()V"));
+		workspace.getPrimary().getClasses().put("test/Loopback", redirectCall("test/Later", "run"));
+		Set<FlowVertex> callers = graph.getCallers("test/Later", "run", "()V");
+		assertEquals(1, callers.size());
+		assertEquals("three", callers.iterator().next().getName());
+	}
+
+	/**
+	 * @param owner
+	 * 		New owner of the call to {@code one()} in {@code test/Loopback.three()}.
+	 * @param name
+	 * 		New name of the called method.
+	 *
+	 * @return Bytecode of {@code test/Loopback} with the call redirected.
+	 */
+	private byte[] redirectCall(String owner, String name) {
+		ClassNode node = ClassUtil.getNode(new ClassReader(workspace.getRawClass("test/Loopback")), 0);
+		for (MethodNode method : node.methods) {
+			if (!method.name.equals("three"))
+				continue;
+			for (AbstractInsnNode insn : method.instructions) {
+				if (insn instanceof MethodInsnNode && ((MethodInsnNode) insn).name.equals("one")) {
+					((MethodInsnNode) insn).owner = owner;
+					((MethodInsnNode) insn).name = name;
+				}
+			}
+		}
+		ClassWriter cw = new ClassWriter(0);
+		node.accept(cw);
+		return cw.toByteArray();
+	}
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 * @param method
+	 * 		Name of a static method to declare.
+	 *
+	 * @return Bytecode of a class declaring the method.
+	 */
+	private static byte[] createClass(String name, String method) {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null);
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, method, "()V", null, null);
+		mv.visitCode();
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
 	/**
 	 * @param vertex
 	 * 		Vertex with one edge.
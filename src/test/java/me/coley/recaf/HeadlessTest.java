@@ -4,13 +4,16 @@ import com.strobel.core.Mapping;
 import me.coley.recaf.control.headless.HeadlessController;
 import me.coley.recaf.mapping.MappingImpl;
 import me.coley.recaf.mapping.Mappings;
+import me.coley.recaf.parse.bytecode.BatchAssembler;
+import me.coley.recaf.parse.bytecode.BatchDisassembler;
+import me.coley.recaf.parse.bytecode.exception.AssemblerException;
 import me.coley.recaf.workspace.JavaResource;
 import org.junit.jupiter.api.Test;
 import org.objectweb.asm.ClassReader;
 
 import java.io.ByteArrayInputStream;
 import java.lang.reflect.Method;
-import java.util.Map;
+import java.util.*;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
 
@@ -57,6 +60,28 @@ public class HeadlessTest extends Base {
 		assertEquals(mainClass, "some/pkg/Main");
 	}
 
+	@Test
+	public void batchAssemblyTest() throws Exception {
+		HeadlessController controller = new HeadlessController(null, null);
+		controller.setup();
+		invokeRun(controller, "loadworkspace " + getClasspathFile("calc.jar").normalize().toAbsolutePath());
+		// Round trip of whole classes
+		List<String> names = Arrays.asList("calc/Constant", "calc/MatchUtil");
+		String document = new BatchDisassembler(controller.getWorkspace(), ClassReader.SKIP_FRAMES)
+				.disassemble(names);
+		BatchAssembler assembler = new BatchAssembler(controller);
+		assembler.add("document", document);
+		Map<String, byte[]> updated = assembler.assemble();
+		assertEquals(names, new ArrayList<>(updated.keySet()));
+		for (Map.Entry<String, byte[]> e : updated.entrySet())
+			assertEquals(e.getKey(), new ClassReader(e.getValue()).getClassName());
+		// Problems are reported relative to the document
+		BatchAssembler broken = new BatchAssembler(controller);
+		broken.add("broken", "CLASS calc/Constant\n\nDEFINE PUBLIC test()V\nNOT_AN_OPCODE\nRETURN");
+		AssemblerException ex = assertThrows(AssemblerException.class, broken::assemble);
+		assertEquals(4, ex.getLine());
+	}
+
 	private static void invokeRun(HeadlessController controller, String cmd) throws Exception {
 		Method m = controller.getClass().getDeclaredMethod("handle", String.class);
 		m.setAccessible(true);
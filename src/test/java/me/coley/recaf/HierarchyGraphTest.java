@@ -3,6 +3,7 @@ package me.coley.recaf;
 import me.coley.recaf.graph.ClassDfsSearch;
 import me.coley.recaf.graph.SearchResult;
 import me.coley.recaf.graph.inheritance.*;
+import me.coley.recaf.util.ClassUtil;
 import me.coley.recaf.workspace.JarResource;
 import me.coley.recaf.workspace.Workspace;
 import org.junit.jupiter.api.*;
@@ -22,12 +23,13 @@ import static org.junit.jupiter.api.Assertions.*;
  * @author Matt
  */
 public class HierarchyGraphTest extends Base {
+	private Workspace workspace;
 	private HierarchyGraph graph;
 
 	@BeforeEach
 	public void setup() throws IOException {
 		Path file = getClasspathFile("inherit.jar");
-		Workspace workspace = new Workspace(new JarResource(file));
+		workspace = new Workspace(new JarResource(file));
 		graph = workspace.getHierarchyGraph();
 	}
 
@@ -118,6 +120,21 @@ public class HierarchyGraphTest extends Base {
 		assertTrue(graph.isLibrary("test/Yoda", "toString", "()Ljava/lang/String;"));
 	}
 
+	@Test
+	public void testDeclaringClasses() {
+		// "Speech" declares "say" but is not in the hierarchy
+		Set<String> expected = new HashSet<>(Arrays.asList(
+				"test/Greetings", "test/Person", "test/Jedi", "test/Sith", "test/Yoda"));
+		assertEquals(expected, graph.getDeclaringClasses("test/Yoda", "say", "()V"));
+		// Runtime classes are included
+		assertTrue(graph.getDeclaringClasses("test/Yoda", "toString", "()Ljava/lang/String;")
+				.contains("java/lang/Object"));
+		// Updated classes are indexed again
+		ClassReader reader = workspace.getClassReader("test/Yoda");
+		workspace.getPrimary().getClasses().put("test/Yoda", ClassUtil.removeMethod(reader, "say", "()V"));
+		assertFalse(graph.getDeclaringClasses("test/Yoda", "say", "()V").contains("test/Yoda"));
+	}
+
 	@Test
 	public void testAreLinked() {
 		// Yoda -> Jedi -> Person -> Greetings
@@ -125,4 +142,17 @@ public class HierarchyGraphTest extends Base {
 		// No path between Yoda and Speech
 		assertFalse(graph.areLinked("test/Yoda", "say", "()V", "test/Speech", "say", "()V"));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testSkeletonFollowsUpdates() {
+		ClassReader reader = workspace.getClassReader("test/Yoda");
+		// Skeletons are shared for the same bytecode
+		assertSame(ClassUtil.getSkeleton(reader), ClassUtil.getSkeleton(workspace.getClassReader("test/Yoda")));
+		assertTrue(ClassUtil.containsMethod(reader, "say", "()V"));
+		// Updated classes are read again
+		workspace.getPrimary().getClasses().put("test/Yoda", ClassUtil.removeMethod(reader, "say", "()V"));
+		ClassReader updated = workspace.getClassReader("test/Yoda");
+		assertFalse(ClassUtil.containsMethod(updated, "say", "()V"));
+		assertNotSame(ClassUtil.getSkeleton(reader), ClassUtil.getSkeleton(updated));
+	}
+}
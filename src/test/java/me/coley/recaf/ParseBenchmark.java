@@ -0,0 +1,86 @@
+package me.coley.recaf;
+
+import me.coley.recaf.parse.bytecode.Parse;
+import me.coley.recaf.parse.bytecode.ParseResult;
+import me.coley.recaf.parse.bytecode.ast.RootAST;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the assembler's parse throughput, reported in lines per second.
+ * Run with {@link #main(String[])} after compiling the test sources.
+ *
+ * @author Matt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+	private static final String[] BLOCK = {
+			"// Block %d",
+			"A%d:",
+			"LINE A%d %d",
+			"ALOAD this",
+			"GETFIELD calc/Calculator.depth I",
+			"ILOAD depth",
+			"IF_ICMPGE B%d",
+			"ALOAD expression",
+			"LDC \"+\"",
+			"INVOKEVIRTUAL java/lang/String.contains(Ljava/lang/CharSequence;)Z",
+			"IFEQ B%d",
+			"NEW java/lang/IllegalStateException",
+			"DUP",
+			"INVOKESPECIAL java/lang/IllegalStateException.<init>()V",
+			"ATHROW",
+			"B%d:",
+			"IINC depth 1",
+			"BIPUSH 30",
+			"ISTORE max",
+	};
+	private static final int BLOCKS = 500;
+	private static final int LINES = 1 + BLOCKS * BLOCK.length;
+	private String text;
+
+	/**
+	 * Build a method of {@link #LINES} lines.
+	 */
+	@Setup
+	public void setup() {
+		StringBuilder sb = new StringBuilder("DEFINE PUBLIC evaluate(I depth, Ljava/lang/String; expression)D\n");
+		for (int i = 0; i < BLOCKS; i++)
+			for (String line : BLOCK)
+				sb.append(String.format(line, i, i)).append('\n');
+		text = sb.toString();
+	}
+
+	/**
+	 * @return Parse of the method, each operation being one line.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(LINES)
+	public ParseResult<RootAST> parse() {
+		return Parse.parse(text);
+	}
+
+	/**
+	 * @param args
+	 * 		Unused.
+	 *
+	 * @throws RunnerException
+	 * 		When the benchmark fails to run.
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(ParseBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+}
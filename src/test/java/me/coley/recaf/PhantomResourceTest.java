@@ -0,0 +1,133 @@
+package me.coley.recaf;
+
+import me.coley.recaf.workspace.PhantomResource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for skipping phantom generation when the input changes cannot affect the phantoms.
+ * Each generation creates new phantom bytecode, so a kept phantom array shows generation was skipped.
+ *
+ * @author Matt
+ */
+public class PhantomResourceTest {
+	private static final String PHANTOM = "missing/Thing";
+	private PhantomResource phantoms;
+
+	@BeforeEach
+	public void setup() throws IOException {
+		phantoms = new PhantomResource();
+		phantoms.clear();
+	}
+
+	@Test
+	public void testGeneratesMissingType() throws IOException {
+		phantoms.populatePhantoms(Collections.singleton(createClass("test/User", 0, PHANTOM)));
+		assertTrue(phantoms.getClasses().containsKey(PHANTOM));
+	}
+
+	@Test
+	public void testUnchangedInputSkipsGeneration() throws IOException {
+		phantoms.populatePhantoms(Collections.singleton(createClass("test/User", 0, PHANTOM)));
+		byte[] phantom = phantoms.getClasses().get(PHANTOM);
+		// Equal bytecode in a new array is still the same input
+		phantoms.populatePhantoms(Collections.singleton(createClass("test/User", 0, PHANTOM)));
+		assertSame(phantom, phantoms.getClasses().get(PHANTOM));
+	}
+
+	@Test
+	public void testUnaffectedChangeSkipsGeneration() throws IOException {
+		phantoms.populatePhantoms(Arrays.asList(
+				createClass("test/User", 0, PHANTOM),
+				createClass("test/Other", 0)));
+		byte[] phantom = phantoms.getClasses().get(PHANTOM);
+		// The changed class still references no missing types
+		phantoms.populatePhantoms(Arrays.asList(
+				createClass("test/User", 0, PHANTOM),
+				createClass("test/Other", 1)));
+		assertSame(phantom, phantoms.getClasses().get(PHANTOM));
+	}
+
+	@Test
+	public void testNewMissingReferenceGenerates() throws IOException {
+		phantoms.populatePhantoms(Arrays.asList(
+				createClass("test/User", 0, PHANTOM),
+				createClass("test/Other", 0)));
+		byte[] phantom = phantoms.getClasses().get(PHANTOM);
+		phantoms.populatePhantoms(Arrays.asList(
+				createClass("test/User", 0, PHANTOM),
+				createClass("test/Other", 1, "missing/Another")));
+		assertTrue(phantoms.getClasses().containsKey("missing/Another"));
+		assertNotSame(phantom, phantoms.getClasses().get(PHANTOM));
+	}
+
+	@Test
+	public void testChangeToPhantomUserGenerates() throws IOException {
+		phantoms.populatePhantoms(Collections.singleton(createClass("test/User", 0, PHANTOM)));
+		byte[] phantom = phantoms.getClasses().get(PHANTOM);
+		// The changed class may use new members of the phantom
+		phantoms.populatePhantoms(Collections.singleton(createClass("test/User", 1, PHANTOM)));
+		assertNotSame(phantom, phantoms.getClasses().get(PHANTOM));
+	}
+
+	@Test
+	public void testManyChangesGenerate() throws IOException {
+		phantoms.populatePhantoms(createClasses(65, 0));
+		byte[] phantom = phantoms.getClasses().get(PHANTOM);
+		// Up to 64 unaffected changes are checked
+		phantoms.populatePhantoms(createClasses(64, 1));
+		assertSame(phantom, phantoms.getClasses().get(PHANTOM));
+		// Past that, generation is not skipped
+		phantoms.populatePhantoms(createClasses(65, 2));
+		assertNotSame(phantom, phantoms.getClasses().get(PHANTOM));
+	}
+
+	/**
+	 * @param changed
+	 * 		Number of filler classes to give the new value.
+	 * @param value
+	 * 		Constant used by changed filler classes.
+	 *
+	 * @return A user of the phantom and 65 filler classes, of which the given number are changed.
+	 */
+	private static List<byte[]> createClasses(int changed, int value) {
+		List<byte[]> classes = new ArrayList<>();
+		classes.add(createClass("test/User", 0, PHANTOM));
+		for (int i = 0; i < 65; i++)
+			classes.add(createClass("test/Filler" + i, i < changed ? value : 0));
+		return classes;
+	}
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 * @param value
+	 * 		Constant used by the class, to create different bytecode.
+	 * @param called
+	 * 		Owners of static {@code run()V} methods the class calls.
+	 *
+	 * @return Bytecode of the class.
+	 */
+	private static byte[] createClass(String name, int value, String... called) {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null);
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "run", "()I", null, null);
+		mv.visitCode();
+		for (String owner : called)
+			mv.visitMethodInsn(Opcodes.INVOKESTATIC, owner, "run", "()V", false);
+		mv.visitLdcInsn(value);
+		mv.visitInsn(Opcodes.IRETURN);
+		mv.visitMaxs(1, 0);
+		mv.visitEnd();
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+}
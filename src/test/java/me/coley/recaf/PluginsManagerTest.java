@@ -0,0 +1,81 @@
+package me.coley.recaf;
+
+import me.coley.recaf.plugin.PluginsManager;
+import me.coley.recaf.plugin.api.ClassVisitorPlugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassVisitor;
+import org.plugface.core.annotations.Plugin;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the active plugins cached by the plugin manager.
+ *
+ * @author Matt
+ */
+public class PluginsManagerTest {
+	private final PluginsManager manager = PluginsManager.getInstance();
+	private final Visitor plugin = new Visitor();
+
+	@BeforeEach
+	public void setup() {
+		manager.addPlugin(plugin);
+	}
+
+	@AfterEach
+	public void cleanup() {
+		manager.removePlugin(plugin.getName());
+	}
+
+	@Test
+	public void testTogglingStateUpdatesActive() {
+		assertTrue(manager.ofType(ClassVisitorPlugin.class).contains(plugin));
+		manager.setPluginState(plugin.getName(), false);
+		assertFalse(manager.ofType(ClassVisitorPlugin.class).contains(plugin));
+		manager.setPluginState(plugin.getName(), true);
+		assertTrue(manager.ofType(ClassVisitorPlugin.class).contains(plugin));
+	}
+
+	@Test
+	public void testRemovingPluginUpdatesActive() {
+		assertTrue(manager.ofType(ClassVisitorPlugin.class).contains(plugin));
+		manager.removePlugin(plugin.getName());
+		assertFalse(manager.ofType(ClassVisitorPlugin.class).contains(plugin));
+	}
+
+	@Test
+	public void testMapsAreReadOnly() {
+		assertThrows(UnsupportedOperationException.class,
+				() -> manager.getPluginStates().put(plugin.getName(), false));
+		assertThrows(UnsupportedOperationException.class,
+				() -> manager.getPluginStates().entrySet().iterator().next().setValue(false));
+		assertThrows(UnsupportedOperationException.class,
+				() -> manager.plugins().keySet().removeAll(Collections.singleton(plugin.getName())));
+		assertTrue(manager.ofType(ClassVisitorPlugin.class).contains(plugin));
+	}
+
+	/**
+	 * Visitor plugin that changes nothing.
+	 */
+	@Plugin(name = "PluginsManagerTest")
+	private static final class Visitor implements ClassVisitorPlugin {
+		@Override
+		public ClassVisitor intercept(ClassVisitor visitor) {
+			return visitor;
+		}
+
+		@Override
+		public String getVersion() {
+			return "1.0";
+		}
+
+		@Override
+		public String getDescription() {
+			return "Test visitor plugin";
+		}
+	}
+}
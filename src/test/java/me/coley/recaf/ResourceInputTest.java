@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collections;
@@ -44,6 +45,26 @@ public class ResourceInputTest extends Base {
 		}
 	}
 
+	@Test
+	public void testNestedJar() {
+		try {
+			JavaResource resource = new JarResource(getClasspathFile("calc.jar"));
+			byte[] nestedJar = Files.readAllBytes(getClasspathFile("inherit.jar"));
+			resource.getFiles().put("lib/inherit.jar", nestedJar);
+			assertEquals(Collections.singleton("lib/inherit.jar"), resource.getNestedArchiveNames());
+			NestedArchiveResource nested = resource.getNestedArchive("lib/inherit.jar");
+			assertNotNull(nested);
+			assertSame(nested, resource.getNestedArchive("lib/inherit.jar"));
+			assertEquals(CLASSES_IN_INHERIT_JAR, nested.getClasses().size());
+			// Files that are not archives cannot be loaded as resources
+			for (String name : resource.getFiles().keySet())
+				if (!name.equals("lib/inherit.jar"))
+					assertNull(resource.getNestedArchive(name));
+		} catch(IOException ex) {
+			fail(ex);
+		}
+	}
+
 	@Test
 	public void testClass() {
 		try {
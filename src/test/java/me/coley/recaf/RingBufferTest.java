@@ -0,0 +1,60 @@
+package me.coley.recaf;
+
+import me.coley.recaf.util.struct.RingBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the ring buffer used to queue log messages.
+ *
+ * @author Matt
+ */
+public class RingBufferTest {
+	@Test
+	public void testFullAndWrapAround() {
+		RingBuffer<Integer> buffer = new RingBuffer<>(3);
+		assertEquals(4, buffer.capacity());
+		for (int lap = 0; lap < 3; lap++) {
+			for (int i = 0; i < 4; i++)
+				assertTrue(buffer.offer(i));
+			assertFalse(buffer.offer(4));
+			for (int i = 0; i < 4; i++)
+				assertEquals(i, buffer.poll());
+			assertNull(buffer.poll());
+		}
+	}
+
+	@Test
+	public void testConcurrentProducersKeepOrder() throws InterruptedException {
+		int producers = 4;
+		int count = 50_000;
+		RingBuffer<int[]> buffer = new RingBuffer<>(64);
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			int producer = p;
+			Thread thread = new Thread(() -> {
+				for (int i = 0; i < count; i++) {
+					int[] value = { producer, i };
+					while (!buffer.offer(value))
+						Thread.yield();
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		int[] next = new int[producers];
+		int received = 0;
+		while (received < producers * count) {
+			received += buffer.drain(value -> {
+				assertEquals(next[value[0]], value[1]);
+				next[value[0]]++;
+			}, 16);
+		}
+		for (Thread thread : threads)
+			thread.join();
+		assertNull(buffer.poll());
+	}
+}
@@ -1,8 +1,12 @@
 package me.coley.recaf;
 
+import me.coley.recaf.parse.bytecode.Disassembler;
+import me.coley.recaf.parse.bytecode.DisassemblyCache;
 import me.coley.recaf.search.*;
+import me.coley.recaf.util.ClassUtil;
 import me.coley.recaf.workspace.*;
 import org.junit.jupiter.api.*;
+import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Opcodes;
 
 import java.io.IOException;
@@ -281,6 +285,25 @@ public class SearchTest extends Base {
 		assertTrue(results.contains("calc/Constant"));
 	}
 
+	@Test
+	public void testInsnTextSharesDisassembly() {
+		// Setup search - Disassembled text containing "RETURN"
+		SearchCollector collector = SearchBuilder.in(workspace).skipDebug()
+				.query(new InsnTextQuery(Collections.singletonList("RETURN"), CONTAINS)).build();
+		assertFalse(collector.getAllResults().isEmpty());
+		// The disassembly made by the search is reused, and matches that of a direct disassembly
+		int flags = ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG;
+		ClassReader reader = workspace.getClassReader("calc/Calculator");
+		String name = "evaluate";
+		String desc = "(ILjava/lang/String;)D";
+		String cached = DisassemblyCache.disassemble(reader, flags, name, desc, true, () -> {
+			fail("Disassembly of the search was not reused");
+			return null;
+		});
+		assertEquals(new Disassembler().disassemble(ClassUtil.getMethod(reader, flags, name, desc)), cached);
+		assertSame(cached, DisassemblyCache.disassemble(reader, flags, name, desc));
+	}
+
 	private static void contextEquals(Context<?> context, String owner, String name, String desc) {
 		assertTrue(context instanceof Context.MemberContext);
 		Context.MemberContext member = (Context.MemberContext) context;
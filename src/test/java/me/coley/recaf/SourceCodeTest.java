@@ -12,13 +12,18 @@ import com.google.common.collect.Sets;
 import me.coley.recaf.parse.source.SourceCode;
 import me.coley.recaf.workspace.*;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static java.util.Collections.*;
@@ -253,6 +258,54 @@ public class SourceCodeTest extends Base {
 			assertMatchingSource(resource);
 		}
 
+		@Test
+		public void testLookupBeforeFullParse() {
+			JavaResource resource;
+			try {
+				Path file = getClasspathFile("calc.jar");
+				resource = new JarResource(file);
+				resource.getClasses();
+				if(!resource.setClassSources(file))
+					fail("Failed to read sources!");
+			} catch(IOException ex) {
+				fail(ex);
+				return;
+			}
+			// Sources in this jar are in a "src/" directory
+			SourceCode code = resource.getClassSource("calc/Calculator");
+			assertNotNull(code);
+			assertEquals("calc/Calculator", code.getInternalName());
+			assertNotNull(resource.getClassSource("Start"));
+			assertNull(resource.getClassSource("calc/Missing"));
+		}
+
+		@Test
+		public void testPrefixedSourceLoading(@TempDir Path dir) {
+			JavaResource resource;
+			try {
+				Path sources = dir.resolve("src.zip");
+				try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(sources))) {
+					// Layout of the JDK's "src.zip"
+					zos.putNextEntry(new ZipEntry("java.base/test/Sample.java"));
+					zos.write("package test; public class Sample {}".getBytes(StandardCharsets.UTF_8));
+					zos.closeEntry();
+				}
+				resource = new JarResource(getClasspathFile("calc.jar"));
+				resource.getClasses();
+				if(!resource.setClassSources(sources))
+					fail("Failed to read sources!");
+			} catch(IOException ex) {
+				fail(ex);
+				return;
+			}
+			SourceCode code = resource.getClassSource("test/Sample");
+			assertNotNull(code);
+			assertEquals("test/Sample", code.getInternalName());
+			// Only the declared package makes a match
+			assertNull(resource.getClassSource("base/test/Sample"));
+			assertEquals(singleton("test/Sample"), resource.getClassSources().keySet());
+		}
+
 		@Test
 		public void testJarFailsOnMissingFile() {
 			JavaResource resource;
@@ -2,13 +2,17 @@ package me.coley.recaf;
 
 import me.coley.recaf.ui.controls.text.model.LanguageStyler;
 import me.coley.recaf.ui.controls.text.model.Languages;
+import me.coley.recaf.ui.controls.text.model.StyleUpdate;
+import org.fxmisc.richtext.model.StyleSpan;
+import org.fxmisc.richtext.model.StyleSpans;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.*;
 
 import java.util.*;
 import java.util.stream.Stream;
 
-import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Regression tests to assert the odd load-order-based errors with the language styler don't resurface.
@@ -45,6 +49,51 @@ public class StylerTest {
 		}
 	}
 
+	@Test
+	public void testIncrementalMatchesFull() {
+		LanguageStyler styler = new LanguageStyler(Languages.find("java"));
+		String text = "class Name {\n\t/* block\n\t comment */\n\tstatic int i = 0;\n\tString s = \"str\";\n}";
+		StyleUpdate update = styler.computeUpdate(text, 0, text.length());
+		styler.commit(update);
+		List<String> styles = toList(update.getSpans());
+		// Edit each line, including inside the comment, and undo it again
+		String[] edits = { "x", "int ", "\n", "" };
+		for (String edit : edits) {
+			for (int pos = 0; pos <= text.length(); pos += 3) {
+				String edited = text.substring(0, pos) + edit + text.substring(pos);
+				styles = apply(styler, styles, edited, pos, pos, pos + edit.length());
+				styles = apply(styler, styles, text, pos, pos + edit.length(), pos);
+			}
+		}
+		// Changes to comment delimiters affect the following lines
+		String edited = text.replace("/*", "//");
+		apply(styler, styles, edited, text.indexOf("/*"), text.indexOf("/*") + 2, text.indexOf("/*") + 2);
+	}
+
+	private static List<String> apply(LanguageStyler styler, List<String> styles, String text,
+									  int position, int removalEnd, int insertionEnd) {
+		// Emulate the styled text, which gives inserted text no style until it is updated
+		List<String> updated = new ArrayList<>(styles.subList(0, position));
+		updated.addAll(Collections.nCopies(insertionEnd - position, "?"));
+		updated.addAll(styles.subList(removalEnd, styles.size()));
+		StyleUpdate update = styler.computeUpdate(text, position, insertionEnd);
+		if (update != null) {
+			List<String> patch = toList(update.getSpans());
+			for (int i = 0; i < patch.size(); i++)
+				updated.set(update.getStart() + i, patch.get(i));
+			styler.commit(update);
+		}
+		assertEquals(toList(styler.computeStyle(text)), updated);
+		return updated;
+	}
+
+	private static List<String> toList(StyleSpans<Collection<String>> spans) {
+		List<String> list = new ArrayList<>();
+		for (StyleSpan<Collection<String>> span : spans)
+			list.addAll(Collections.nCopies(span.getLength(), String.join(",", span.getStyle())));
+		return list;
+	}
+
 	public static Stream<Arguments> generateCombinations() {
 		List<Arguments> pairs = new ArrayList<>();
 		for (String first : langToExample.keySet())
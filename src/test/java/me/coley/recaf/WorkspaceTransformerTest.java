@@ -0,0 +1,248 @@
+package me.coley.recaf;
+
+import me.coley.recaf.plugin.PluginsManager;
+import me.coley.recaf.plugin.api.ClassVisitorPlugin;
+import me.coley.recaf.plugin.api.WorkspaceTransformerPlugin;
+import me.coley.recaf.util.ClassUtil;
+import me.coley.recaf.workspace.JarResource;
+import me.coley.recaf.workspace.JavaResource;
+import me.coley.recaf.workspace.Workspace;
+import me.coley.recaf.workspace.WorkspaceTransformer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.plugface.core.annotations.Plugin;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for transforming a workspace with transformer plugins.
+ *
+ * @author Matt
+ */
+public class WorkspaceTransformerTest extends Base {
+	private Workspace workspace;
+	private JavaResource primary;
+
+	@BeforeEach
+	public void setup() throws IOException {
+		primary = new JarResource(getClasspathFile("calc.jar"));
+		workspace = new Workspace(primary);
+		primary.getClasses();
+	}
+
+	@Test
+	public void testChangedClasses() {
+		byte[] original = primary.getClasses().get("Start");
+		Set<String> changed = new WorkspaceTransformer(workspace)
+				.apply(Collections.singleton(new AddField("calc/Constant", "added")));
+		assertEquals(Collections.singleton("calc/Constant"), changed);
+		assertTrue(hasField("calc/Constant", "added"));
+		assertFalse(hasField("calc/Calculator", "added"));
+		assertSame(original, primary.getClasses().get("Start"));
+		// Changed classes get a save state, so the change can be undone
+		assertEquals(2, primary.getClassHistory("calc/Constant").size());
+		assertEquals(1, primary.getClassHistory("calc/Calculator").size());
+	}
+
+	@Test
+	public void testTransformersShareNode() {
+		Set<String> changed = new WorkspaceTransformer(workspace).apply(Arrays.asList(
+				new AddField("calc/Constant", "first"), new AddField("calc/Constant", "second")));
+		assertEquals(Collections.singleton("calc/Constant"), changed);
+		assertTrue(hasField("calc/Constant", "first"));
+		assertTrue(hasField("calc/Constant", "second"));
+	}
+
+	@Test
+	public void testDebugInfoKept() {
+		assertTrue(hasLineNumbers("calc/Constant"));
+		new WorkspaceTransformer(workspace)
+				.apply(Collections.singleton(new AddFieldNoDebug("calc/Constant", "added")));
+		assertTrue(hasField("calc/Constant", "added"));
+		// The transformer does not read debug info, but it must not be lost when writing the class
+		assertTrue(hasLineNumbers("calc/Constant"));
+	}
+
+	@Test
+	public void testRename() {
+		Set<String> changed = new WorkspaceTransformer(workspace)
+				.apply(Collections.singleton(new Rename("Start", "Renamed")));
+		// Changed classes are reported by their name prior to the transformation
+		assertEquals(Collections.singleton("Start"), changed);
+		assertFalse(primary.getClasses().containsKey("Start"));
+		assertTrue(primary.getClasses().containsKey("Renamed"));
+		assertEquals(1, primary.getClassHistory("Renamed").size());
+	}
+
+	@Test
+	public void testFailingTransformerSkipsClass() {
+		byte[] original = primary.getClasses().get("calc/Constant");
+		Set<String> changed = new WorkspaceTransformer(workspace).apply(Arrays.asList(
+				new AddField("calc/Constant", "added"), new Failing()));
+		// The first transformer's changes are dropped along with the failed one
+		assertTrue(changed.isEmpty());
+		assertSame(original, primary.getClasses().get("calc/Constant"));
+		assertEquals(1, primary.getClassHistory("calc/Constant").size());
+	}
+
+	@Test
+	public void testVisitorPluginsIntercept() {
+		PluginsManager manager = PluginsManager.getInstance();
+		Intercepting intercepting = new Intercepting();
+		manager.addPlugin(intercepting);
+		try {
+			new WorkspaceTransformer(workspace).apply(Collections.singleton(new AddField("calc/Constant", "added")));
+		} finally {
+			manager.removePlugin(intercepting.getName());
+		}
+		assertTrue(hasField("calc/Constant", "added"));
+		assertTrue(hasField("calc/Constant", "intercepted"));
+		assertFalse(hasField("calc/Calculator", "intercepted"));
+	}
+
+	private boolean hasField(String owner, String name) {
+		ClassNode node = ClassUtil.getNode(new ClassReader(primary.getClasses().get(owner)), 0);
+		return node.fields.stream().anyMatch(field -> field.name.equals(name));
+	}
+
+	private boolean hasLineNumbers(String owner) {
+		ClassNode node = ClassUtil.getNode(new ClassReader(primary.getClasses().get(owner)), 0);
+		return node.methods.stream().anyMatch(method ->
+				Arrays.stream(method.instructions.toArray()).anyMatch(insn -> insn instanceof LineNumberNode));
+	}
+
+	/**
+	 * Adds a field to a single class.
+	 */
+	@Plugin(name = "AddField")
+	private static final class AddField extends TestTransformer {
+		private final String target;
+		private final String field;
+
+		private AddField(String target, String field) {
+			this.target = target;
+			this.field = field;
+		}
+
+		@Override
+		public boolean isTargeted(Workspace workspace, ClassReader reader) {
+			return reader.getClassName().equals(target);
+		}
+
+		@Override
+		public boolean transform(Workspace workspace, ClassNode node) {
+			node.fields.add(new FieldNode(Opcodes.ACC_PUBLIC, field, "I", null, null));
+			return true;
+		}
+	}
+
+	/**
+	 * Adds a field to a single class, without reading debug info.
+	 */
+	@Plugin(name = "AddFieldNoDebug")
+	private static final class AddFieldNoDebug extends TestTransformer {
+		private final AddField delegate;
+
+		private AddFieldNoDebug(String target, String field) {
+			this.delegate = new AddField(target, field);
+		}
+
+		@Override
+		public boolean isTargeted(Workspace workspace, ClassReader reader) {
+			return delegate.isTargeted(workspace, reader);
+		}
+
+		@Override
+		public boolean isDebugInfoNeeded() {
+			return false;
+		}
+
+		@Override
+		public boolean transform(Workspace workspace, ClassNode node) {
+			return delegate.transform(workspace, node);
+		}
+	}
+
+	/**
+	 * Renames a single class.
+	 */
+	@Plugin(name = "Rename")
+	private static final class Rename extends TestTransformer {
+		private final String from;
+		private final String to;
+
+		private Rename(String from, String to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public boolean transform(Workspace workspace, ClassNode node) {
+			if (!node.name.equals(from))
+				return false;
+			node.name = to;
+			return true;
+		}
+	}
+
+	/**
+	 * Throws for every class.
+	 */
+	@Plugin(name = "Failing")
+	private static final class Failing extends TestTransformer {
+		@Override
+		public boolean transform(Workspace workspace, ClassNode node) {
+			throw new IllegalStateException("Failing");
+		}
+	}
+
+	/**
+	 * Adds a field to every written class.
+	 */
+	@Plugin(name = "Intercepting")
+	private static final class Intercepting implements ClassVisitorPlugin {
+		@Override
+		public ClassVisitor intercept(ClassVisitor visitor) {
+			return new ClassVisitor(Recaf.ASM_VERSION, visitor) {
+				@Override
+				public void visitEnd() {
+					visitField(Opcodes.ACC_PUBLIC, "intercepted", "I", null, null).visitEnd();
+					super.visitEnd();
+				}
+			};
+		}
+
+		@Override
+		public String getVersion() {
+			return "1.0";
+		}
+
+		@Override
+		public String getDescription() {
+			return "Test visitor plugin";
+		}
+	}
+
+	private abstract static class TestTransformer implements WorkspaceTransformerPlugin {
+		@Override
+		public String getVersion() {
+			return "1.0";
+		}
+
+		@Override
+		public String getDescription() {
+			return "Test transformer";
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package me.coley.recaf.ui.controls;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the edit overlay of the hex editor.
+ *
+ * @author Matt
+ */
+public class HexContentTest {
+	@Test
+	public void testEditsDoNotModifyOriginal() {
+		byte[] original = { 1, 2, 3, 4 };
+		HexContent content = new HexContent(original);
+		content.set(1, (byte) 9);
+		assertEquals(9, content.get(1));
+		assertArrayEquals(new byte[] { 1, 9, 3, 4 }, content.toArray());
+		assertArrayEquals(new byte[] { 1, 2, 3, 4 }, original);
+	}
+
+	@Test
+	public void testRevertedEditsYieldOriginal() {
+		byte[] original = { 1, 2, 3, 4 };
+		HexContent content = new HexContent(original);
+		content.set(1, (byte) 9);
+		content.set(1, (byte) 2);
+		assertFalse(content.isModified());
+		assertSame(original, content.toArray());
+	}
+
+	@Test
+	public void testRevertAfterSaveDiffersFromSave() {
+		// Mirrors how the editor viewport saves: content is compared against the last save,
+		// since the overlay only knows about the content it was opened with.
+		byte[] original = { 1, 2, 3, 4 };
+		HexContent content = new HexContent(original);
+		content.set(1, (byte) 9);
+		byte[] saved = content.toArray();
+		assertFalse(Arrays.equals(original, saved));
+		// Changing the byte back leaves no edits, but the content must still be saved again
+		content.set(1, (byte) 2);
+		assertFalse(content.isModified());
+		assertFalse(Arrays.equals(saved, content.toArray()));
+		assertArrayEquals(original, content.toArray());
+	}
+
+	@Test
+	public void testIndexOf() {
+		HexContent content = new HexContent(new byte[] { 1, 2, 3, 1, 2, 3 });
+		assertEquals(0, content.indexOf(new byte[] { 1, 2 }, 0));
+		assertEquals(3, content.indexOf(new byte[] { 1, 2 }, 1));
+		assertEquals(-1, content.indexOf(new byte[] { 3, 3 }, 0));
+		assertEquals(-1, content.indexOf(new byte[0], 0));
+		content.set(4, (byte) 7);
+		assertEquals(3, content.indexOf(new byte[] { 1, 7 }, 0));
+	}
+}
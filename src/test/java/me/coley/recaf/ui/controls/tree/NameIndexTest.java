@@ -0,0 +1,131 @@
+package me.coley.recaf.ui.controls.tree;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the name index and item filter used to search the workspace navigator.
+ *
+ * @author Matt
+ */
+public class NameIndexTest {
+	private static final List<String> NAMES = Arrays.asList(
+			"com/example/Main", "com/example/MainHelper", "com/example/util/Strings",
+			"org/other/Mainframe", "a", "ab", "aaaa");
+
+	@Nested
+	public class Index {
+		@Test
+		public void testSearch() {
+			NameIndex index = new NameIndex(NAMES);
+			assertEquals(set("com/example/Main", "com/example/MainHelper", "org/other/Mainframe"),
+					index.search("Main"));
+			assertEquals(set("com/example/util/Strings"), index.search("util/Str"));
+			assertEquals(Collections.emptySet(), index.search("Missing"));
+		}
+
+		@Test
+		public void testSearchShorterThanTrigram() {
+			NameIndex index = new NameIndex(NAMES);
+			assertEquals(set("ab"), index.search("b"));
+			assertEquals(set("ab"), index.search("ab"));
+			assertEquals(new HashSet<>(NAMES), index.search(""));
+		}
+
+		@Test
+		public void testSearchRepeatedTrigram() {
+			// "aaaa" has the trigram "aaa" twice, and must only be listed once
+			NameIndex index = new NameIndex(NAMES);
+			assertEquals(set("aaaa"), index.search("aaa"));
+			assertEquals(set("aaaa"), index.search("aaaa"));
+			assertEquals(Collections.emptySet(), index.search("aaaaa"));
+		}
+
+		@Test
+		public void testAddAndRemove() {
+			NameIndex index = new NameIndex(NAMES);
+			index.add("com/example/Main");
+			index.remove("com/example/MainHelper");
+			index.remove("not/Indexed");
+			index.add("net/Mains");
+			assertEquals(set("com/example/Main", "org/other/Mainframe", "net/Mains"), index.search("Main"));
+			assertFalse(index.getNames().contains("com/example/MainHelper"));
+		}
+
+		@Test
+		public void testCompactsRemovedNames() {
+			NameIndex index = new NameIndex(Collections.emptyList());
+			for (int cycle = 0; cycle < 100; cycle++) {
+				for (int i = 0; i < 10; i++)
+					index.add("pkg/Class" + cycle + "_" + i);
+				for (int i = 0; i < 10; i++)
+					index.remove("pkg/Class" + cycle + "_" + i);
+			}
+			index.add("pkg/Kept");
+			assertTrue(index.getSlotCount() < 128, "Removed names were not compacted: " + index.getSlotCount());
+			assertEquals(set("pkg/Kept"), index.search("pkg/"));
+			assertEquals(set("pkg/Kept"), index.getNames());
+		}
+	}
+
+	@Nested
+	public class Filter {
+		private final Map<String, Integer> access = new HashMap<>();
+
+		@Test
+		public void testWords() {
+			NameIndex index = new NameIndex(NAMES);
+			ItemFilter filter = new ItemFilter("  example   Main ");
+			assertFalse(filter.isEmpty());
+			assertEquals(set("com/example/Main", "com/example/MainHelper"), matchClasses(filter, index));
+			assertTrue(new ItemFilter("   ").isEmpty());
+			assertEquals(new HashSet<>(NAMES), matchClasses(new ItemFilter(""), index));
+		}
+
+		@Test
+		public void testAccessOptions() {
+			access.put("com/example/Main", Opcodes.ACC_PUBLIC | Opcodes.ACC_ENUM);
+			access.put("com/example/MainHelper", Opcodes.ACC_PUBLIC);
+			access.put("org/other/Mainframe", Opcodes.ACC_ENUM);
+			NameIndex index = new NameIndex(NAMES);
+			assertEquals(set("com/example/Main", "org/other/Mainframe"),
+					matchClasses(new ItemFilter("enum:true Main"), index));
+			assertEquals(set("org/other/Mainframe"),
+					matchClasses(new ItemFilter("ENUM:true public:false Main"), index));
+			// Files have no access flags
+			assertEquals(Collections.emptySet(), new ItemFilter("enum:true").matchFiles(index));
+		}
+
+		@Test
+		public void testUnknownOptionIsWord() {
+			// Not a class access flag, or not an option at all
+			NameIndex index = new NameIndex(Arrays.asList("static:true", "a:b", "other"));
+			assertEquals(set("static:true"), matchClasses(new ItemFilter("static:true"), index));
+			assertEquals(set("a:b"), matchClasses(new ItemFilter("a:b"), index));
+			assertEquals(set("a:b"), matchClasses(new ItemFilter(":b"), index));
+		}
+
+		@Test
+		public void testExtension() {
+			NameIndex files = new NameIndex(Arrays.asList("META-INF/MANIFEST.MF", "data.json", "lang/en.json"));
+			assertEquals(set("data.json", "lang/en.json"), new ItemFilter("ext:json").matchFiles(files));
+			assertEquals(set("lang/en.json"), new ItemFilter("ext:.json lang").matchFiles(files));
+			NameIndex classes = new NameIndex(NAMES);
+			assertEquals(Collections.emptySet(), matchClasses(new ItemFilter("ext:json"), classes));
+			assertEquals(set("com/example/util/Strings"), matchClasses(new ItemFilter("ext:class util"), classes));
+		}
+
+		private Set<String> matchClasses(ItemFilter filter, NameIndex index) {
+			return filter.matchClasses(index, name -> access.getOrDefault(name, 0));
+		}
+	}
+
+	private static Set<String> set(String... values) {
+		return new HashSet<>(Arrays.asList(values));
+	}
+}